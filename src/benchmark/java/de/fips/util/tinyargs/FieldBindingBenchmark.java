@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.fips.util.tinyargs.annotation.Option;
+import de.fips.util.tinyargs.option.AbstractOption;
+
+/**
+ * Compares the binding of parsed values into the annotated fields via
+ * {@link FieldBinding} with the former <code>Field.get</code>/
+ * <code>Field.set</code> round trip.
+ * 
+ * @author Philipp Eichhorn
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FieldBindingBenchmark {
+	private BindingTarget target;
+	private ParseResult result;
+	private List<OptionBinding<? super BindingTarget>> bindings;
+
+	@Setup
+	public void setup() throws Exception {
+		final OptionSchema<BindingTarget> schema = OptionSchema.of(BindingTarget.class, Locale.US);
+		target = schema.newInstance();
+		bindings = schema.getBindings();
+		result = schema.newParser().parse(new String[] { "--count", "42", "--size", "4711", "--ratio", "0.5", "--verbose", "--name", "foo" }, Locale.US);
+	}
+
+	@Benchmark
+	public BindingTarget fieldGetAndSet() throws IllegalAccessException {
+		for (final OptionBinding<? super BindingTarget> binding : bindings) {
+			final Field field = ((FieldBinding) binding).getField();
+			final AbstractOption<Object> option = Util.uncheckedCast(binding.getOption());
+			field.set(target, result.getOptionValue(option, field.get(target)));
+		}
+		return target;
+	}
+
+	@Benchmark
+	public BindingTarget fieldBinding() throws IllegalAccessException {
+		for (final OptionBinding<? super BindingTarget> binding : bindings) {
+			binding.bind(target, result);
+		}
+		return target;
+	}
+
+	public static class BindingTarget {
+		@Option
+		private int count;
+		@Option
+		private long size;
+		@Option
+		private double ratio;
+		@Option
+		private boolean verbose;
+		@Option
+		private String name;
+		@Option
+		private Integer unused;
+	}
+}
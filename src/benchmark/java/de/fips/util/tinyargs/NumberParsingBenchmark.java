@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.fips.util.tinyargs.option.DoubleOption;
+
+/**
+ * Parses 1M numeric option values with a fresh {@link NumberFormat} per value,
+ * the way {@link DoubleOption} used to, and with {@link DoubleOption} itself.
+ * 
+ * @author Philipp Eichhorn
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NumberParsingBenchmark {
+	private static final int VALUE_COUNT = 1000000;
+
+	@Param({ "en_US", "de_DE" })
+	public String localeName;
+
+	private Locale locale;
+	private DoubleOption option;
+	private String[] values;
+
+	@Setup
+	public void setup() {
+		final String[] parts = localeName.split("_");
+		locale = new Locale(parts[0], parts[1]);
+		option = new DoubleOption("value", "");
+		final NumberFormat format = NumberFormat.getNumberInstance(locale);
+		format.setGroupingUsed(false);
+		final Random random = new Random(4711);
+		values = new String[VALUE_COUNT];
+		for (int i = 0; i < VALUE_COUNT; i++) {
+			values[i] = ((i % 2) == 0) ? Integer.toString(random.nextInt()) : format.format(random.nextDouble() * 1000);
+		}
+	}
+
+	@Benchmark
+	public double numberFormatPerValue() throws ParseException {
+		double sum = 0;
+		for (final String value : values) {
+			sum += NumberFormat.getNumberInstance(locale).parse(value).doubleValue();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double doubleOption() throws ParseException {
+		double sum = 0;
+		for (final String value : values) {
+			sum += option.parseDouble(value, locale);
+		}
+		return sum;
+	}
+}
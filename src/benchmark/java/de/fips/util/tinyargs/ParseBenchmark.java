@@ -0,0 +1,169 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.fips.util.tinyargs.exception.OptionException;
+import de.fips.util.tinyargs.option.BooleanOption;
+import de.fips.util.tinyargs.option.DoubleOption;
+import de.fips.util.tinyargs.option.IntegerOption;
+import de.fips.util.tinyargs.option.StringOption;
+
+/**
+ * Measures {@link CommandLineParser#parse(String[], Locale)} for schemas of
+ * different sizes and for the different ways to pass options. The
+ * <code>benchmark</code> target runs with the GC profiler, whose
+ * <code>gc.alloc.rate.norm</code> is the number of bytes allocated per parse.
+ * 
+ * @author Philipp Eichhorn
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParseBenchmark {
+	private static final int USED_OPTION_COUNT = 10;
+	private static final String FLAGS = "abcdefghij";
+
+	@Param({ "5", "50", "500" })
+	public int optionCount;
+
+	private CommandLineParser parser;
+	private String[] keyEqualsValueArgs;
+	private String[] separateValueArgs;
+	private String[] clusteredFlagArgs;
+	private String[] separateFlagArgs;
+	private String[] mixedFlagArgs;
+	private String[] usNumberArgs;
+	private String[] germanNumberArgs;
+
+	@Setup
+	public void setup() {
+		parser = new CommandLineParser();
+		for (int i = 0; i < optionCount; i++) {
+			switch (i % 3) {
+			case 0:
+				parser.addOption(new IntegerOption("option" + i, ""));
+				break;
+			case 1:
+				parser.addOption(new StringOption("option" + i, ""));
+				break;
+			default:
+				parser.addOption(new DoubleOption("option" + i, ""));
+			}
+		}
+		for (int i = 0; i < FLAGS.length(); i++) {
+			parser.addOption(new BooleanOption(FLAGS.charAt(i), "flag" + i, ""));
+		}
+
+		final List<String> keyEqualsValue = new ArrayList<String>();
+		final List<String> separateValue = new ArrayList<String>();
+		final List<String> usNumbers = new ArrayList<String>();
+		final List<String> germanNumbers = new ArrayList<String>();
+		final int step = Math.max(1, optionCount / USED_OPTION_COUNT);
+		for (int i = 0; i < optionCount; i += step) {
+			final String value = valueOf(i, ".");
+			keyEqualsValue.add("--option" + i + "=" + value);
+			separateValue.add("--option" + i);
+			separateValue.add(value);
+			if ((i % 3) == 2) {
+				usNumbers.add("--option" + i + "=" + value);
+				germanNumbers.add("--option" + i + "=" + valueOf(i, ","));
+			}
+		}
+		keyEqualsValueArgs = keyEqualsValue.toArray(new String[keyEqualsValue.size()]);
+		separateValueArgs = separateValue.toArray(new String[separateValue.size()]);
+		usNumberArgs = usNumbers.toArray(new String[usNumbers.size()]);
+		germanNumberArgs = germanNumbers.toArray(new String[germanNumbers.size()]);
+
+		clusteredFlagArgs = new String[] { "-" + FLAGS };
+		separateFlagArgs = new String[FLAGS.length()];
+		for (int i = 0; i < FLAGS.length(); i++) {
+			separateFlagArgs[i] = "-" + FLAGS.charAt(i);
+		}
+		mixedFlagArgs = new String[] { "-abc", "--flag3", "-a", "-cb" };
+	}
+
+	private static String valueOf(final int option, final String decimalSeparator) {
+		switch (option % 3) {
+		case 0:
+			return Integer.toString(option * 31);
+		case 1:
+			return "value" + option;
+		default:
+			return option + decimalSeparator + "25";
+		}
+	}
+
+	@Benchmark
+	public ParseResult keyEqualsValue() throws OptionException {
+		return parser.parse(keyEqualsValueArgs, Locale.US);
+	}
+
+	@Benchmark
+	public ParseResult separateValue() throws OptionException {
+		return parser.parse(separateValueArgs, Locale.US);
+	}
+
+	@Benchmark
+	public ParseResult clusteredFlags() throws OptionException {
+		return parser.parse(clusteredFlagArgs, Locale.US);
+	}
+
+	@Benchmark
+	public ParseResult separateFlags() throws OptionException {
+		return parser.parse(separateFlagArgs, Locale.US);
+	}
+
+	@Benchmark
+	public ParseResult mixedFlags() throws OptionException {
+		return parser.parse(mixedFlagArgs, Locale.US);
+	}
+
+	@Benchmark
+	public ParseResult usNumbers() throws OptionException {
+		return parser.parse(usNumberArgs, Locale.US);
+	}
+
+	@Benchmark
+	public ParseResult germanNumbers() throws OptionException {
+		return parser.parse(germanNumberArgs, Locale.GERMANY);
+	}
+}
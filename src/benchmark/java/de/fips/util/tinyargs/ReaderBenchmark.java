@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.fips.util.tinyargs.annotation.Option;
+import de.fips.util.tinyargs.exception.OptionException;
+
+/**
+ * Measures the creation of a {@link CommandLineReader} and the binding of
+ * parsed values via {@link CommandLineReader#read(String[])}.
+ * 
+ * @author Philipp Eichhorn
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReaderBenchmark {
+	private static final String[] ARGS = { "-v", "--count=42", "--size", "4711", "--ratio=0.5", "--name", "foo", "rest" };
+
+	private CommandLineReader<Application> reader;
+
+	@Setup
+	public void setup() {
+		reader = CommandLineReader.of(new Application(), Locale.US);
+	}
+
+	@Benchmark
+	public CommandLineReader<Application> setupFromInstance() {
+		return CommandLineReader.of(new Application(), Locale.US);
+	}
+
+	@Benchmark
+	public CommandLineReader<Application> setupFromClass() {
+		return CommandLineReader.of(Application.class, Locale.US);
+	}
+
+	@Benchmark
+	public Application read() throws OptionException {
+		return reader.read(ARGS);
+	}
+
+	public static class Application {
+		@Option(shortForm = "v")
+		private boolean verbose;
+		@Option
+		private int count;
+		@Option
+		private long size;
+		@Option
+		private double ratio;
+		@Option
+		private String name;
+		@Option
+		private Integer unused;
+	}
+}
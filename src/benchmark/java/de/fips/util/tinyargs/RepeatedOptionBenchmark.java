@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.fips.util.tinyargs.exception.OptionException;
+import de.fips.util.tinyargs.option.AbstractOption;
+import de.fips.util.tinyargs.option.IntegerOption;
+import de.fips.util.tinyargs.option.StringOption;
+
+/**
+ * Measures options that are repeated many times, like generated
+ * <code>--include</code> lists, interleaved with another option.
+ * 
+ * @author Philipp Eichhorn
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RepeatedOptionBenchmark {
+	@Param({ "1000", "50000" })
+	public int repetitions;
+
+	private CommandLineParser parser;
+	private AbstractOption<String> include;
+	private AbstractOption<Integer> level;
+	private String[] args;
+	private ParseResult result;
+
+	@Setup
+	public void setup() throws OptionException {
+		parser = new CommandLineParser();
+		include = parser.addOption(new StringOption('i', "include", ""));
+		level = parser.addOption(new IntegerOption('l', "level", ""));
+		args = new String[repetitions * 2];
+		for (int i = 0; i < repetitions; i++) {
+			args[2 * i] = "--include=dir" + i;
+			args[(2 * i) + 1] = "--level=" + i;
+		}
+		result = parser.parse(args, Locale.US);
+	}
+
+	@Benchmark
+	public ParseResult parse() throws OptionException {
+		return parser.parse(args, Locale.US);
+	}
+
+	@Benchmark
+	public int iterateValues() {
+		int length = 0;
+		final List<String> includes = result.getOptionValues(include);
+		for (final String value : includes) {
+			length += value.length();
+		}
+		for (final Integer value : result.getOptionValues(level)) {
+			length += value.intValue();
+		}
+		return length;
+	}
+
+	@Benchmark
+	public int[] intArray() {
+		return result.getInts(level);
+	}
+}
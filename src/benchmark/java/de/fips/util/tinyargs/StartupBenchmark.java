@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.fips.util.tinyargs.annotation.EnableHelp;
+import de.fips.util.tinyargs.annotation.InInterval;
+import de.fips.util.tinyargs.annotation.OneOf;
+import de.fips.util.tinyargs.annotation.Option;
+import de.fips.util.tinyargs.exception.OptionException;
+
+/**
+ * Measures the time to the first parse in a fresh JVM, once with the schema
+ * compiled via reflection and once loaded from a {@link SchemaSnapshot}. The
+ * <code>benchmark</code> target writes the snapshot of {@link SnapshotApp}
+ * before running, {@link ReflectedApp} has the same options but no snapshot.
+ * 
+ * @author Philipp Eichhorn
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class StartupBenchmark {
+	private static final String[] ARGS = { "-v", "--count=42", "--size", "4711", "--ratio=0.5", "--mode", "fast", "rest" };
+
+	@Benchmark
+	public ReflectedApp firstReadWithReflection() throws OptionException {
+		return CommandLineReader.of(ReflectedApp.class, Locale.US).read(ARGS);
+	}
+
+	@Benchmark
+	public SnapshotApp firstReadWithSnapshot() throws OptionException {
+		return CommandLineReader.of(SnapshotApp.class, Locale.US).read(ARGS);
+	}
+
+	@EnableHelp
+	public static class ReflectedApp {
+		@Option(shortForm = "v", description = "verbose output")
+		private boolean verbose;
+		@Option(description = "number of runs")
+		@InInterval(min = "1", max = "100")
+		private int count;
+		@Option(description = "buffer size")
+		private long size;
+		@Option(description = "sampling ratio")
+		@InInterval(min = "0", max = "1")
+		private double ratio;
+		@Option(description = "execution mode")
+		@OneOf({ "fast", "safe" })
+		private String mode;
+	}
+
+	@EnableHelp
+	public static class SnapshotApp {
+		@Option(shortForm = "v", description = "verbose output")
+		private boolean verbose;
+		@Option(description = "number of runs")
+		@InInterval(min = "1", max = "100")
+		private int count;
+		@Option(description = "buffer size")
+		private long size;
+		@Option(description = "sampling ratio")
+		@InInterval(min = "0", max = "1")
+		private double ratio;
+		@Option(description = "execution mode")
+		@OneOf({ "fast", "safe" })
+		private String mode;
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import de.fips.util.tinyargs.exception.ArgFileException;
+
+/**
+ * Replaces every <code>@file</code> argument by the arguments in that file,
+ * lazily and recursively. <code>@@arg</code> stands for the literal argument
+ * <code>@arg</code>. <br>
+ * <br>
+ * A file that can not be expanded is reported as an
+ * {@link ExpansionFailedException}, or added to a {@link ParseResult} as a
+ * {@link ParseError}, in which case the iteration goes on with the argument
+ * after the <code>@file</code>.
+ * 
+ * @author Philipp Eichhorn
+ */
+final class ArgFileIterator implements Iterator<String> {
+	private final Iterator<String> args;
+	private final Charset charset;
+	private final List<Iterator<String>> openFiles = new ArrayList<Iterator<String>>();
+	private final List<String> openFileNames = new ArrayList<String>();
+	private final ParseResult errors;
+	/** the number of arguments returned so far */
+	private int index;
+	private String next;
+
+	ArgFileIterator(final Iterator<String> args, final Charset charset) {
+		this(args, charset, null);
+	}
+
+	/**
+	 * @param errors
+	 *            Receives a {@link ParseError} at the index of the
+	 *            <code>@file</code> for every file that can not be expanded,
+	 *            or <code>null</code> to throw an
+	 *            {@link ExpansionFailedException} instead.
+	 */
+	ArgFileIterator(final Iterator<String> args, final Charset charset, final ParseResult errors) {
+		this.args = args;
+		this.charset = charset;
+		this.errors = errors;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (next == null) {
+			try {
+				if (!advance()) {
+					return false;
+				}
+			} catch (final ExpansionFailedException e) {
+				if (errors == null) {
+					throw e;
+				}
+				errors.addError(ParseError.argFile(index, e.getCause()));
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Takes the next argument or opens the next file.
+	 * 
+	 * @return <code>false</code> if all arguments are taken.
+	 */
+	private boolean advance() {
+		final Iterator<String> current = current();
+		if (current.hasNext()) {
+			final String arg = current.next();
+			if ((arg.length() > 1) && (arg.charAt(0) == '@')) {
+				if (arg.charAt(1) == '@') {
+					next = arg.substring(1);
+				} else {
+					open(arg.substring(1));
+				}
+			} else {
+				next = arg;
+			}
+		} else if (openFiles.isEmpty()) {
+			return false;
+		} else {
+			openFiles.remove(openFiles.size() - 1);
+			openFileNames.remove(openFileNames.size() - 1);
+		}
+		return true;
+	}
+
+	@Override
+	public String next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		final String result = next;
+		next = null;
+		index++;
+		return result;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	private Iterator<String> current() {
+		return openFiles.isEmpty() ? args : openFiles.get(openFiles.size() - 1);
+	}
+
+	private void open(final String fileName) {
+		try {
+			final File file = new File(fileName);
+			final String canonicalName = file.getCanonicalPath();
+			if (openFileNames.contains(canonicalName)) {
+				throw new ArgFileException(fileName, "recursive reference");
+			}
+			openFiles.add(new ArgFileTokenizer(fileName, file, charset));
+			openFileNames.add(canonicalName);
+		} catch (final ArgFileException e) {
+			throw new ExpansionFailedException(e);
+		} catch (final IOException e) {
+			throw new ExpansionFailedException(new ArgFileException(fileName, String.valueOf(e.getMessage())));
+		}
+	}
+
+	/**
+	 * Carries an {@link ArgFileException} through the {@link Iterator}
+	 * methods.
+	 */
+	static final class ExpansionFailedException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		ExpansionFailedException(final ArgFileException cause) {
+			super(cause);
+		}
+
+		@Override
+		public ArgFileException getCause() {
+			return (ArgFileException) super.getCause();
+		}
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import de.fips.util.tinyargs.exception.ArgFileException;
+
+/**
+ * Splits a memory-mapped argument file into arguments, one at a time.<br>
+ * <br>
+ * Arguments are separated by whitespace. Single or double quotes group
+ * whitespace into an argument, like <code>--name="foo bar"</code>, and inside
+ * quotes a backslash escapes the next character (<code>\n</code>,
+ * <code>\t</code>, <code>\r</code> and <code>\f</code> have their usual
+ * meaning). A <code>#</code> at the start of an argument comments out the rest
+ * of the line.<br>
+ * <br>
+ * The file is scanned byte by byte, only the bytes of each argument are
+ * decoded. Charsets whose bytes do not agree with ASCII, like UTF-16, are
+ * decoded up front.
+ * 
+ * @author Philipp Eichhorn
+ */
+final class ArgFileTokenizer implements Iterator<String> {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final String ASCII_SYNTAX = " \t\n\r\f\"'\\#@";
+
+	private final String fileName;
+	private final ByteBuffer buffer;
+	private final Charset charset;
+	private byte[] token = new byte[64];
+	private String next;
+
+	/**
+	 * @throws ArgFileException
+	 *             If the file can not be read.
+	 */
+	ArgFileTokenizer(final String fileName, final File file, final Charset charset) throws ArgFileException {
+		this.fileName = fileName;
+		final ByteBuffer mapped = map(fileName, file);
+		if (isAsciiCompatible(charset)) {
+			this.buffer = mapped;
+			this.charset = charset;
+		} else {
+			this.buffer = ByteBuffer.wrap(charset.decode(mapped).toString().getBytes(UTF_8));
+			this.charset = UTF_8;
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null) {
+			next = readToken();
+		}
+		return next != null;
+	}
+
+	@Override
+	public String next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		final String result = next;
+		next = null;
+		return result;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	private String readToken() {
+		skipWhitespaceAndComments();
+		if (!buffer.hasRemaining()) {
+			return null;
+		}
+		int length = 0;
+		while (buffer.hasRemaining()) {
+			final byte b = buffer.get(buffer.position());
+			if (isWhitespace(b)) {
+				break;
+			}
+			buffer.get();
+			if ((b == '"') || (b == '\'')) {
+				length = readQuoted(b, length);
+			} else {
+				length = append(b, length);
+			}
+		}
+		return new String(token, 0, length, charset);
+	}
+
+	private int readQuoted(final byte quote, int length) {
+		while (buffer.hasRemaining()) {
+			byte b = buffer.get();
+			if (b == quote) {
+				return length;
+			}
+			if ((b == '\\') && buffer.hasRemaining()) {
+				b = unescape(buffer.get());
+			}
+			length = append(b, length);
+		}
+		throw new ArgFileIterator.ExpansionFailedException(new ArgFileException(fileName, "unterminated quote"));
+	}
+
+	private void skipWhitespaceAndComments() {
+		while (buffer.hasRemaining()) {
+			final byte b = buffer.get(buffer.position());
+			if (b == '#') {
+				while (buffer.hasRemaining() && (buffer.get() != '\n')) {
+				}
+			} else if (isWhitespace(b)) {
+				buffer.get();
+			} else {
+				return;
+			}
+		}
+	}
+
+	private int append(final byte b, final int length) {
+		if (length == token.length) {
+			token = Arrays.copyOf(token, length * 2);
+		}
+		token[length] = b;
+		return length + 1;
+	}
+
+	private static byte unescape(final byte b) {
+		switch (b) {
+		case 'n':
+			return '\n';
+		case 't':
+			return '\t';
+		case 'r':
+			return '\r';
+		case 'f':
+			return '\f';
+		default:
+			return b;
+		}
+	}
+
+	private static boolean isWhitespace(final byte b) {
+		return (b == ' ') || (b == '\t') || (b == '\n') || (b == '\r') || (b == '\f');
+	}
+
+	private static boolean isAsciiCompatible(final Charset charset) {
+		try {
+			return Arrays.equals(ASCII_SYNTAX.getBytes(charset.name()), ASCII_SYNTAX.getBytes("US-ASCII"));
+		} catch (final IOException e) {
+			return false;
+		}
+	}
+
+	private static ByteBuffer map(final String fileName, final File file) throws ArgFileException {
+		FileInputStream in = null;
+		try {
+			in = new FileInputStream(file);
+			final FileChannel channel = in.getChannel();
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new ArgFileException(fileName, "file too large");
+			}
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (final IOException e) {
+			final ArgFileException exception = new ArgFileException(fileName, String.valueOf(e.getMessage()));
+			exception.initCause(e);
+			throw exception;
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (final IOException ignore) {
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only {@link Iterator} over an array, smaller than the one of
+ * {@link java.util.Arrays#asList(Object...) Arrays.asList}.
+ * 
+ * @author Philipp Eichhorn
+ */
+final class ArrayIterator<E> implements Iterator<E> {
+	private final E[] elements;
+	private int index;
+
+	ArrayIterator(final E[] elements) {
+		this.elements = elements;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return index < elements.length;
+	}
+
+	@Override
+	public E next() {
+		if (index >= elements.length) {
+			throw new NoSuchElementException();
+		}
+		return elements[index++];
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+}
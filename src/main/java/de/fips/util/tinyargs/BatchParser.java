@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import de.fips.util.tinyargs.exception.OptionException;
+
+/**
+ * Parses and validates large numbers of command-lines in parallel against one
+ * shared {@link CommandLineParser}, for example to check recorded command-lines
+ * against the current options. <br>
+ * <br>
+ * The command-lines are read from an {@link Iterator} in chunks, and only a
+ * bounded number of chunks is in flight at any time, so the input may be far
+ * larger than the memory. The parser must not be modified during a run.
+ * 
+ * <pre>
+ * Example:
+ * 
+ * BatchParser batch = new BatchParser(parser, executor);
+ * batch.parseOrdered(recordedCommandLines, Locale.ENGLISH, new IBatchSink() {
+ *   public void parsed(long index, String[] args, ParseResult result) {
+ *     ...
+ *   }
+ * 
+ *   public void failed(long index, String[] args, OptionException error) {
+ *     ...
+ *   }
+ * });
+ * </pre>
+ * 
+ * @author Philipp Eichhorn
+ */
+public final class BatchParser {
+	private static final int DEFAULT_CHUNK_SIZE = 256;
+
+	private final CommandLineParser parser;
+	private final ExecutorService executor;
+	private final int chunkSize;
+	private final int maxChunksInFlight;
+
+	/**
+	 * Creates a batch parser with chunks of 256 command-lines, and four
+	 * chunks per processor in flight.
+	 */
+	public BatchParser(final CommandLineParser parser, final ExecutorService executor) {
+		this(parser, executor, DEFAULT_CHUNK_SIZE, 4 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param chunkSize
+	 *            The number of command-lines parsed by one task.
+	 * @param maxChunksInFlight
+	 *            The maximum number of chunks submitted but not yet delivered.
+	 */
+	public BatchParser(final CommandLineParser parser, final ExecutorService executor, final int chunkSize, final int maxChunksInFlight) {
+		if ((chunkSize < 1) || (maxChunksInFlight < 1)) {
+			throw Util.illegalArgument("chunkSize and maxChunksInFlight must be positive");
+		}
+		this.parser = parser;
+		this.executor = executor;
+		this.chunkSize = chunkSize;
+		this.maxChunksInFlight = maxChunksInFlight;
+	}
+
+	/**
+	 * Parses all command-lines and passes the outcomes to the sink in input
+	 * order, on the calling thread.
+	 * 
+	 * @return The number of command-lines parsed.
+	 * @throws InterruptedException
+	 *             If the calling thread was interrupted while waiting.
+	 */
+	public long parseOrdered(final Iterator<String[]> argVectors, final Locale locale, final IBatchSink sink) throws InterruptedException {
+		final Queue<Future<Chunk>> inFlight = new ArrayDeque<Future<Chunk>>(maxChunksInFlight);
+		long count = 0;
+		try {
+			while (true) {
+				while ((inFlight.size() < maxChunksInFlight) && argVectors.hasNext()) {
+					final Chunk chunk = nextChunk(argVectors, count, locale, null);
+					count += chunk.size;
+					inFlight.add(executor.submit(chunk));
+				}
+				final Future<Chunk> head = inFlight.poll();
+				if (head == null) {
+					return count;
+				}
+				get(head).deliver(sink);
+			}
+		} finally {
+			for (final Future<Chunk> future : inFlight) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Parses all command-lines and passes the outcomes to the sink as soon as
+	 * they are available, on the threads of the executor. The sink must
+	 * therefore be thread-safe.
+	 * 
+	 * @return The number of command-lines parsed.
+	 * @throws InterruptedException
+	 *             If the calling thread was interrupted while waiting.
+	 */
+	public long parseUnordered(final Iterator<String[]> argVectors, final Locale locale, final IBatchSink sink) throws InterruptedException {
+		final CompletionService<Chunk> completionService = new ExecutorCompletionService<Chunk>(executor);
+		final Queue<Future<Chunk>> submitted = new ArrayDeque<Future<Chunk>>(maxChunksInFlight);
+		int inFlight = 0;
+		long count = 0;
+		try {
+			while (true) {
+				while ((inFlight < maxChunksInFlight) && argVectors.hasNext()) {
+					final Chunk chunk = nextChunk(argVectors, count, locale, sink);
+					count += chunk.size;
+					submitted.add(completionService.submit(chunk));
+					inFlight++;
+				}
+				if (inFlight == 0) {
+					return count;
+				}
+				final Future<Chunk> done = completionService.take();
+				submitted.remove(done);
+				inFlight--;
+				get(done);
+			}
+		} finally {
+			for (final Future<Chunk> future : submitted) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	private Chunk nextChunk(final Iterator<String[]> argVectors, final long firstIndex, final Locale locale, final IBatchSink sink) {
+		final String[][] args = new String[chunkSize][];
+		int size = 0;
+		while ((size < chunkSize) && argVectors.hasNext()) {
+			args[size++] = argVectors.next();
+		}
+		return new Chunk(firstIndex, args, size, locale, sink);
+	}
+
+	private static Chunk get(final Future<Chunk> future) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * A task parsing consecutive command-lines. With a sink it delivers the
+	 * outcomes itself, else it keeps them for {@link #deliver(IBatchSink)}.
+	 */
+	private final class Chunk implements Callable<Chunk> {
+		private final long firstIndex;
+		private final String[][] args;
+		private final int size;
+		private final Locale locale;
+		private final IBatchSink sink;
+		private final Object[] outcomes;
+
+		private Chunk(final long firstIndex, final String[][] args, final int size, final Locale locale, final IBatchSink sink) {
+			this.firstIndex = firstIndex;
+			this.args = args;
+			this.size = size;
+			this.locale = locale;
+			this.sink = sink;
+			outcomes = (sink == null) ? new Object[size] : null;
+		}
+
+		@Override
+		public Chunk call() {
+			for (int i = 0; i < size; i++) {
+				Object outcome;
+				try {
+					final ParseResult result = parser.parseDetached(args[i], locale);
+					result.validateAll();
+					outcome = result;
+				} catch (final OptionException e) {
+					outcome = e;
+				}
+				if (sink == null) {
+					outcomes[i] = outcome;
+				} else {
+					deliver(sink, i, outcome);
+				}
+			}
+			return this;
+		}
+
+		private void deliver(final IBatchSink target) {
+			for (int i = 0; i < size; i++) {
+				deliver(target, i, outcomes[i]);
+			}
+		}
+
+		private void deliver(final IBatchSink target, final int i, final Object outcome) {
+			if (outcome instanceof ParseResult) {
+				target.parsed(firstIndex + i, args[i], (ParseResult) outcome);
+			} else {
+				target.failed(firstIndex + i, args[i], (OptionException) outcome);
+			}
+		}
+	}
+}
@@ -1,288 +1,799 @@
-/*
- * Copyright © 2009-2011 Philipp Eichhorn.
- * 
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- * 
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- * 
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
- * THE SOFTWARE.
- */
-package de.fips.util.tinyargs;
-
-import java.io.PrintStream;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Locale;
-import java.util.Map;
-
-import lombok.Getter;
-import lombok.Setter;
-
-import de.fips.util.tinyargs.exception.IllegalOptionValueException;
-import de.fips.util.tinyargs.exception.NotFlagException;
-import de.fips.util.tinyargs.exception.UnknownOptionException;
-import de.fips.util.tinyargs.exception.UnknownSuboptionException;
-import de.fips.util.tinyargs.option.AbstractOption;
-import de.fips.util.tinyargs.option.OptionComparator;
-
-/**
- * Largely GNU-compatible command-line options parser. Has short (-v) and
- * long-form (--verbose) option support, and also allows options with associated
- * values (-d 2, --debug 2, --debug=2). Option processing can be explicitly
- * terminated by the argument '--'.
- * 
- * @author Philipp Eichhorn
- * @author All JArgs authors see JARGS_LICENSE
- */
-public class CommandLineParser {
-	@Getter
-	private final List<String> remainingArgs = new ArrayList<String>();
-	private final Map<String, AbstractOption<?>> parameterOptionsMap = new HashMap<String, AbstractOption<?>>();
-	private final List<AbstractOption<?>> options = new ArrayList<AbstractOption<?>>();
-	private final Map<String, List<Object>> values = new HashMap<String, List<Object>>();
-	@Setter
-	private String applicationName = System.getProperty("app.name", "appname");
-	@Getter @Setter
-	private PrintStream printStream = System.err;
-
-	/**
-	 * Add the specified Option to the list of accepted options
-	 * 
-	 * @param option
-	 *            The specified Option.
-	 * @param <E>
-	 *            Type of options value.
-	 * @return The specified Option itself.
-	 */
-	public <E> AbstractOption<E> addOption(final AbstractOption<E> option) {
-		if (option.getShortForm() != null) {
-			parameterOptionsMap.put("-" + option.getShortForm(), option);
-		}
-		parameterOptionsMap.put("--" + option.getLongForm(), option);
-		options.add(option);
-		return option;
-	}
-
-	/**
-	 * Adds the help option.
-	 * 
-	 * <pre>
-	 * usage:
-	 * 
-	 * CommandLineParser parser;
-	 * AbstractOption<Void> help = parser.addHelpOption();
-	 * parser.parse(args);
-	 * if (!hasValues(help)) {
-	 *   // do something
-	 * }
-	 * 
-	 * same as:
-	 * 
-	 * CommandLineParser parser;
-	 * AbstractOption<Boolean> help = parser.addOption(new BooleanOption('h', "help", "display help"));
-	 * parser.parse(args);
-	 * if (hasValues(help)) {
-	 *   parser.printUsage();
-	 * } else {
-	 *   // do something
-	 * }
-	 * </pre>
-	 * 
-	 * @return the AbstractOption representing the help option
-	 */
-	public AbstractOption<Void> addHelpOption() {
-		return addOption(new HelpOption());
-	}
-
-	/**
-	 * Equivalent to {@link #getOptionValue(AbstractOption, Object)
-	 * getOptionValue(option, null)}.
-	 */
-	public <E> E getOptionValue(final AbstractOption<E> option) {
-		return getOptionValue(option, null);
-	}
-
-	/**
-	 * @param option
-	 *            The specified Option.
-	 * @param def
-	 *            The default value.
-	 * @param <E>
-	 *            Type of options value.
-	 * @return The parsed value of the specified Option, or a default value if
-	 *         the option was not set.
-	 */
-	public <E> E getOptionValue(final AbstractOption<E> option, final E def) {
-		final List<Object> v = values.get(option.getLongForm());
-		if (Util.isEmpty(v)) {
-			return def;
-		} else {
-			return Util.<E> uncheckedCast(v.get(0));
-		}
-	}
-
-	/**
-	 * @param option
-	 *            The specified Option.
-	 * @param <E>
-	 *            Type of options value.
-	 * @return A List giving the parsed values of all the occurrences of the
-	 *         given Option, or an empty List if the option was not set.
-	 */
-	public <E> List<E> getOptionValues(final AbstractOption<E> option) {
-		final List<E> result = new ArrayList<E>();
-		final List<Object> optionValues = values.get(option.getLongForm());
-		if (optionValues != null) {
-			for (final Object value : optionValues) {
-				final E e = Util.<E> uncheckedCast(value);
-				result.add(e);
-			}
-		}
-		return result;
-	}
-
-	/**
-	 * @param option
-	 *            The specified Option.
-	 * @param <E>
-	 *            Type of options value.
-	 * @return Status flag which indicates whether there are values for a given
-	 *         options or not.
-	 */
-	public <E> boolean hasValues(final AbstractOption<E> option) {
-		return !Util.isEmpty(values.get(option.getLongForm()));
-	}
-
-	/**
-	 * Equivalent to {@link #parse(String[], Locale) parse(args,
-	 * Locale.getDefault())}.
-	 */
-	public void parse(final String[] args) throws IllegalOptionValueException, UnknownOptionException {
-		parse(args, Locale.getDefault());
-	}
-
-	/**
-	 * Extract the options and non-option arguments from the given list of
-	 * command-line arguments. The specified locale is used for parsing options
-	 * whose values might be locale-specific.
-	 * 
-	 * @param args
-	 *            List of command-line arguments.
-	 * @throws IllegalOptionValueException
-	 * @throws UnknownOptionException
-	 */
-	public void parse(final String[] args, final Locale locale) throws IllegalOptionValueException, UnknownOptionException {
-		final List<String> otherArgs = new ArrayList<String>();
-		this.values.clear();
-		boolean allFine = true;
-		for (int position = 0; position < args.length; position++) {
-			String curArg = args[position];
-			if (allFine && curArg.startsWith("-")) {
-				if (curArg.equals("--")) {
-					allFine = false;
-					continue;
-				}
-				String valueArg = null;
-				if (curArg.startsWith("--")) {
-					final int equalsPos = curArg.indexOf("=");
-					if (equalsPos != -1) {
-						valueArg = curArg.substring(equalsPos + 1);
-						curArg = curArg.substring(0, equalsPos);
-					}
-				} else if (curArg.length() > 2) {
-					for (int i = 1; i < curArg.length(); i++) {
-						final AbstractOption<?> opt = this.parameterOptionsMap.get("-" + curArg.charAt(i));
-						if (opt == null) {
-							throw new UnknownSuboptionException(curArg, curArg.charAt(i));
-						}
-						if (opt.isValueNeeded()) {
-							throw new NotFlagException(curArg, curArg.charAt(i));
-						}
-						addValue(opt, opt.getValue(null, locale));
-					}
-					continue;
-				}
-
-				final AbstractOption<?> opt = this.parameterOptionsMap.get(curArg);
-				if (opt == null) {
-					throw new UnknownOptionException(curArg);
-				}
-				if (opt.isValueNeeded()) {
-					if (valueArg == null) {
-						position++;
-						if (position < args.length) {
-							valueArg = args[position];
-						}
-					}
-				} else {
-					valueArg = null;
-				}
-				Object value = opt.getValue(valueArg, locale);
-				addValue(opt, value);
-			} else {
-				otherArgs.add(curArg);
-			}
-		}
-		remainingArgs.clear();
-		remainingArgs.addAll(otherArgs);
-	}
-
-	/**
-	 * Sets the application name by looking into the first entry of the
-	 * <code>classpath</code>.
-	 */
-	public void setApplicationNameFormJar() {
-		final String[] classpath = System.getProperty("java.class.path").split(";");
-		if ((classpath.length > 0) && (classpath[0].endsWith(".jar"))) {
-			setApplicationName(classpath[0]);
-		}
-	}
-
-	/**
-	 * Prints the usage-message
-	 */
-	public void printUsage() {
-		Collections.sort(options, new OptionComparator());
-		printStream.println("usage: " + applicationName + " [options]");
-		printStream.println("options:");
-		for (final AbstractOption<?> option : options) {
-			printStream.println("\t" + option);
-		}
-	}
-
-	private void addValue(final AbstractOption<?> opt, final Object value) {
-		final String lf = opt.getLongForm();
-		List<Object> v = values.get(lf);
-		if (v == null) {
-			v = new ArrayList<Object>();
-			values.put(lf, v);
-		}
-		v.add(value);
-	}
-
-	private final class HelpOption extends AbstractOption<Void> {
-		public HelpOption() {
-			super('h', "help", "display help", false);
-		}
-
-		@Override
-		public Void guardedParseValue(final String arg, final Locale locale) {
-			printUsage();
-			return null;
-		}
-	}
-}
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import de.fips.util.tinyargs.exception.ArgFileException;
+import de.fips.util.tinyargs.exception.IllegalOptionValueException;
+import de.fips.util.tinyargs.exception.OptionException;
+import de.fips.util.tinyargs.exception.UnknownOptionException;
+import de.fips.util.tinyargs.listener.IParseListener;
+import de.fips.util.tinyargs.option.AbstractOption;
+import de.fips.util.tinyargs.option.PrimitiveOption;
+
+/**
+ * Largely GNU-compatible command-line options parser. Has short (-v) and
+ * long-form (--verbose) option support, and also allows options with associated
+ * values (-d 2, --debug 2, --debug=2). Option processing can be explicitly
+ * terminated by the argument '--'. Unambiguous abbreviations of long forms
+ * (--verb) can be enabled via {@link #setPrefixMatching(boolean)}.
+ * 
+ * @author Philipp Eichhorn
+ * @author All JArgs authors see JARGS_LICENSE
+ */
+public class CommandLineParser {
+	private final List<AbstractOption<?>> options = new ArrayList<AbstractOption<?>>();
+	private volatile OptionTable table;
+	private volatile CompletionIndex completionIndex;
+	private volatile ParseResult lastResult;
+	private volatile Usage usage;
+	private String applicationName = System.getProperty("app.name", "appname");
+	@Getter @Setter
+	private PrintStream printStream = System.err;
+	/**
+	 * Whether unambiguous prefixes of long forms are accepted, like
+	 * <code>--verb</code> for <code>--verbose</code>. Disabled by default.
+	 */
+	@Getter @Setter
+	private boolean prefixMatching;
+	/**
+	 * Notified about the progress of every parse, <code>null</code> by
+	 * default.
+	 */
+	@Getter @Setter
+	private IParseListener parseListener;
+	/**
+	 * Whether the first non-option argument ends the option processing, like
+	 * '--' does. Everything from there on is a remaining argument. Disabled
+	 * by default, so options and other arguments may be mixed.
+	 */
+	@Getter @Setter
+	private boolean stopAtFirstNonOption;
+	/**
+	 * Whether option values are only converted and validated when they are
+	 * first read from the {@link ParseResult}. Flags are always converted
+	 * right away. Disabled by default.
+	 */
+	@Getter @Setter
+	private boolean lazyConversion;
+	/**
+	 * Whether <code>@file</code> arguments are replaced by the arguments in
+	 * that file, see {@link ArgFileTokenizer} for the syntax. Disabled by
+	 * default.
+	 */
+	@Getter @Setter
+	private boolean argFileExpansion;
+	/**
+	 * The charset of argument files, the platform default if not set.
+	 */
+	@Getter @Setter
+	private Charset argFileCharset = Charset.defaultCharset();
+	/**
+	 * The width of the usage-message in characters. If positive, the
+	 * descriptions are aligned in a column and wrapped to fit, see
+	 * {@link #terminalWidth()}. 0 by default, which prints one unwrapped line
+	 * per option.
+	 */
+	@Getter @Setter
+	private int usageWidth;
+	/**
+	 * The charset the usage-message is encoded with, the platform default if
+	 * not set.
+	 */
+	@Getter @Setter
+	private Charset usageCharset = Charset.defaultCharset();
+
+	private IValueSource[] valueSources = new IValueSource[0];
+
+	/**
+	 * Sets the sources for the values of options that are not given on the
+	 * command-line. For each such option the sources are asked in the
+	 * specified order and the first value found is used, converted and
+	 * validated just like a command-line argument. A flag is set if its value
+	 * is <code>true</code>.
+	 * 
+	 * <pre>
+	 * parser.setValueSources(ValueSources.environment(&quot;MYAPP_&quot;), //
+	 *     ValueSources.systemProperties(&quot;myapp.&quot;), //
+	 *     ValueSources.file(new File(&quot;myapp.ini&quot;), charset));
+	 * </pre>
+	 */
+	public void setValueSources(final IValueSource... sources) {
+		valueSources = sources.clone();
+	}
+
+	/**
+	 * Add the specified Option to the list of accepted options
+	 * 
+	 * @param option
+	 *            The specified Option.
+	 * @param <E>
+	 *            Type of options value.
+	 * @return The specified Option itself.
+	 */
+	public <E> AbstractOption<E> addOption(final AbstractOption<E> option) {
+		options.add(option);
+		table = null;
+		completionIndex = null;
+		usage = null;
+		return option;
+	}
+
+	/**
+	 * Adds the help option.
+	 * 
+	 * <pre>
+	 * usage:
+	 * 
+	 * CommandLineParser parser;
+	 * AbstractOption<Void> help = parser.addHelpOption();
+	 * parser.parse(args);
+	 * if (!hasValues(help)) {
+	 *   // do something
+	 * }
+	 * 
+	 * same as:
+	 * 
+	 * CommandLineParser parser;
+	 * AbstractOption<Boolean> help = parser.addOption(new BooleanOption('h', "help", "display help"));
+	 * parser.parse(args);
+	 * if (hasValues(help)) {
+	 *   parser.printUsage();
+	 * } else {
+	 *   // do something
+	 * }
+	 * </pre>
+	 * 
+	 * @return the AbstractOption representing the help option
+	 */
+	public AbstractOption<Void> addHelpOption() {
+		return addOption(new HelpOption());
+	}
+
+	/**
+	 * Equivalent to {@link #getOptionValue(AbstractOption, Object)
+	 * getOptionValue(option, null)}.
+	 */
+	public <E> E getOptionValue(final AbstractOption<E> option) {
+		return getOptionValue(option, null);
+	}
+
+	/**
+	 * Same as {@link ParseResult#getOptionValue(AbstractOption, Object)} for
+	 * the result of the last {@link #parse(String[], Locale) parse} call.
+	 */
+	public <E> E getOptionValue(final AbstractOption<E> option, final E def) {
+		return getLastResult().getOptionValue(option, def);
+	}
+
+	/**
+	 * Same as {@link ParseResult#getOptionValues(AbstractOption)} for the
+	 * result of the last {@link #parse(String[], Locale) parse} call.
+	 */
+	public <E> List<E> getOptionValues(final AbstractOption<E> option) {
+		return getLastResult().getOptionValues(option);
+	}
+
+	/**
+	 * Same as {@link ParseResult#hasValues(AbstractOption)} for the result of
+	 * the last {@link #parse(String[], Locale) parse} call.
+	 */
+	public <E> boolean hasValues(final AbstractOption<E> option) {
+		return getLastResult().hasValues(option);
+	}
+
+	/**
+	 * Same as {@link ParseResult#getRemainingArgs()} for the result of the last
+	 * {@link #parse(String[], Locale) parse} call.
+	 */
+	public List<String> getRemainingArgs() {
+		return getLastResult().getRemainingArgs();
+	}
+
+	/**
+	 * Equivalent to {@link #parse(String[], Locale) parse(args,
+	 * Locale.getDefault())}.
+	 */
+	public ParseResult parse(final String[] args) throws IllegalOptionValueException, UnknownOptionException, ArgFileException {
+		return parse(args, Locale.getDefault());
+	}
+
+	/**
+	 * Extract the options and non-option arguments from the given list of
+	 * command-line arguments. The specified locale is used for parsing options
+	 * whose values might be locale-specific. <br>
+	 * <br>
+	 * The parser itself is not modified, except for remembering the returned
+	 * result for the value getters of this class. Once all options are added,
+	 * a parser can therefore be shared between threads, as long as each thread
+	 * uses the returned {@link ParseResult}.
+	 * 
+	 * @param args
+	 *            List of command-line arguments.
+	 * @return The parsed values and remaining arguments.
+	 * @throws IllegalOptionValueException
+	 * @throws UnknownOptionException
+	 * @throws ArgFileException
+	 *             If {@link #setArgFileExpansion(boolean) argument file
+	 *             expansion} is enabled and a file can not be expanded.
+	 */
+	public ParseResult parse(final String[] args, final Locale locale) throws IllegalOptionValueException, UnknownOptionException, ArgFileException {
+		return parse(args, new ArrayIterator<String>(args), expectedValueCount(args), locale, null, true);
+	}
+
+	/**
+	 * Same as {@link #parse(String[], Locale)}, but without remembering the
+	 * result, so concurrent callers do not contend for it.
+	 */
+	ParseResult parseDetached(final String[] args, final Locale locale) throws IllegalOptionValueException, UnknownOptionException, ArgFileException {
+		return parse(args, new ArrayIterator<String>(args), expectedValueCount(args), locale, null, false);
+	}
+
+	/**
+	 * Same as {@link #parse(String[], Locale)}, but never throws for an
+	 * illegal command-line. Instead every problem is added to
+	 * {@link ParseResult#getErrors()} as a {@link ParseError}, whose message
+	 * is only formatted on request, and parsing goes on with the next token.
+	 * The result holds the values of all legal options. <br>
+	 * <br>
+	 * Values are always converted right away, even if
+	 * {@link #setLazyConversion(boolean) lazy conversion} is enabled, and the
+	 * {@link IParseListener} is not told about failures.
+	 * 
+	 * @param args
+	 *            List of command-line arguments.
+	 * @return The parsed values, remaining arguments and problems.
+	 */
+	public ParseResult tryParse(final String[] args, final Locale locale) {
+		final OptionTable optionTable = getTable();
+		final ParseResult result = new ParseResult(optionTable, expectedValueCount(args));
+		final Iterator<String> argIterator = new ArrayIterator<String>(args);
+		lastResult = null;
+		parse(argFileExpansion ? new ArgFileIterator(argIterator, argFileCharset, result) : argIterator, optionTable, result, locale, parseListener, null, COLLECT);
+		lastResult = result;
+		return result;
+	}
+
+	/**
+	 * Extracts the options from a stream of command-line arguments, without
+	 * holding more than the current argument in memory. Non-option arguments
+	 * are passed to the specified handler instead of being collected in the
+	 * returned {@link ParseResult}.
+	 * 
+	 * @param args
+	 *            The command-line arguments, consumed lazily.
+	 * @param handler
+	 *            Receives the non-option arguments, or <code>null</code> to
+	 *            collect them in the returned result.
+	 * @return The parsed values.
+	 * @throws IllegalOptionValueException
+	 * @throws UnknownOptionException
+	 * @throws ArgFileException
+	 */
+	public ParseResult parse(final Iterator<String> args, final Locale locale, final IRemainingArgHandler handler) throws IllegalOptionValueException,
+			UnknownOptionException, ArgFileException {
+		return parse(null, args, 0, locale, handler, true);
+	}
+
+	/**
+	 * Same as {@link #parse(Iterator, Locale, IRemainingArgHandler)} for
+	 * arguments read from the specified {@link Reader}, separated by NUL or
+	 * newline characters. Empty arguments are skipped. The reader is not
+	 * closed.
+	 * 
+	 * @throws IOException
+	 *             If the reader failed.
+	 * @throws IllegalOptionValueException
+	 * @throws UnknownOptionException
+	 * @throws ArgFileException
+	 */
+	public ParseResult parse(final Reader reader, final Locale locale, final IRemainingArgHandler handler) throws IOException, IllegalOptionValueException,
+			UnknownOptionException, ArgFileException {
+		try {
+			return parse(new TokenIterator(reader), locale, handler);
+		} catch (final TokenIterator.ReadFailedException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Same as {@link #parse(Reader, Locale, IRemainingArgHandler)} for
+	 * arguments read from the specified channel, decoded with the specified
+	 * charset. The channel is not closed.
+	 * 
+	 * @throws IOException
+	 *             If the channel failed.
+	 * @throws IllegalOptionValueException
+	 * @throws UnknownOptionException
+	 * @throws ArgFileException
+	 */
+	public ParseResult parse(final ReadableByteChannel channel, final Charset charset, final Locale locale, final IRemainingArgHandler handler) throws IOException,
+			IllegalOptionValueException, UnknownOptionException, ArgFileException {
+		return parse(Channels.newReader(channel, charset.newDecoder(), -1), locale, handler);
+	}
+
+	/**
+	 * @param argArray
+	 *            The arguments as array, if available, passed to
+	 *            {@link IParseListener#parseFailed(String[], OptionException)
+	 *            IParseListener.parseFailed}.
+	 * @param remember
+	 *            Whether the result is remembered for the value getters of
+	 *            this class.
+	 */
+	private ParseResult parse(final String[] argArray, final Iterator<String> args, final int expectedValueCount, final Locale locale, final IRemainingArgHandler handler,
+			final boolean remember) throws IllegalOptionValueException, UnknownOptionException, ArgFileException {
+		final IParseListener listener = parseListener;
+		final Iterator<String> tokens = argFileExpansion ? new ArgFileIterator(args, argFileCharset) : args;
+		if (remember) {
+			lastResult = null;
+		}
+		try {
+			final ParseResult result = parse(tokens, expectedValueCount, locale, listener, handler);
+			if (remember) {
+				lastResult = result;
+			}
+			return result;
+		} catch (final ArgFileIterator.ExpansionFailedException e) {
+			throw failed(argArray, listener, e.getCause());
+		} catch (final IllegalOptionValueException e1) {
+			throw failed(argArray, listener, e1);
+		} catch (final UnknownOptionException e2) {
+			throw failed(argArray, listener, e2);
+		}
+	}
+
+	private static <T extends OptionException> T failed(final String[] args, final IParseListener listener, final T e) {
+		if (listener != null) {
+			listener.parseFailed(args, e);
+		}
+		return e;
+	}
+
+	private ParseResult parse(final Iterator<String> args, final int expectedValueCount, final Locale locale, final IParseListener listener,
+			final IRemainingArgHandler handler) throws IllegalOptionValueException, UnknownOptionException {
+		final OptionTable optionTable = getTable();
+		final ParseResult result = lazyConversion ? new ParseResult(optionTable, expectedValueCount, locale, listener) : new ParseResult(optionTable, expectedValueCount);
+		parse(args, optionTable, result, locale, listener, handler, THROW);
+		return result;
+	}
+
+	/**
+	 * @param errors
+	 *            Whether problems are thrown or added to the result. If they
+	 *            are added, values are converted right away, even for a lazy
+	 *            parser.
+	 */
+	private <V extends Exception, U extends Exception> void parse(final Iterator<String> args, final OptionTable optionTable, final ParseResult result,
+			final Locale locale, final IParseListener listener, final IRemainingArgHandler handler, final ErrorPolicy<V, U> errors) throws V, U {
+		boolean allFine = true;
+		for (int position = 0; args.hasNext(); position++) {
+			final String curArg = args.next();
+			final int length = curArg.length();
+			if (listener != null) {
+				listener.tokenScanned(position, curArg);
+			}
+			if (allFine && (length > 0) && (curArg.charAt(0) == '-')) {
+				final int id;
+				String valueArg = null;
+				if ((length > 1) && (curArg.charAt(1) == '-')) {
+					if (length == 2) {
+						allFine = false;
+						continue;
+					}
+					final int equalsPos = curArg.indexOf('=', 2);
+					final int end = (equalsPos == -1) ? length : equalsPos;
+					int longFormId = optionTable.longFormId(curArg, 2, end);
+					if ((longFormId == OptionTable.NONE) && prefixMatching) {
+						longFormId = optionTable.longFormPrefixId(curArg, 2, end);
+					}
+					if (longFormId == OptionTable.AMBIGUOUS) {
+						errors.unknownOption(result, ParseError.ambiguousOption(position, curArg.substring(0, end)));
+						continue;
+					}
+					if (longFormId == OptionTable.NONE) {
+						errors.unknownOption(result, ParseError.unknownOption(position, curArg.substring(0, end)));
+						continue;
+					}
+					id = longFormId;
+					if ((equalsPos != -1) && optionTable.get(id).isValueNeeded()) {
+						valueArg = curArg.substring(equalsPos + 1);
+					}
+				} else if (length > 2) {
+					for (int i = 1; i < length; i++) {
+						final int subId = optionTable.shortFormId(curArg.charAt(i));
+						if (subId < 0) {
+							errors.unknownOption(result, ParseError.unknownSuboption(position, curArg, curArg.charAt(i)));
+							continue;
+						}
+						final AbstractOption<?> opt = optionTable.get(subId);
+						if (opt.isValueNeeded()) {
+							errors.unknownOption(result, ParseError.notFlag(position, curArg, curArg.charAt(i)));
+							continue;
+						}
+						if (listener != null) {
+							listener.optionMatched(opt, curArg);
+						}
+						errors.addValue(result, position, subId, opt, null, locale, listener);
+					}
+					continue;
+				} else {
+					id = (length == 2) ? optionTable.shortFormId(curArg.charAt(1)) : -1;
+					if (id < 0) {
+						errors.unknownOption(result, ParseError.unknownOption(position, curArg));
+						continue;
+					}
+				}
+
+				final AbstractOption<?> opt = optionTable.get(id);
+				if (listener != null) {
+					listener.optionMatched(opt, curArg);
+				}
+				if (opt.isValueNeeded()) {
+					if ((valueArg == null) && args.hasNext()) {
+						position++;
+						valueArg = args.next();
+						if (listener != null) {
+							listener.tokenScanned(position, valueArg);
+						}
+					}
+				}
+				if (lazyConversion && !errors.isCollecting() && (valueArg != null) && opt.isValueNeeded()) {
+					result.addPending(id, opt, valueArg);
+				} else {
+					errors.addValue(result, position, id, opt, valueArg, locale, listener);
+				}
+			} else {
+				if (stopAtFirstNonOption) {
+					allFine = false;
+				}
+				if (handler == null) {
+					result.addRemainingArg(curArg);
+				} else {
+					handler.handleRemainingArg(position, curArg);
+				}
+			}
+		}
+		if (valueSources.length > 0) {
+			addSourceValues(result, optionTable, locale, listener, errors);
+		}
+		result.freeze();
+	}
+
+	/**
+	 * Fills the options without command-line values from the value sources, in
+	 * one pass over the options.
+	 */
+	private <V extends Exception> void addSourceValues(final ParseResult result, final OptionTable optionTable, final Locale locale, final IParseListener listener,
+			final ErrorPolicy<V, ?> errors) throws V {
+		final IValueSource[] sources = valueSources;
+		for (int id = 0; id < optionTable.size(); id++) {
+			if (result.hasValues(id)) {
+				continue;
+			}
+			final String key = optionTable.valueSourceKey(id);
+			for (final IValueSource source : sources) {
+				final String value = source.getValue(key);
+				if (value == null) {
+					continue;
+				}
+				final AbstractOption<?> opt = optionTable.get(id);
+				if (!opt.isValueNeeded()) {
+					if (Boolean.parseBoolean(value)) {
+						errors.addValue(result, -1, id, opt, null, locale, listener);
+					}
+				} else if (lazyConversion && !errors.isCollecting()) {
+					result.addPending(id, opt, value);
+				} else {
+					errors.addValue(result, -1, id, opt, value, locale, listener);
+				}
+				break;
+			}
+		}
+	}
+
+	/**
+	 * What the parse loop does with a problem: throw the matching
+	 * {@link OptionException}, or add a {@link ParseError} to the result and go
+	 * on. The exception types are those of illegal values and unknown options,
+	 * so collecting errors needs no exception handling at all.
+	 */
+	private abstract static class ErrorPolicy<V extends Exception, U extends Exception> {
+
+		abstract boolean isCollecting();
+
+		abstract void unknownOption(ParseResult result, ParseError error) throws U;
+
+		abstract void addValue(ParseResult result, int tokenIndex, int id, AbstractOption<?> opt, String arg, Locale locale, IParseListener listener) throws V;
+	}
+
+	private static final ErrorPolicy<IllegalOptionValueException, UnknownOptionException> THROW = new ErrorPolicy<IllegalOptionValueException, UnknownOptionException>() {
+
+		@Override
+		boolean isCollecting() {
+			return false;
+		}
+
+		@Override
+		void unknownOption(final ParseResult result, final ParseError error) throws UnknownOptionException {
+			throw error.toUnknownOptionException();
+		}
+
+		@Override
+		void addValue(final ParseResult result, final int tokenIndex, final int id, final AbstractOption<?> opt, final String arg, final Locale locale,
+				final IParseListener listener) throws IllegalOptionValueException {
+			CommandLineParser.addValue(result, id, opt, arg, locale, listener);
+		}
+	};
+
+	private static final ErrorPolicy<RuntimeException, RuntimeException> COLLECT = new ErrorPolicy<RuntimeException, RuntimeException>() {
+
+		@Override
+		boolean isCollecting() {
+			return true;
+		}
+
+		@Override
+		void unknownOption(final ParseResult result, final ParseError error) {
+			result.addError(error);
+		}
+
+		@Override
+		void addValue(final ParseResult result, final int tokenIndex, final int id, final AbstractOption<?> opt, final String arg, final Locale locale,
+				final IParseListener listener) {
+			if (!tryAddValue(result, id, opt, arg, locale, listener)) {
+				result.addError(ParseError.illegalValue(tokenIndex, opt, (arg == null) ? "" : arg));
+			}
+		}
+	};
+
+	/**
+	 * Same as {@link #addValue(ParseResult, int, AbstractOption, String, Locale, IParseListener) addValue},
+	 * but reports an illegal value by returning <code>false</code> instead of
+	 * creating an exception for it. Only what a converter throws for an
+	 * illegal value counts as such, see {@link #isIllegalValue(Exception)}.
+	 */
+	private static boolean tryAddValue(final ParseResult result, final int id, final AbstractOption<?> opt, final String arg, final Locale locale,
+			final IParseListener listener) {
+		if (opt.isValueNeeded() && (arg == null)) {
+			return false;
+		}
+		final long start = (listener == null) ? 0 : System.nanoTime();
+		if (opt instanceof PrimitiveOption) {
+			final PrimitiveOption<Object> primitiveOpt = Util.uncheckedCast(opt);
+			final long bits;
+			try {
+				bits = primitiveOpt.guardedParseBits(arg, locale);
+			} catch (final Exception e) {
+				return isIllegalValue(e);
+			}
+			if (listener != null) {
+				listener.valueConverted(opt, arg, System.nanoTime() - start);
+			}
+			if (!primitiveOpt.getValidators().isEmpty() && !primitiveOpt.isValid(primitiveOpt.box(bits), listener)) {
+				return false;
+			}
+			result.addBits(id, bits);
+		} else {
+			final AbstractOption<Object> objectOpt = Util.uncheckedCast(opt);
+			final Object value;
+			try {
+				value = objectOpt.guardedParseValue(arg, locale);
+			} catch (final Exception e) {
+				return isIllegalValue(e);
+			}
+			if (listener != null) {
+				listener.valueConverted(opt, arg, System.nanoTime() - start);
+			}
+			if (!objectOpt.isValid(value, listener)) {
+				return false;
+			}
+			result.addValue(id, value);
+		}
+		return true;
+	}
+
+	/**
+	 * @return <code>false</code> for the checked exceptions and
+	 *         {@link IllegalArgumentException}s a converter throws for an
+	 *         illegal value.
+	 * @throws RuntimeException
+	 *             Any other runtime exception, as it points to a bug rather
+	 *             than to an illegal value.
+	 */
+	private static boolean isIllegalValue(final Exception e) throws RuntimeException {
+		if ((e instanceof RuntimeException) && !(e instanceof IllegalArgumentException)) {
+			throw (RuntimeException) e;
+		}
+		return false;
+	}
+
+	private static void addValue(final ParseResult result, final int id, final AbstractOption<?> opt, final String arg, final Locale locale, final IParseListener listener)
+			throws IllegalOptionValueException {
+		if (opt instanceof PrimitiveOption) {
+			result.addBits(id, ((PrimitiveOption<?>) opt).getBits(arg, locale, listener));
+		} else {
+			result.addValue(id, opt.getValue(arg, locale, listener));
+		}
+	}
+
+	/**
+	 * Sets the application name by looking into the first entry of the
+	 * <code>classpath</code>.
+	 */
+	public void setApplicationNameFormJar() {
+		final String[] classpath = System.getProperty("java.class.path").split(";");
+		if ((classpath.length > 0) && (classpath[0].endsWith(".jar"))) {
+			setApplicationName(classpath[0]);
+		}
+	}
+
+	public void setApplicationName(final String applicationName) {
+		this.applicationName = applicationName;
+		usage = null;
+	}
+
+	/**
+	 * Prints the usage-message with a single write. The message is rendered
+	 * on first use and cached until the next option is added, so validators
+	 * have to be added to the options before.
+	 */
+	public void printUsage() {
+		final byte[] bytes = getUsage().bytes(usageWidth, usageCharset);
+		printStream.write(bytes, 0, bytes.length);
+		printStream.flush();
+	}
+
+	/**
+	 * @return The width of the terminal, as exported by the shell in the
+	 *         <code>COLUMNS</code> environment variable, or 80 if unknown.
+	 */
+	public static int terminalWidth() {
+		try {
+			final String columns = System.getenv("COLUMNS");
+			return (columns == null) ? 80 : Math.max(1, Integer.parseInt(columns.trim()));
+		} catch (final NumberFormatException e) {
+			return 80;
+		}
+	}
+
+	Usage getUsage() {
+		Usage currentUsage = usage;
+		if (currentUsage == null) {
+			currentUsage = new Usage(options, applicationName);
+			usage = currentUsage;
+		}
+		return currentUsage;
+	}
+
+	/**
+	 * Shares an already rendered usage-message, of a parser with the same
+	 * options.
+	 */
+	void setUsage(final Usage sharedUsage) {
+		usage = sharedUsage;
+	}
+
+	/**
+	 * Completes the word at the cursor of a partial command-line. Option names
+	 * are completed for words starting with <code>-</code>, values of
+	 * {@link de.fips.util.tinyargs.annotation.OneOf OneOf} options after the
+	 * option (<code>--text f</code> or <code>--text=f</code>).
+	 * 
+	 * @param partialArgs
+	 *            The words of the command-line, without the application name.
+	 * @param cursor
+	 *            The index of the word to complete, may be
+	 *            <code>partialArgs.length</code> to complete a new word.
+	 * @return The sorted completion candidates, empty if there are none.
+	 * @throws IllegalArgumentException
+	 *             If the cursor is out of range.
+	 */
+	public List<String> complete(final String[] partialArgs, final int cursor) throws IllegalArgumentException {
+		return getCompletionIndex().complete(partialArgs, cursor, prefixMatching);
+	}
+
+	/**
+	 * @param command
+	 *            The name of the command as typed in the shell.
+	 * @return A bash completion script for the options of this parser, to be
+	 *         sourced or put into <code>bash_completion.d</code>.
+	 */
+	public String bashCompletionScript(final String command) {
+		return getCompletionIndex().bashScript(command);
+	}
+
+	/**
+	 * @param command
+	 *            The name of the command as typed in the shell.
+	 * @return A zsh completion script for the options of this parser, to be
+	 *         put into a file named <code>_command</code> in the
+	 *         <code>fpath</code>.
+	 */
+	public String zshCompletionScript(final String command) {
+		return getCompletionIndex().zshScript(command);
+	}
+
+	private CompletionIndex getCompletionIndex() {
+		CompletionIndex index = completionIndex;
+		if (index == null) {
+			index = new CompletionIndex(getTable());
+			completionIndex = index;
+		}
+		return index;
+	}
+
+	private OptionTable getTable() {
+		OptionTable optionTable = table;
+		if (optionTable == null) {
+			optionTable = new OptionTable(options);
+			table = optionTable;
+		}
+		return optionTable;
+	}
+
+	private ParseResult getLastResult() {
+		ParseResult result = lastResult;
+		if (result == null) {
+			result = new ParseResult(getTable(), 0);
+		}
+		return result;
+	}
+
+	/**
+	 * Upper bound for the number of values, every token yields at most one
+	 * value, except for concatenated short options.
+	 */
+	private static int expectedValueCount(final String[] args) {
+		int count = 0;
+		for (final String arg : args) {
+			final int length = arg.length();
+			count += ((length > 2) && (arg.charAt(0) == '-') && (arg.charAt(1) != '-')) ? length - 1 : 1;
+		}
+		return count;
+	}
+
+	private final class HelpOption extends AbstractOption<Void> {
+		public HelpOption() {
+			super('h', "help", "display help", false);
+		}
+
+		@Override
+		public Void guardedParseValue(final String arg, final Locale locale) {
+			printUsage();
+			return null;
+		}
+	}
+}
@@ -1,310 +1,411 @@
-/*
- * Copyright © 2009-2011 Philipp Eichhorn.
- * 
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- * 
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- * 
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
- * THE SOFTWARE.
- */
-package de.fips.util.tinyargs;
-
-import java.io.PrintStream;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
-
-import de.fips.util.tinyargs.annotation.ApplicationName;
-import de.fips.util.tinyargs.annotation.Option;
-import de.fips.util.tinyargs.annotation.OneOf;
-import de.fips.util.tinyargs.annotation.InInterval;
-import de.fips.util.tinyargs.annotation.EnableHelp;
-import de.fips.util.tinyargs.exception.IllegalOptionValueException;
-import de.fips.util.tinyargs.exception.UnknownOptionException;
-import de.fips.util.tinyargs.option.AbstractOption;
-import de.fips.util.tinyargs.validator.IntervalValidator;
-import de.fips.util.tinyargs.validator.ValueSetValidator;
-
-/**
- * Starting-point for the annotation-based command-line option parsing. <br>
- * <br>
- * Creates a {@link CommandLineParser} based on the annotations in the
- * command-line application class.
- * 
- * <pre>
- * Example:
- * 
- * &#64;EnableHelp(showOnExeption = true)
- * &#64;ApplicationName("Application")
- * public class Application {
- * 
- *   // -s,--show: show GUI
- *   &#64;Option(longForm="show", shortForm="s", description="show GUI")
- *   private boolean show; // default: false
- * 
- *   // --text; allowed values [Lorem ipsum, foo]
- *   &#64;Option()
- *   &#64;OneOf({ "Lorem ipsum", "foo" })
- *   private String text; // default: "Lorem ipsum"
- * 
- *   // --count
- *   &#64;Option()
- *   private Integer count; // default: null
- * 
- *   // --f; interval [-10.3, 2.6]
- *   &#64;Option()
- *   &#64;InInterval(min = "-10.3f", max = "2.6f")
- *   private float f = 1.23f; // default: 1.23f
- * 	
- *   private Application() {
- *     // required default constructor, 
- *     // can also be used to initialize fields
- *     text = "Lorem ipsum";
- *   }
- * 
- *   public void start() {
- *     if (show) {
- *       doSomethingWithGUI();
- *     } else {
- *       doSomething();
- *     }
- *   }
- *  
- *   public static void main(String[] args) {
- *     CommandLineReader&lt;Application&gt; clr = CommandLineReader.of(Application.class);
- *     Application app = clr.read(args);
- *     app.start();
- *   }
- * }
- * </pre>
- * 
- * @param <E>
- *            Type of the command-line application
- * 
- * @author Philipp Eichhorn
- */
-public class CommandLineReader<E> {
-	private final E annotatedObject;
-	private final Locale locale;
-	private AbstractOption<Void> helpOption;
-	private CommandLineParser parser;
-	private boolean showUsageOnExeption;
-	private Set<Field> annotatedFields;
-	private Map<Field, AbstractOption<Object>> fieldOptionMap;
-
-	private CommandLineReader(final E annotatedObject, final Locale locale) throws IllegalArgumentException {
-		this.annotatedObject = annotatedObject;
-		this.locale = locale;
-		setup();
-	}
-
-	private CommandLineReader(final Class<E> annotatedObjectType, final Locale locale) throws IllegalArgumentException {
-		try {
-			final Constructor<E> constructor = annotatedObjectType.getDeclaredConstructor();
-			constructor.setAccessible(true);
-			this.annotatedObject = constructor.newInstance();
-		} catch (final Exception e) {
-			throw Util.illegalArgument("The class '%s' does not offer a default constructor!", annotatedObjectType);
-		}
-		this.locale = locale;
-		setup();
-	}
-
-	public E read(final String[] args) throws IllegalOptionValueException, UnknownOptionException {
-		try {
-			parser.parse(args, locale);
-		} catch (final IllegalOptionValueException e1) {
-			throw exception(e1);
-		} catch (final UnknownOptionException e2) {
-			throw exception(e2);
-		}
-		try {
-			for (final Field field : annotatedFields) {
-				final Object value = parser.getOptionValue(fieldOptionMap.get(field), field.get(annotatedObject));
-				field.set(annotatedObject, value);
-			}
-		} catch (final IllegalAccessException ignore) {
-		}
-		return annotatedObject;
-	}
-
-	public boolean helpRequested() {
-		return ((helpOption != null) && parser.hasValues(helpOption));
-	}
-
-	/**
-	 * @return The arguments no option was specified for.
-	 */
-	public List<String> getRemainingArgs() {
-		return parser.getRemainingArgs();
-	}
-
-	/**
-	 * Sets the {@link PrintStream} used for
-	 * {@link CommandLineParser#printUsage()}.
-	 */
-	public void setPrintStream(final PrintStream out) {
-		parser.setPrintStream(out);
-	}
-
-	/**
-	 * Returns the {@link PrintStream} used for
-	 * {@link CommandLineParser#printUsage()}.
-	 */
-	public PrintStream getPrintStream() {
-		return parser.getPrintStream();
-	}
-
-	private void setup() throws IllegalArgumentException {
-		final Class<?> annotatedObjectType = annotatedObject.getClass();
-		setupAnnotatedFields();
-		parser = new CommandLineParser();
-		fieldOptionMap = new HashMap<Field, AbstractOption<Object>>();
-		for (final Field field : annotatedFields) {
-			Option option = field.getAnnotation(Option.class);
-			final AbstractOption<Object> optionForField = parser.addOption(optionForField(field, option));
-			OneOf oneOf = field.getAnnotation(OneOf.class);
-			InInterval inInterval = field.getAnnotation(InInterval.class);
-			if (oneOf != null) {
-				tryToAddValueSetValidator(annotatedObjectType, oneOf, optionForField);
-			}
-			if (inInterval != null) {
-				tryToAddIntervalValidator(annotatedObjectType, inInterval, optionForField);
-			}
-			fieldOptionMap.put(field, optionForField);
-		}
-		final EnableHelp enableHelp = annotatedObjectType.getAnnotation(EnableHelp.class);
-		if (enableHelp != null) {
-			helpOption = parser.addHelpOption();
-			showUsageOnExeption = enableHelp.showOnExeption();
-		}
-		final ApplicationName applicationName = annotatedObjectType.getAnnotation(ApplicationName.class);
-		if (applicationName != null) {
-			parser.setApplicationName(applicationName.value());
-			if (applicationName.fromJar()) {
-				parser.setApplicationNameFormJar();
-			}
-		}
-	}
-
-	@SuppressWarnings({ "unchecked", "rawtypes" })
-	private void tryToAddIntervalValidator(final Class<?> annotatedObjectType, final InInterval inInterval, final AbstractOption<Object> option) throws IllegalArgumentException {
-		tryToAddIntervalValidatorSafe(annotatedObjectType, inInterval, (AbstractOption) option);
-	}
-
-	private <T extends Comparable<T>> void tryToAddIntervalValidatorSafe(final Class<?> annotatedObjectType, final InInterval inInterval, final AbstractOption<T> option) throws IllegalArgumentException {
-		try {
-			final String min = inInterval.min();
-			final String max = inInterval.max();
-			if (!Util.isEmpty(min) || !Util.isEmpty(max)) {
-				final T minValue = Util.isEmpty(min) ? null : option.parseValue(min, locale);
-				final T maxValue = Util.isEmpty(max) ? null : option.parseValue(max, locale);
-				option.addValidator(new IntervalValidator<T>(minValue, maxValue));
-			}
-		} catch (final IllegalOptionValueException e2) {
-			throw Util.illegalArgument("The parameter 'min' and 'max' of the CommandLineValidator can not be used to validate objects of the type '%s'!", annotatedObjectType.getName());
-		}
-	}
-
-	private void tryToAddValueSetValidator(final Class<?> annotatedObjectType, final OneOf oneOf, final AbstractOption<Object> option) throws IllegalArgumentException {
-		try {
-			final String[] values = oneOf.value();
-			if (!Util.isEmpty(values)) {
-				final Set<Object> validValues = new HashSet<Object>();
-				for (final String value : values) {
-					validValues.add(option.parseValue(value, locale));
-				}
-				option.addValidator(new ValueSetValidator<Object>(validValues));
-			}
-		} catch (final IllegalOptionValueException e) {
-			throw Util.illegalArgument("The parameter 'values' of the CommandLineValidator can not be used to validate objects of the type '%s'!", annotatedObjectType.getName());
-		}
-	}
-
-	private void setupAnnotatedFields() throws IllegalArgumentException {
-		annotatedFields = new HashSet<Field>();
-		final Class<?> annotatedObjectType = annotatedObject.getClass();
-		Option commandLineOption;
-		for (final Field field : annotatedObjectType.getDeclaredFields()) {
-			field.setAccessible(true);
-			commandLineOption = field.getAnnotation(Option.class);
-			if (commandLineOption != null) {
-				annotatedFields.add(field);
-			}
-		}
-		if (annotatedFields.isEmpty()) {
-			throw Util.illegalArgument("The class '%s' does not have any CommandLineOption-annotated fields!", annotatedObject.getClass());
-		}
-	}
-
-	private AbstractOption<Object> optionForField(final Field field, final Option annotation) throws IllegalArgumentException {
-		String longForm = annotation.longForm();
-		if (Util.isEmpty(longForm)) {
-			longForm = field.getName();
-		}
-		return optionForField(field.getType(), annotation.shortForm(), longForm, annotation.description());
-	}
-
-	private AbstractOption<Object> optionForField(final Class<?> fieldType, final String shortForm, final String longForm, final String description) throws IllegalArgumentException {
-		final String optionTypeName = Util.getOptionTypeName(fieldType);
-		Class<? extends AbstractOption<Object>> optionClass = null;
-		try {
-			optionClass = Util.uncheckedCast(Class.forName(optionTypeName));
-		} catch (final Exception e) {
-			throw Util.illegalArgument("Could not find '%s' required to fill the CommandLineOption", optionTypeName);
-		}
-		try {
-			if (Util.isEmpty(shortForm)) {
-				final Constructor<? extends AbstractOption<Object>> constructor = optionClass.getConstructor(String.class, String.class);
-				return constructor.newInstance(longForm, description);
-			} else {
-				final Constructor<? extends AbstractOption<Object>> constructor = optionClass.getConstructor(Character.TYPE, String.class, String.class);
-				return constructor.newInstance(shortForm.charAt(0), longForm, description);
-			}
-		} catch (final Exception e) {
-			throw Util.illegalArgument("Could not find constructor '%s(char, String, String)' or '%s(String, String)'.", optionTypeName, optionTypeName);
-		}
-	}
-
-	private <T extends Throwable> T exception(final T e) {
-		if (showUsageOnExeption) {
-			parser.getPrintStream().println(e.getMessage());
-			parser.getPrintStream().println("");
-			parser.printUsage();
-		}
-		return e;
-	}
-
-	public static <T> CommandLineReader<T> of(final T annotatedObject) throws IllegalArgumentException {
-		return of(annotatedObject, Locale.getDefault());
-	}
-
-	public static <T> CommandLineReader<T> of(final T annotatedObject, final Locale locale) throws IllegalArgumentException {
-		return new CommandLineReader<T>(annotatedObject, locale);
-	}
-
-	public static <T> CommandLineReader<T> of(final Class<T> annotatedObjectType) throws IllegalArgumentException {
-		return of(annotatedObjectType, Locale.getDefault());
-	}
-
-	public static <T> CommandLineReader<T> of(final Class<T> annotatedObjectType, final Locale locale) throws IllegalArgumentException {
-		return new CommandLineReader<T>(annotatedObjectType, locale);
-	}
-}
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import de.fips.util.tinyargs.exception.ArgFileException;
+import de.fips.util.tinyargs.exception.IllegalOptionValueException;
+import de.fips.util.tinyargs.exception.UnknownOptionException;
+import de.fips.util.tinyargs.listener.IParseListener;
+import de.fips.util.tinyargs.option.AbstractOption;
+
+/**
+ * Starting-point for the annotation-based command-line option parsing. <br>
+ * <br>
+ * Creates a {@link CommandLineParser} based on the annotations in the
+ * command-line application class.
+ * 
+ * <pre>
+ * Example:
+ * 
+ * &#64;EnableHelp(showOnExeption = true)
+ * &#64;ApplicationName("Application")
+ * public class Application {
+ * 
+ *   // -s,--show: show GUI
+ *   &#64;Option(longForm="show", shortForm="s", description="show GUI")
+ *   private boolean show; // default: false
+ * 
+ *   // --text; allowed values [Lorem ipsum, foo]
+ *   &#64;Option()
+ *   &#64;OneOf({ "Lorem ipsum", "foo" })
+ *   private String text; // default: "Lorem ipsum"
+ * 
+ *   // --count
+ *   &#64;Option()
+ *   private Integer count; // default: null
+ * 
+ *   // --f; interval [-10.3, 2.6]
+ *   &#64;Option()
+ *   &#64;InInterval(min = "-10.3f", max = "2.6f")
+ *   private float f = 1.23f; // default: 1.23f
+ * 	
+ *   private Application() {
+ *     // required default constructor, 
+ *     // can also be used to initialize fields
+ *     text = "Lorem ipsum";
+ *   }
+ * 
+ *   public void start() {
+ *     if (show) {
+ *       doSomethingWithGUI();
+ *     } else {
+ *       doSomething();
+ *     }
+ *   }
+ *  
+ *   public static void main(String[] args) {
+ *     CommandLineReader&lt;Application&gt; clr = CommandLineReader.of(Application.class);
+ *     Application app = clr.read(args);
+ *     app.start();
+ *   }
+ * }
+ * </pre>
+ * 
+ * Immutable application classes can declare a constructor with
+ * {@link de.fips.util.tinyargs.annotation.Option Option}-annotated parameters
+ * instead, every read then creates a new instance via that constructor:
+ * 
+ * <pre>
+ * public Application(&#64;Option(longForm="show") boolean show, &#64;Option(longForm="text") String text) {
+ *   this.show = show;
+ *   this.text = text;
+ * }
+ * </pre>
+ * 
+ * @param <E>
+ *            Type of the command-line application
+ * 
+ * @author Philipp Eichhorn
+ */
+public class CommandLineReader<E> {
+	private final OptionSchema<E> schema;
+	private final E annotatedObject;
+	private final CommandLineParser parser;
+	private final AbstractOption<Void> helpOption;
+	/** the result of the last read of the current thread, if a new instance is created per read */
+	private final ThreadLocal<ParseResult> threadResult = new ThreadLocal<ParseResult>();
+	private volatile boolean instancePerRead;
+	private volatile InstancePool<E> instancePool;
+
+	private CommandLineReader(final OptionSchema<E> schema, final E annotatedObject) {
+		this.schema = schema;
+		this.annotatedObject = annotatedObject;
+		parser = schema.newParser();
+		helpOption = schema.isHelpEnabled() ? parser.addHelpOption() : null;
+		parser.setUsage(schema.usageOf(parser));
+	}
+
+	public E read(final String[] args) throws IllegalOptionValueException, UnknownOptionException, ArgFileException {
+		final ParseResult result;
+		try {
+			result = instancePerRead ? parser.parseDetached(args, schema.getLocale()) : parser.parse(args, schema.getLocale());
+		} catch (final IllegalOptionValueException e1) {
+			throw exception(e1);
+		} catch (final UnknownOptionException e2) {
+			throw exception(e2);
+		} catch (final ArgFileException e3) {
+			throw exception(e3);
+		}
+		return bind(result);
+	}
+
+	/**
+	 * Reads the options from a stream of command-line arguments, see
+	 * {@link CommandLineParser#parse(Iterator, Locale, IRemainingArgHandler)}.
+	 * 
+	 * @param handler
+	 *            Receives the non-option arguments, or <code>null</code> to
+	 *            collect them for {@link #getRemainingArgs()}.
+	 */
+	public E read(final Iterator<String> args, final IRemainingArgHandler handler) throws IllegalOptionValueException, UnknownOptionException, ArgFileException {
+		final ParseResult result;
+		try {
+			result = parser.parse(args, schema.getLocale(), handler);
+		} catch (final IllegalOptionValueException e1) {
+			throw exception(e1);
+		} catch (final UnknownOptionException e2) {
+			throw exception(e2);
+		} catch (final ArgFileException e3) {
+			throw exception(e3);
+		}
+		return bind(result);
+	}
+
+	/**
+	 * Reads the options from NUL- or newline-separated arguments, see
+	 * {@link CommandLineParser#parse(Reader, Locale, IRemainingArgHandler)}.
+	 */
+	public E read(final Reader reader, final IRemainingArgHandler handler) throws IOException, IllegalOptionValueException, UnknownOptionException,
+			ArgFileException {
+		final ParseResult result;
+		try {
+			result = parser.parse(reader, schema.getLocale(), handler);
+		} catch (final IllegalOptionValueException e1) {
+			throw exception(e1);
+		} catch (final UnknownOptionException e2) {
+			throw exception(e2);
+		} catch (final ArgFileException e3) {
+			throw exception(e3);
+		}
+		return bind(result);
+	}
+
+	private E bind(final ParseResult result) {
+		if (instancePerRead) {
+			threadResult.set(result);
+		}
+		final IParseListener listener = parser.getParseListener();
+		final ConstructorBinding<E> constructorBinding = schema.getConstructorBinding();
+		if (constructorBinding != null) {
+			return constructorBinding.newInstance(result, listener);
+		}
+		final E target;
+		if (instancePerRead) {
+			final InstancePool<E> pool = instancePool;
+			target = (pool == null) ? schema.newInstance() : pool.acquire();
+		} else {
+			target = annotatedObject;
+		}
+		try {
+			for (final OptionBinding<? super E> binding : schema.getBindings()) {
+				if (listener == null) {
+					binding.bind(target, result);
+				} else {
+					final long start = System.nanoTime();
+					binding.bind(target, result);
+					if (result.hasValues(binding.getOption())) {
+						listener.fieldBound(binding.getOption(), System.nanoTime() - start);
+					}
+				}
+			}
+		} catch (final IllegalAccessException ignore) {
+		}
+		return target;
+	}
+
+	/**
+	 * @return Whether help was requested by the last read, of the current
+	 *         thread if a new instance is created per read.
+	 */
+	public boolean helpRequested() {
+		if (helpOption == null) {
+			return false;
+		}
+		if (instancePerRead) {
+			final ParseResult result = threadResult.get();
+			return (result != null) && result.hasValues(helpOption);
+		}
+		return parser.hasValues(helpOption);
+	}
+
+	/**
+	 * @return The arguments no option was specified for by the last read, of
+	 *         the current thread if a new instance is created per read.
+	 */
+	public List<String> getRemainingArgs() {
+		if (instancePerRead) {
+			final ParseResult result = threadResult.get();
+			return (result == null) ? Collections.<String> emptyList() : result.getRemainingArgs();
+		}
+		return parser.getRemainingArgs();
+	}
+
+	/**
+	 * Enables or disables creating a new instance of the command-line
+	 * application class for every read, instead of writing the options into
+	 * the same instance over and over. <br>
+	 * <br>
+	 * The instance is created via the constructor the schema looked up once,
+	 * or taken from the pool, see {@link #setInstancePoolCapacity(int)}. The
+	 * parse result is remembered per thread, so once configured, the reader
+	 * can be used by any number of threads concurrently.
+	 */
+	public void setInstancePerRead(final boolean instancePerRead) {
+		this.instancePerRead = instancePerRead;
+	}
+
+	public boolean isInstancePerRead() {
+		return instancePerRead;
+	}
+
+	/**
+	 * Sets the number of instances kept for recycling if a new instance is
+	 * created per read, or 0 to disable recycling. Instances are handed back
+	 * via {@link #release(Object)}, which resets their option fields to the
+	 * values a new instance has.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the capacity is negative, or the class is bound via its
+	 *             constructor.
+	 */
+	public void setInstancePoolCapacity(final int capacity) throws IllegalArgumentException {
+		if (capacity < 0) {
+			throw Util.illegalArgument("Illegal pool capacity: %d", capacity);
+		}
+		instancePool = (capacity == 0) ? null : new InstancePool<E>(schema, capacity);
+	}
+
+	/**
+	 * Hands an instance returned by {@link #read(String[])} back for
+	 * recycling. The instance must not be used afterwards. Does nothing if no
+	 * instance pool is configured.
+	 * 
+	 * @throws IllegalStateException
+	 *             if a field of the instance could not be reset.
+	 */
+	public void release(final E instance) throws IllegalStateException {
+		final InstancePool<E> pool = instancePool;
+		if ((pool != null) && (instance != annotatedObject)) {
+			pool.release(instance);
+		}
+	}
+
+	/**
+	 * Sets the {@link PrintStream} used for
+	 * {@link CommandLineParser#printUsage()}.
+	 */
+	public void setPrintStream(final PrintStream out) {
+		parser.setPrintStream(out);
+	}
+
+	/**
+	 * Returns the {@link PrintStream} used for
+	 * {@link CommandLineParser#printUsage()}.
+	 */
+	public PrintStream getPrintStream() {
+		return parser.getPrintStream();
+	}
+
+	/**
+	 * Sets the width of the usage-message, see
+	 * {@link CommandLineParser#setUsageWidth(int)}.
+	 */
+	public void setUsageWidth(final int width) {
+		parser.setUsageWidth(width);
+	}
+
+	/**
+	 * Enables or disables the expansion of <code>@file</code> arguments, see
+	 * {@link CommandLineParser#setArgFileExpansion(boolean)}.
+	 */
+	public void setArgFileExpansion(final boolean argFileExpansion) {
+		parser.setArgFileExpansion(argFileExpansion);
+	}
+
+	/**
+	 * Sets the sources for the values of options that are not given on the
+	 * command-line, see
+	 * {@link CommandLineParser#setValueSources(IValueSource...)}.
+	 */
+	public void setValueSources(final IValueSource... sources) {
+		parser.setValueSources(sources);
+	}
+
+	/**
+	 * Enables or disables stopping the option processing at the first
+	 * non-option argument, see
+	 * {@link CommandLineParser#setStopAtFirstNonOption(boolean)}.
+	 */
+	public void setStopAtFirstNonOption(final boolean stopAtFirstNonOption) {
+		parser.setStopAtFirstNonOption(stopAtFirstNonOption);
+	}
+
+	/**
+	 * Sets the {@link IParseListener} notified while reading, or
+	 * <code>null</code> to remove it.
+	 */
+	public void setParseListener(final IParseListener listener) {
+		parser.setParseListener(listener);
+	}
+
+	/**
+	 * Returns the {@link IParseListener} notified while reading.
+	 */
+	public IParseListener getParseListener() {
+		return parser.getParseListener();
+	}
+
+	/**
+	 * Completes the word at the cursor of a partial command-line, see
+	 * {@link CommandLineParser#complete(String[], int)}.
+	 */
+	public List<String> complete(final String[] partialArgs, final int cursor) throws IllegalArgumentException {
+		return parser.complete(partialArgs, cursor);
+	}
+
+	/**
+	 * @see CommandLineParser#bashCompletionScript(String)
+	 */
+	public String bashCompletionScript(final String command) {
+		return parser.bashCompletionScript(command);
+	}
+
+	/**
+	 * @see CommandLineParser#zshCompletionScript(String)
+	 */
+	public String zshCompletionScript(final String command) {
+		return parser.zshCompletionScript(command);
+	}
+
+	private <T extends Throwable> T exception(final T e) {
+		if (schema.isShowUsageOnExeption()) {
+			parser.getPrintStream().println(e.getMessage());
+			parser.getPrintStream().println("");
+			parser.printUsage();
+		}
+		return e;
+	}
+
+	public static <T> CommandLineReader<T> of(final T annotatedObject) throws IllegalArgumentException {
+		return of(annotatedObject, Locale.getDefault());
+	}
+
+	public static <T> CommandLineReader<T> of(final T annotatedObject, final Locale locale) throws IllegalArgumentException {
+		final Class<T> annotatedObjectType = Util.uncheckedCast(annotatedObject.getClass());
+		return new CommandLineReader<T>(OptionSchema.of(annotatedObjectType, locale), annotatedObject);
+	}
+
+	public static <T> CommandLineReader<T> of(final Class<T> annotatedObjectType) throws IllegalArgumentException {
+		return of(annotatedObjectType, Locale.getDefault());
+	}
+
+	public static <T> CommandLineReader<T> of(final Class<T> annotatedObjectType, final Locale locale) throws IllegalArgumentException {
+		return of(OptionSchema.of(annotatedObjectType, locale));
+	}
+
+	/**
+	 * Creates a reader for a new instance of the command-line application
+	 * class described by the specified, already compiled schema.
+	 */
+	public static <T> CommandLineReader<T> of(final OptionSchema<T> schema) throws IllegalArgumentException {
+		// instances bound via their constructor are created per read
+		return new CommandLineReader<T>(schema, (schema.getConstructorBinding() == null) ? schema.newInstance() : null);
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import de.fips.util.tinyargs.option.AbstractOption;
+import de.fips.util.tinyargs.validator.IValidator;
+import de.fips.util.tinyargs.validator.ValueSetValidator;
+
+/**
+ * Frozen, sorted prefix index for shell completion. <br>
+ * <br>
+ * All option names (<code>-s</code> and <code>--long</code>) and, per option,
+ * the values of its {@link de.fips.util.tinyargs.annotation.OneOf OneOf}
+ * annotation are kept in sorted arrays, so the candidates for a prefix are
+ * found by one binary search followed by a scan of exactly the matching range.
+ * <br>
+ * <br>
+ * The same data is used to generate static bash and zsh completion scripts,
+ * which complete without starting a JVM at all.
+ * 
+ * @author Philipp Eichhorn
+ */
+final class CompletionIndex {
+	private static final String[] NO_CANDIDATES = new String[0];
+
+	private final OptionTable table;
+	private final String[] sortedNames;
+	private final String[][] sortedValues;
+
+	public CompletionIndex(final OptionTable table) {
+		this.table = table;
+		final Set<String> names = new TreeSet<String>();
+		sortedValues = new String[table.size()][];
+		for (int id = 0; id < table.size(); id++) {
+			final AbstractOption<?> option = table.get(id);
+			if (option.getShortForm() != null) {
+				names.add("-" + option.getShortForm());
+			}
+			names.add("--" + option.getLongForm());
+			sortedValues[id] = valuesOf(option);
+		}
+		sortedNames = names.toArray(new String[names.size()]);
+	}
+
+	/**
+	 * @param partialArgs
+	 *            The words of the command-line, without the application name.
+	 * @param cursor
+	 *            The index of the word to complete, may be
+	 *            <code>partialArgs.length</code> to complete a new word.
+	 * @return The sorted completion candidates for the word at the cursor.
+	 */
+	public List<String> complete(final String[] partialArgs, final int cursor, final boolean prefixMatching) {
+		if ((cursor < 0) || (cursor > partialArgs.length)) {
+			throw Util.illegalArgument("cursor %d out of range [0, %d]", cursor, partialArgs.length);
+		}
+		final String word = (cursor < partialArgs.length) ? partialArgs[cursor] : "";
+		final List<String> candidates = new ArrayList<String>();
+		for (int i = 0; i < cursor; i++) {
+			if ("--".equals(partialArgs[i])) {
+				return candidates;
+			}
+		}
+		if (cursor > 0) {
+			final int previousId = optionId(partialArgs[cursor - 1], prefixMatching);
+			if ((previousId >= 0) && table.get(previousId).isValueNeeded() && !partialArgs[cursor - 1].contains("=")) {
+				addMatches(sortedValues[previousId], "", word, candidates);
+				return candidates;
+			}
+		}
+		if (word.startsWith("--") && (word.indexOf('=') != -1)) {
+			final int equalsPos = word.indexOf('=');
+			final int id = optionId(word, prefixMatching);
+			if ((id >= 0) && table.get(id).isValueNeeded()) {
+				addMatches(sortedValues[id], word.substring(0, equalsPos + 1), word.substring(equalsPos + 1), candidates);
+			}
+		} else if ((word.length() == 0) || (word.charAt(0) == '-')) {
+			addMatches(sortedNames, "", word, candidates);
+		}
+		return candidates;
+	}
+
+	/**
+	 * @return A bash script that completes the options of the specified
+	 *         command.
+	 */
+	public String bashScript(final String command) {
+		final String function = "_" + functionName(command) + "_complete";
+		final StringBuilder script = new StringBuilder();
+		script.append("# bash completion for ").append(command).append('\n');
+		script.append(function).append("() {\n");
+		script.append("\tlocal cur=\"${COMP_WORDS[COMP_CWORD]}\"\n");
+		script.append("\tlocal prev=\"${COMP_WORDS[COMP_CWORD-1]}\"\n");
+		script.append("\tlocal IFS=$'\\n'\n");
+		script.append("\tcase \"$prev\" in\n");
+		for (int id = 0; id < table.size(); id++) {
+			final AbstractOption<?> option = table.get(id);
+			if (!option.isValueNeeded()) {
+				continue;
+			}
+			script.append("\t\t");
+			if (option.getShortForm() != null) {
+				script.append('-').append(option.getShortForm()).append('|');
+			}
+			script.append("--").append(option.getLongForm()).append(")\n");
+			if (sortedValues[id].length == 0) {
+				script.append("\t\t\tCOMPREPLY=()\n");
+			} else {
+				script.append("\t\t\tCOMPREPLY=($(compgen -W ").append(bashWords(sortedValues[id])).append(" -- \"$cur\"))\n");
+			}
+			script.append("\t\t\treturn 0;;\n");
+		}
+		script.append("\tesac\n");
+		script.append("\tif [[ \"$cur\" == -* ]]; then\n");
+		script.append("\t\tCOMPREPLY=($(compgen -W ").append(bashWords(sortedNames)).append(" -- \"$cur\"))\n");
+		script.append("\tfi\n");
+		script.append("}\n");
+		script.append("complete -o default -F ").append(function).append(' ').append(command).append('\n');
+		return script.toString();
+	}
+
+	/**
+	 * @return A zsh script that completes the options of the specified
+	 *         command.
+	 */
+	public String zshScript(final String command) {
+		final StringBuilder script = new StringBuilder();
+		script.append("#compdef ").append(command).append('\n');
+		script.append("_arguments -s");
+		final TreeMap<String, Integer> longForms = new TreeMap<String, Integer>();
+		for (int id = 0; id < table.size(); id++) {
+			longForms.put(table.get(id).getLongForm(), id);
+		}
+		for (final int id : longForms.values()) {
+			final AbstractOption<?> option = table.get(id);
+			final StringBuilder spec = new StringBuilder();
+			final String exclusions = (option.getShortForm() == null) ? "" : "(-" + option.getShortForm() + " --" + option.getLongForm() + ")";
+			if (!Util.isEmpty(option.getDescription())) {
+				spec.append('[').append(zshEscape(option.getDescription())).append(']');
+			}
+			if (option.isValueNeeded()) {
+				spec.append(':').append(zshEscape(option.getLongForm())).append(':');
+				if (sortedValues[id].length > 0) {
+					spec.append('(');
+					for (int i = 0; i < sortedValues[id].length; i++) {
+						spec.append((i == 0) ? "" : " ").append(zshEscape(sortedValues[id][i]).replace(" ", "\\ "));
+					}
+					spec.append(')');
+				}
+			}
+			if (option.getShortForm() != null) {
+				script.append(" \\\n\t").append(shellQuote(exclusions + "-" + option.getShortForm() + spec));
+			}
+			script.append(" \\\n\t").append(shellQuote(exclusions + "--" + option.getLongForm() + spec));
+		}
+		script.append(" \\\n\t'*:: :_files'\n");
+		return script.toString();
+	}
+
+	private static String[] valuesOf(final AbstractOption<?> option) {
+		Set<String> values = null;
+		for (final IValidator<?> validator : option.getValidators()) {
+			if (validator instanceof ValueSetValidator) {
+				if (values == null) {
+					values = new TreeSet<String>();
+				}
+				for (final Object value : ((ValueSetValidator<?>) validator).getValidValues()) {
+					values.add(String.valueOf(value));
+				}
+			}
+		}
+		return (values == null) ? NO_CANDIDATES : values.toArray(new String[values.size()]);
+	}
+
+	private int optionId(final String arg, final boolean prefixMatching) {
+		if (arg.startsWith("--")) {
+			final int equalsPos = arg.indexOf('=');
+			final int end = (equalsPos == -1) ? arg.length() : equalsPos;
+			final int id = table.longFormId(arg, 2, end);
+			return ((id == OptionTable.NONE) && prefixMatching) ? table.longFormPrefixId(arg, 2, end) : id;
+		}
+		return ((arg.length() == 2) && (arg.charAt(0) == '-')) ? table.shortFormId(arg.charAt(1)) : OptionTable.NONE;
+	}
+
+	private static void addMatches(final String[] sorted, final String head, final String prefix, final List<String> candidates) {
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (sorted[mid].compareTo(prefix) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		for (int i = low; (i < sorted.length) && sorted[i].startsWith(prefix); i++) {
+			candidates.add(head + sorted[i]);
+		}
+	}
+
+	private static String functionName(final String command) {
+		final String name = command.substring(command.lastIndexOf('/') + 1);
+		final StringBuilder function = new StringBuilder(name.length());
+		for (int i = 0; i < name.length(); i++) {
+			final char c = name.charAt(i);
+			function.append(Character.isLetterOrDigit(c) ? c : '_');
+		}
+		return function.toString();
+	}
+
+	/**
+	 * @return The words as one ANSI-C quoted bash string, separated by
+	 *         newlines.
+	 */
+	private static String bashWords(final String[] words) {
+		final StringBuilder quoted = new StringBuilder("$'");
+		for (int i = 0; i < words.length; i++) {
+			if (i > 0) {
+				quoted.append("\\n");
+			}
+			quoted.append(words[i].replace("\\", "\\\\").replace("'", "\\'"));
+		}
+		return quoted.append('\'').toString();
+	}
+
+	private static String zshEscape(final String s) {
+		return s.replace("\\", "\\\\").replace("[", "\\[").replace("]", "\\]").replace(":", "\\:");
+	}
+
+	private static String shellQuote(final String s) {
+		return "'" + s.replace("'", "'\\''") + "'";
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import de.fips.util.tinyargs.annotation.InInterval;
+import de.fips.util.tinyargs.annotation.OneOf;
+import de.fips.util.tinyargs.annotation.Option;
+import de.fips.util.tinyargs.listener.IParseListener;
+import de.fips.util.tinyargs.option.AbstractOption;
+
+/**
+ * Creates instances of an immutable command-line application class through
+ * the constructor whose parameters are
+ * {@link de.fips.util.tinyargs.annotation.Option Option}-annotated. <br>
+ * <br>
+ * The options, the default arguments and the accessible constructor are
+ * looked up once, so creating an instance from a {@link ParseResult} is a
+ * single constructor invocation. An option that was not set is passed as
+ * <code>null</code>, or as <code>0</code> and <code>false</code> for primitive
+ * parameters. Like a field, an array, {@link List} or {@link java.util.Set Set}
+ * parameter takes all values of a repeated option. Since parameter names are
+ * not available via reflection, every annotation needs a <code>longForm</code>.
+ * 
+ * @param <E>
+ *            Type of the command-line application
+ * 
+ * @author Philipp Eichhorn
+ */
+final class ConstructorBinding<E> implements IInstanceFactory<E> {
+	private final Constructor<E> constructor;
+	private final Class<?>[] parameterTypes;
+	private final AbstractOption<Object>[] options;
+	private final Object[] defaults;
+
+	private ConstructorBinding(final Constructor<E> constructor, final AbstractOption<Object>[] options, final Object[] defaults) {
+		this.constructor = constructor;
+		this.parameterTypes = constructor.getParameterTypes();
+		this.options = options;
+		this.defaults = defaults;
+	}
+
+	/**
+	 * @return The options of the constructor parameters, in their order.
+	 */
+	List<AbstractOption<Object>> getOptions() {
+		return Collections.unmodifiableList(Arrays.asList(options));
+	}
+
+	/**
+	 * @return A new instance with every option unset.
+	 */
+	@Override
+	public E newInstance() throws IllegalArgumentException {
+		return invoke(defaults.clone());
+	}
+
+	/**
+	 * @param listener
+	 *            Notified for every option that was set, may be
+	 *            <code>null</code>.
+	 * @return A new instance with the parsed values of the specified result.
+	 */
+	E newInstance(final ParseResult result, final IParseListener listener) throws IllegalArgumentException {
+		final Object[] args = new Object[options.length];
+		for (int i = 0; i < options.length; i++) {
+			if (listener == null) {
+				args[i] = argument(i, result);
+			} else {
+				final long start = System.nanoTime();
+				args[i] = argument(i, result);
+				if (result.hasValues(options[i])) {
+					listener.fieldBound(options[i], System.nanoTime() - start);
+				}
+			}
+		}
+		return invoke(args);
+	}
+
+	private Object argument(final int index, final ParseResult result) {
+		if (FieldBinding.takesAllValues(parameterTypes[index])) {
+			return result.hasValues(options[index]) ? FieldBinding.getAllValues(parameterTypes[index], options[index], result) : defaults[index];
+		}
+		return result.getOptionValue(options[index], defaults[index]);
+	}
+
+	private E invoke(final Object[] args) throws IllegalArgumentException {
+		try {
+			return constructor.newInstance(args);
+		} catch (final InvocationTargetException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw Util.illegalArgument("The constructor of '%s' failed: %s", constructor.getDeclaringClass().getName(), e.getCause());
+		} catch (final Exception e) {
+			throw Util.illegalArgument("Could not invoke the constructor of '%s': %s", constructor.getDeclaringClass().getName(), e);
+		}
+	}
+
+	/**
+	 * @return The binding for the constructor of the specified class with
+	 *         {@link Option}-annotated parameters, or <code>null</code> if
+	 *         there is none.
+	 * @throws IllegalArgumentException
+	 *             if there is more than one such constructor, or not all of its
+	 *             parameters are annotated.
+	 */
+	static <T> ConstructorBinding<T> of(final Class<T> type, final Locale locale) throws IllegalArgumentException {
+		Constructor<T> annotatedConstructor = null;
+		for (final Constructor<?> constructor : type.getDeclaredConstructors()) {
+			if (hasOptionParameter(constructor)) {
+				if (annotatedConstructor != null) {
+					throw Util.illegalArgument("The class '%s' has more than one constructor with Option-annotated parameters!", type.getName());
+				}
+				annotatedConstructor = Util.uncheckedCast(constructor);
+			}
+		}
+		if (annotatedConstructor == null) {
+			return null;
+		}
+		final Class<?>[] parameterTypes = annotatedConstructor.getParameterTypes();
+		final Type[] genericParameterTypes = annotatedConstructor.getGenericParameterTypes();
+		final Annotation[][] parameterAnnotations = annotatedConstructor.getParameterAnnotations();
+		final AbstractOption<Object>[] options = Util.uncheckedCast(new AbstractOption<?>[parameterTypes.length]);
+		final Object[] defaults = new Object[parameterTypes.length];
+		for (int i = 0; i < parameterTypes.length; i++) {
+			final Option option = annotation(parameterAnnotations[i], Option.class);
+			if (option == null) {
+				throw Util.illegalArgument("The parameter %d of the Option-annotated constructor of '%s' is not annotated!", i, type.getName());
+			}
+			if (Util.isEmpty(option.longForm())) {
+				throw Util.illegalArgument("The Option-annotated parameter %d of the constructor of '%s' needs a longForm!", i, type.getName());
+			}
+			// the generic types lack synthetic parameters, if there are any
+			final Type genericType = (genericParameterTypes.length == parameterTypes.length) ? genericParameterTypes[i] : parameterTypes[i];
+			final Class<?> valueType = Util.getValueType(parameterTypes[i], genericType, "parameter", option.longForm());
+			options[i] = OptionSchema.optionForField(valueType, option.shortForm(), option.longForm(), option.description());
+			final OneOf oneOf = annotation(parameterAnnotations[i], OneOf.class);
+			if (oneOf != null) {
+				OptionSchema.addValueSetValidator(type, options[i], oneOf.value(), locale);
+			}
+			final InInterval inInterval = annotation(parameterAnnotations[i], InInterval.class);
+			if (inInterval != null) {
+				OptionSchema.addIntervalValidator(type, options[i], inInterval.min(), inInterval.max(), locale);
+			}
+			// null for reference types, the zero value for primitive types
+			defaults[i] = parameterTypes[i].isPrimitive() ? Array.get(Array.newInstance(parameterTypes[i], 1), 0) : null;
+		}
+		annotatedConstructor.setAccessible(true);
+		return new ConstructorBinding<T>(annotatedConstructor, options, defaults);
+	}
+
+	private static boolean hasOptionParameter(final Constructor<?> constructor) {
+		for (final Annotation[] annotations : constructor.getParameterAnnotations()) {
+			if (annotation(annotations, Option.class) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static <A extends Annotation> A annotation(final Annotation[] annotations, final Class<A> annotationType) {
+		for (final Annotation annotation : annotations) {
+			if (annotationType.isInstance(annotation)) {
+				return annotationType.cast(annotation);
+			}
+		}
+		return null;
+	}
+}
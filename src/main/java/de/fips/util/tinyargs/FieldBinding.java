@@ -0,0 +1,349 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import lombok.Getter;
+
+import de.fips.util.tinyargs.option.AbstractOption;
+
+/**
+ * Connects an {@link de.fips.util.tinyargs.annotation.Option Option}-annotated
+ * field with the {@link AbstractOption} that was created for it. <br>
+ * <br>
+ * The binding is chosen once per field by {@link #of(Field, AbstractOption)}.
+ * Primitive fields get a binding that reads the value via the primitive
+ * getters of {@link ParseResult} and writes it via the type-specific setter of
+ * {@link Field}, so nothing is boxed. Array, {@link List} and {@link Set}
+ * fields take all values of a repeated option, see
+ * {@link #getAllValues(Class, AbstractOption, ParseResult)}. The current field
+ * value is never read, a field is only written if its option was set.
+ * 
+ * @author Philipp Eichhorn
+ */
+abstract class FieldBinding extends OptionBinding<Object> {
+	@Getter
+	private final Field field;
+
+	private FieldBinding(final Field field, final AbstractOption<Object> option) {
+		super(option);
+		this.field = field;
+	}
+
+	/**
+	 * Copies immutable values by reference. The only mutable option value is
+	 * a {@link Date}, which is cloned, so the target never shares it with the
+	 * source.
+	 */
+	@Override
+	public void copy(final Object source, final Object target) throws IllegalAccessException {
+		final Object value = field.get(source);
+		field.set(target, (value instanceof Date) ? ((Date) value).clone() : value);
+	}
+
+	/**
+	 * Creates the binding for the specified field. The field has to be
+	 * accessible already.
+	 */
+	public static FieldBinding of(final Field field, final AbstractOption<Object> option) {
+		final Class<?> type = field.getType();
+		if (type == Integer.TYPE) {
+			return new IntBinding(field, option);
+		} else if (type == Long.TYPE) {
+			return new LongBinding(field, option);
+		} else if (type == Double.TYPE) {
+			return new DoubleBinding(field, option);
+		} else if (type == Float.TYPE) {
+			return new FloatBinding(field, option);
+		} else if (type == Boolean.TYPE) {
+			return new BooleanBinding(field, option);
+		} else if (type.isArray()) {
+			return new ArrayBinding(field, option);
+		} else if (type == List.class) {
+			return new ListBinding(field, option);
+		} else if (type == Set.class) {
+			return new SetBinding(field, option);
+		} else {
+			return new ObjectBinding(field, option);
+		}
+	}
+
+	/**
+	 * @return A shallow copy of the specified array, or <code>null</code>.
+	 */
+	private static Object copyOfArray(final Object array) {
+		if (array == null) {
+			return null;
+		}
+		final int length = Array.getLength(array);
+		final Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+		System.arraycopy(array, 0, copy, 0, length);
+		return copy;
+	}
+
+	/**
+	 * @return Whether a field or parameter of the specified type takes all
+	 *         values of a repeated option.
+	 */
+	static boolean takesAllValues(final Class<?> type) {
+		return type.isArray() || (type == List.class) || (type == Set.class);
+	}
+
+	/**
+	 * @return All values of the specified option, in a new array,
+	 *         {@link List} or {@link Set} of the specified type sized to their
+	 *         number. <code>int[]</code>, <code>long[]</code> and
+	 *         <code>double[]</code> are filled without boxing, a {@link Set}
+	 *         keeps the values in command-line order, without duplicates.
+	 * @see #takesAllValues(Class)
+	 */
+	static Object getAllValues(final Class<?> type, final AbstractOption<Object> option, final ParseResult result) {
+		if (type == int[].class) {
+			return result.getInts(Util.<AbstractOption<Integer>> uncheckedCast(option));
+		} else if (type == long[].class) {
+			return result.getLongs(Util.<AbstractOption<Long>> uncheckedCast(option));
+		} else if (type == double[].class) {
+			return result.getDoubles(Util.<AbstractOption<Double>> uncheckedCast(option));
+		}
+		final List<Object> values = result.getOptionValues(option);
+		if (type == List.class) {
+			return new ArrayList<Object>(values);
+		} else if (type == Set.class) {
+			final Set<Object> set = new LinkedHashSet<Object>(Math.max(16, (int) (values.size() / 0.75f) + 1));
+			for (final Object value : values) {
+				set.add(value);
+			}
+			return set;
+		}
+		// arrays of references are filled directly, arrays of the remaining
+		// primitive types via Array.set
+		final Class<?> componentType = type.getComponentType();
+		final Object array = Array.newInstance(componentType, values.size());
+		int i = 0;
+		if (componentType.isPrimitive()) {
+			for (final Object value : values) {
+				Array.set(array, i++, value);
+			}
+		} else {
+			final Object[] objects = (Object[]) array;
+			for (final Object value : values) {
+				objects[i++] = value;
+			}
+		}
+		return array;
+	}
+
+	private static final class ObjectBinding extends FieldBinding {
+		private final AbstractOption<Object> objectOption;
+
+		public ObjectBinding(final Field field, final AbstractOption<Object> option) {
+			super(field, option);
+			this.objectOption = option;
+		}
+
+		@Override
+		public void bind(final Object target, final ParseResult result) throws IllegalAccessException {
+			// the binding itself marks an option that was not set
+			final Object value = result.getOptionValue(objectOption, this);
+			if (value != this) {
+				getField().set(target, value);
+			}
+		}
+	}
+
+	private static final class IntBinding extends FieldBinding {
+		private final AbstractOption<Integer> intOption;
+
+		public IntBinding(final Field field, final AbstractOption<Object> option) {
+			super(field, option);
+			this.intOption = Util.uncheckedCast(option);
+		}
+
+		@Override
+		public void bind(final Object target, final ParseResult result) throws IllegalAccessException {
+			if (result.hasValues(intOption)) {
+				getField().setInt(target, result.getInt(intOption, 0));
+			}
+		}
+
+		@Override
+		public void copy(final Object source, final Object target) throws IllegalAccessException {
+			getField().setInt(target, getField().getInt(source));
+		}
+	}
+
+	private static final class LongBinding extends FieldBinding {
+		private final AbstractOption<Long> longOption;
+
+		public LongBinding(final Field field, final AbstractOption<Object> option) {
+			super(field, option);
+			this.longOption = Util.uncheckedCast(option);
+		}
+
+		@Override
+		public void bind(final Object target, final ParseResult result) throws IllegalAccessException {
+			if (result.hasValues(longOption)) {
+				getField().setLong(target, result.getLong(longOption, 0));
+			}
+		}
+
+		@Override
+		public void copy(final Object source, final Object target) throws IllegalAccessException {
+			getField().setLong(target, getField().getLong(source));
+		}
+	}
+
+	private static final class DoubleBinding extends FieldBinding {
+		private final AbstractOption<Double> doubleOption;
+
+		public DoubleBinding(final Field field, final AbstractOption<Object> option) {
+			super(field, option);
+			this.doubleOption = Util.uncheckedCast(option);
+		}
+
+		@Override
+		public void bind(final Object target, final ParseResult result) throws IllegalAccessException {
+			if (result.hasValues(doubleOption)) {
+				getField().setDouble(target, result.getDouble(doubleOption, 0));
+			}
+		}
+
+		@Override
+		public void copy(final Object source, final Object target) throws IllegalAccessException {
+			getField().setDouble(target, getField().getDouble(source));
+		}
+	}
+
+	private static final class FloatBinding extends FieldBinding {
+		private final AbstractOption<Float> floatOption;
+
+		public FloatBinding(final Field field, final AbstractOption<Object> option) {
+			super(field, option);
+			this.floatOption = Util.uncheckedCast(option);
+		}
+
+		@Override
+		public void bind(final Object target, final ParseResult result) throws IllegalAccessException {
+			if (result.hasValues(floatOption)) {
+				getField().setFloat(target, result.getFloat(floatOption, 0));
+			}
+		}
+
+		@Override
+		public void copy(final Object source, final Object target) throws IllegalAccessException {
+			getField().setFloat(target, getField().getFloat(source));
+		}
+	}
+
+	private static final class BooleanBinding extends FieldBinding {
+		private final AbstractOption<Boolean> booleanOption;
+
+		public BooleanBinding(final Field field, final AbstractOption<Object> option) {
+			super(field, option);
+			this.booleanOption = Util.uncheckedCast(option);
+		}
+
+		@Override
+		public void bind(final Object target, final ParseResult result) throws IllegalAccessException {
+			if (result.hasValues(booleanOption)) {
+				getField().setBoolean(target, result.getBoolean(booleanOption, false));
+			}
+		}
+
+		@Override
+		public void copy(final Object source, final Object target) throws IllegalAccessException {
+			getField().setBoolean(target, getField().getBoolean(source));
+		}
+	}
+
+	private static final class ArrayBinding extends FieldBinding {
+		private final AbstractOption<Object> objectOption;
+
+		public ArrayBinding(final Field field, final AbstractOption<Object> option) {
+			super(field, option);
+			this.objectOption = option;
+		}
+
+		@Override
+		public void bind(final Object target, final ParseResult result) throws IllegalAccessException {
+			if (result.hasValues(objectOption)) {
+				getField().set(target, getAllValues(getField().getType(), objectOption, result));
+			}
+		}
+
+		@Override
+		public void copy(final Object source, final Object target) throws IllegalAccessException {
+			getField().set(target, copyOfArray(getField().get(source)));
+		}
+	}
+
+	private static final class ListBinding extends FieldBinding {
+		private final AbstractOption<Object> objectOption;
+
+		public ListBinding(final Field field, final AbstractOption<Object> option) {
+			super(field, option);
+			this.objectOption = option;
+		}
+
+		@Override
+		public void bind(final Object target, final ParseResult result) throws IllegalAccessException {
+			if (result.hasValues(objectOption)) {
+				getField().set(target, getAllValues(List.class, objectOption, result));
+			}
+		}
+
+		@Override
+		public void copy(final Object source, final Object target) throws IllegalAccessException {
+			final List<?> values = (List<?>) getField().get(source);
+			getField().set(target, (values == null) ? null : new ArrayList<Object>(values));
+		}
+	}
+
+	private static final class SetBinding extends FieldBinding {
+		private final AbstractOption<Object> objectOption;
+
+		public SetBinding(final Field field, final AbstractOption<Object> option) {
+			super(field, option);
+			this.objectOption = option;
+		}
+
+		@Override
+		public void bind(final Object target, final ParseResult result) throws IllegalAccessException {
+			if (result.hasValues(objectOption)) {
+				getField().set(target, getAllValues(Set.class, objectOption, result));
+			}
+		}
+
+		@Override
+		public void copy(final Object source, final Object target) throws IllegalAccessException {
+			final Set<?> values = (Set<?>) getField().get(source);
+			getField().set(target, (values == null) ? null : new LinkedHashSet<Object>(values));
+		}
+	}
+}
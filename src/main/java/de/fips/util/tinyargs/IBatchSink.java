@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import de.fips.util.tinyargs.exception.OptionException;
+
+/**
+ * Receives the outcome of every command-line of a {@link BatchParser} run.
+ * 
+ * @author Philipp Eichhorn
+ */
+public interface IBatchSink {
+
+	/**
+	 * Called for every command-line that was parsed and validated.
+	 * 
+	 * @param index
+	 *            The position of the command-line in the input.
+	 */
+	public void parsed(long index, String[] args, ParseResult result);
+
+	/**
+	 * Called for every command-line that could not be parsed.
+	 * 
+	 * @param index
+	 *            The position of the command-line in the input.
+	 */
+	public void failed(long index, String[] args, OptionException error);
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.util.Locale;
+
+/**
+ * Creates the {@link OptionSchema} of a command-line application class without
+ * reflection. Implementations are generated at compile-time by
+ * {@link de.fips.util.tinyargs.processor.OptionProcessor OptionProcessor} and
+ * are picked up by {@link OptionSchema#of(Class, Locale)} automatically.
+ * 
+ * @param <E>
+ *            Type of the command-line application
+ * 
+ * @author Philipp Eichhorn
+ */
+public interface ISchemaFactory<E> {
+
+	/**
+	 * @param locale
+	 *            The Locale used to parse the values of validator annotations.
+	 * @return The schema of the command-line application class.
+	 * @throws IllegalArgumentException
+	 */
+	public OptionSchema<E> create(Locale locale) throws IllegalArgumentException;
+}
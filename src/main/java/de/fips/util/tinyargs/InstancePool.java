@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded pool of recycled instances of a command-line application class. <br>
+ * <br>
+ * A released instance is reset to the declared defaults before it is pooled:
+ * the value of every option field is copied from a prototype instance that
+ * was created once and never handed out. Fields without an option are left
+ * as they are. Mutable default values like arrays, collections and dates are
+ * copied, so changing them in a recycled instance never changes the
+ * prototype. If the pool is full
+ * the released instance is dropped, if it is empty a new instance is created.
+ * 
+ * @param <E>
+ *            Type of the command-line application
+ * 
+ * @author Philipp Eichhorn
+ */
+final class InstancePool<E> {
+	private final OptionSchema<E> schema;
+	private final E defaults;
+	private final BlockingQueue<E> instances;
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the schema binds via a constructor, whose instances can
+	 *             not be reset.
+	 */
+	InstancePool(final OptionSchema<E> schema, final int capacity) throws IllegalArgumentException {
+		if (schema.getConstructorBinding() != null) {
+			throw Util.illegalArgument("The class '%s' is bound via its constructor, its instances can not be recycled!", schema.getType().getName());
+		}
+		this.schema = schema;
+		defaults = schema.newInstance();
+		instances = new ArrayBlockingQueue<E>(capacity);
+	}
+
+	E acquire() throws IllegalArgumentException {
+		final E instance = instances.poll();
+		return (instance == null) ? schema.newInstance() : instance;
+	}
+
+	/**
+	 * @throws IllegalStateException
+	 *             if a field of the instance could not be reset.
+	 */
+	void release(final E instance) throws IllegalStateException {
+		try {
+			for (final OptionBinding<? super E> binding : schema.getBindings()) {
+				binding.copy(defaults, instance);
+			}
+		} catch (final IllegalAccessException e) {
+			throw new IllegalStateException("Could not reset an instance of '" + schema.getType().getName() + "'", e);
+		}
+		instances.offer(instance);
+	}
+
+	int size() {
+		return instances.size();
+	}
+}
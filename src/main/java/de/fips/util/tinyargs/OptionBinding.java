@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import lombok.Getter;
+
+import de.fips.util.tinyargs.option.AbstractOption;
+
+/**
+ * Writes the parsed value of one {@link AbstractOption} into the command-line
+ * application object.
+ * 
+ * @param <E>
+ *            Type of the command-line application
+ * 
+ * @author Philipp Eichhorn
+ */
+@Getter
+public abstract class OptionBinding<E> {
+	private final AbstractOption<?> option;
+
+	protected OptionBinding(final AbstractOption<?> option) {
+		this.option = option;
+	}
+
+	/**
+	 * Override to write the parsed value of the option into the specified
+	 * object. Implementations are supposed to leave the target untouched if the
+	 * option was not set.
+	 * 
+	 * @param target
+	 *            The command-line application object.
+	 * @param result
+	 *            The parsed values.
+	 * @throws IllegalAccessException
+	 */
+	public abstract void bind(E target, ParseResult result) throws IllegalAccessException;
+
+	/**
+	 * Override to copy the value the option is bound to from one object to
+	 * another. This is used to reset recycled objects to their declared
+	 * defaults, see {@link CommandLineReader#setInstancePoolCapacity(int)}.
+	 * 
+	 * @param source
+	 *            The object to read the value from.
+	 * @param target
+	 *            The object to write the value to.
+	 * @throws IllegalAccessException
+	 */
+	public abstract void copy(E source, E target) throws IllegalAccessException;
+}
@@ -0,0 +1,392 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import de.fips.util.tinyargs.annotation.ApplicationName;
+import de.fips.util.tinyargs.annotation.EnableHelp;
+import de.fips.util.tinyargs.annotation.InInterval;
+import de.fips.util.tinyargs.annotation.OneOf;
+import de.fips.util.tinyargs.annotation.Option;
+import de.fips.util.tinyargs.exception.IllegalOptionValueException;
+import de.fips.util.tinyargs.option.AbstractOption;
+import de.fips.util.tinyargs.validator.IntervalValidator;
+import de.fips.util.tinyargs.validator.ValueSetValidator;
+
+/**
+ * Compiled, immutable representation of an annotated command-line application
+ * class. <br>
+ * <br>
+ * All reflection (field scan, annotation lookup, option instantiation and
+ * validator setup) happens once when the schema is compiled. Schemas are cached
+ * per class and {@link Locale}, so any number of {@link CommandLineReader
+ * CommandLineReaders} can be created from the same schema without repeating
+ * that work. The cache does not keep the classes, and therefore their class
+ * loaders, from being unloaded. A schema can safely be shared between
+ * threads.
+ * 
+ * @param <E>
+ *            Type of the command-line application
+ * 
+ * @author Philipp Eichhorn
+ */
+@Getter
+public final class OptionSchema<E> {
+	/**
+	 * Weak keys, so the cache does not pin class loaders. The schemas are only
+	 * softly referenced, as they reference their class themselves.
+	 */
+	private static final Map<Class<?>, ConcurrentMap<Locale, SoftReference<OptionSchema<?>>>> SCHEMAS = new WeakHashMap<Class<?>, ConcurrentMap<Locale, SoftReference<OptionSchema<?>>>>();
+
+	private final Class<E> type;
+	private final Locale locale;
+	/** the field bindings, empty if the class is bound via its constructor */
+	@Getter(AccessLevel.PACKAGE)
+	private final List<OptionBinding<? super E>> bindings;
+	@Getter(AccessLevel.NONE)
+	private final IInstanceFactory<E> instanceFactory;
+	private final boolean helpEnabled;
+	private final boolean showUsageOnExeption;
+	private final String applicationName;
+	private final boolean applicationNameFromJar;
+	@Getter(AccessLevel.NONE)
+	private volatile Usage usage;
+	/** the usage-message loaded from a {@link SchemaSnapshot}, or <code>null</code> */
+	@Getter(AccessLevel.NONE)
+	private String prerenderedUsage;
+	/** creates the instances if the class is bound via its constructor, or <code>null</code> */
+	@Getter(AccessLevel.PACKAGE)
+	private ConstructorBinding<E> constructorBinding;
+
+	private OptionSchema(final Class<E> type, final Locale locale, final List<? extends OptionBinding<? super E>> bindings, final IInstanceFactory<E> instanceFactory,
+			final boolean helpEnabled, final boolean showUsageOnExeption, final String applicationName, final boolean applicationNameFromJar) {
+		this.type = type;
+		this.locale = locale;
+		this.bindings = Collections.unmodifiableList(new ArrayList<OptionBinding<? super E>>(bindings));
+		this.instanceFactory = instanceFactory;
+		this.helpEnabled = helpEnabled;
+		this.showUsageOnExeption = helpEnabled && showUsageOnExeption;
+		this.applicationName = applicationName;
+		this.applicationNameFromJar = applicationNameFromJar;
+	}
+
+	/**
+	 * Creates a new {@link CommandLineParser} that accepts all options of this
+	 * schema. The options itself are shared, only the parser is new.
+	 */
+	CommandLineParser newParser() {
+		final CommandLineParser parser = new CommandLineParser();
+		if (constructorBinding == null) {
+			for (final OptionBinding<? super E> binding : bindings) {
+				parser.addOption(binding.getOption());
+			}
+		} else {
+			for (final AbstractOption<Object> option : constructorBinding.getOptions()) {
+				parser.addOption(option);
+			}
+		}
+		if (applicationName != null) {
+			parser.setApplicationName(applicationName);
+			if (applicationNameFromJar) {
+				parser.setApplicationNameFormJar();
+			}
+		}
+		return parser;
+	}
+
+	/**
+	 * All readers of this schema have parsers with the same options, so their
+	 * usage-message is rendered once, for the first of them.
+	 */
+	Usage usageOf(final CommandLineParser parser) {
+		Usage schemaUsage = usage;
+		if (schemaUsage == null) {
+			schemaUsage = (prerenderedUsage == null) ? parser.getUsage() : parser.getUsage().withClassicText(prerenderedUsage);
+			usage = schemaUsage;
+		}
+		return schemaUsage;
+	}
+
+	/**
+	 * Creates a new instance of the command-line application class.
+	 */
+	E newInstance() throws IllegalArgumentException {
+		return instanceFactory.newInstance();
+	}
+
+	/**
+	 * Returns the compiled schema of the specified class for the specified
+	 * locale. The schema is compiled on first request and cached afterwards.
+	 * If the class was processed by
+	 * {@link de.fips.util.tinyargs.processor.OptionProcessor OptionProcessor},
+	 * the generated {@link ISchemaFactory} is used instead of reflection.
+	 * Otherwise an up-to-date {@link SchemaSnapshot} next to the class file
+	 * is used, if there is one.
+	 */
+	public static <T> OptionSchema<T> of(final Class<T> type, final Locale locale) throws IllegalArgumentException {
+		final ConcurrentMap<Locale, SoftReference<OptionSchema<?>>> schemas = schemasOf(type);
+		final SoftReference<OptionSchema<?>> cached = schemas.get(locale);
+		OptionSchema<?> schema = (cached == null) ? null : cached.get();
+		if (schema == null) {
+			final ISchemaFactory<T> schemaFactory = generatedSchemaFactory(type);
+			if (schemaFactory != null) {
+				schema = schemaFactory.create(locale);
+			} else {
+				final OptionSchema<T> snapshot = SchemaSnapshot.load(type, locale);
+				schema = (snapshot == null) ? compile(type, locale) : snapshot;
+			}
+			schema = cache(schemas, locale, schema);
+		}
+		return Util.uncheckedCast(schema);
+	}
+
+	private static ConcurrentMap<Locale, SoftReference<OptionSchema<?>>> schemasOf(final Class<?> type) {
+		synchronized (SCHEMAS) {
+			ConcurrentMap<Locale, SoftReference<OptionSchema<?>>> schemas = SCHEMAS.get(type);
+			if (schemas == null) {
+				schemas = new ConcurrentHashMap<Locale, SoftReference<OptionSchema<?>>>();
+				SCHEMAS.put(type, schemas);
+			}
+			return schemas;
+		}
+	}
+
+	/**
+	 * @return The cached schema, which is the specified one unless another
+	 *         thread was faster.
+	 */
+	private static OptionSchema<?> cache(final ConcurrentMap<Locale, SoftReference<OptionSchema<?>>> schemas, final Locale locale, final OptionSchema<?> schema) {
+		final SoftReference<OptionSchema<?>> reference = new SoftReference<OptionSchema<?>>(schema);
+		while (true) {
+			final SoftReference<OptionSchema<?>> existing = schemas.putIfAbsent(locale, reference);
+			if (existing == null) {
+				return schema;
+			}
+			final OptionSchema<?> existingSchema = existing.get();
+			if (existingSchema != null) {
+				return existingSchema;
+			}
+			if (schemas.replace(locale, existing, reference)) {
+				return schema;
+			}
+		}
+	}
+
+	/**
+	 * Creates a schema from already compiled parts. This is what generated
+	 * {@link ISchemaFactory ISchemaFactories} use, the result is not cached.
+	 */
+	public static <T> OptionSchema<T> precompiled(final Class<T> type, final Locale locale, final List<? extends OptionBinding<? super T>> bindings, final IInstanceFactory<T> instanceFactory,
+			final boolean helpEnabled, final boolean showUsageOnExeption, final String applicationName, final boolean applicationNameFromJar) {
+		return new OptionSchema<T>(type, locale, bindings, instanceFactory, helpEnabled, showUsageOnExeption, applicationName, applicationNameFromJar);
+	}
+
+	/**
+	 * Creates a schema from the parts stored in a {@link SchemaSnapshot}, the
+	 * result is not cached.
+	 * 
+	 * @param usageMessage
+	 *            The rendered usage-message, or <code>null</code> if it has to
+	 *            be rendered on demand.
+	 */
+	static <T> OptionSchema<T> fromSnapshot(final Class<T> type, final Locale locale, final List<FieldBinding> bindings, final boolean helpEnabled,
+			final boolean showUsageOnExeption, final String applicationName, final boolean applicationNameFromJar, final String usageMessage) {
+		final OptionSchema<T> schema = new OptionSchema<T>(type, locale, bindings, new ConstructorInstanceFactory<T>(type), helpEnabled, showUsageOnExeption,
+				applicationName, applicationNameFromJar);
+		schema.prerenderedUsage = usageMessage;
+		return schema;
+	}
+
+	/**
+	 * Adds a {@link ValueSetValidator} for the values of a
+	 * {@link de.fips.util.tinyargs.annotation.OneOf OneOf} annotation to the
+	 * specified option.
+	 */
+	public static void addValueSetValidator(final Class<?> type, final AbstractOption<?> option, final String[] values, final Locale locale) throws IllegalArgumentException {
+		final AbstractOption<Object> objectOption = Util.uncheckedCast(option);
+		try {
+			if (!Util.isEmpty(values)) {
+				final Set<Object> validValues = new HashSet<Object>();
+				for (final String value : values) {
+					validValues.add(objectOption.parseValue(value, locale));
+				}
+				objectOption.addValidator(new ValueSetValidator<Object>(validValues));
+			}
+		} catch (final IllegalOptionValueException e) {
+			throw Util.illegalArgument("The parameter 'values' of the CommandLineValidator can not be used to validate objects of the type '%s'!", type.getName());
+		}
+	}
+
+	/**
+	 * Adds an {@link IntervalValidator} for the bounds of an
+	 * {@link de.fips.util.tinyargs.annotation.InInterval InInterval} annotation
+	 * to the specified option.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static void addIntervalValidator(final Class<?> type, final AbstractOption<?> option, final String min, final String max, final Locale locale) throws IllegalArgumentException {
+		addIntervalValidatorSafe(type, (AbstractOption) option, min, max, locale);
+	}
+
+	private static <T extends Comparable<T>> void addIntervalValidatorSafe(final Class<?> type, final AbstractOption<T> option, final String min, final String max, final Locale locale) throws IllegalArgumentException {
+		try {
+			if (!Util.isEmpty(min) || !Util.isEmpty(max)) {
+				final T minValue = Util.isEmpty(min) ? null : option.parseValue(min, locale);
+				final T maxValue = Util.isEmpty(max) ? null : option.parseValue(max, locale);
+				option.addValidator(new IntervalValidator<T>(minValue, maxValue));
+			}
+		} catch (final IllegalOptionValueException e2) {
+			throw Util.illegalArgument("The parameter 'min' and 'max' of the CommandLineValidator can not be used to validate objects of the type '%s'!", type.getName());
+		}
+	}
+
+	private static <T> ISchemaFactory<T> generatedSchemaFactory(final Class<T> type) {
+		try {
+			final Class<?> schemaFactoryType = Class.forName(Util.getSchemaFactoryName(type), true, type.getClassLoader());
+			if (ISchemaFactory.class.isAssignableFrom(schemaFactoryType)) {
+				return Util.uncheckedCast(schemaFactoryType.newInstance());
+			}
+		} catch (final Exception ignore) {
+			// no generated schema, fall back to reflection
+		}
+		return null;
+	}
+
+	/**
+	 * A class with an {@link Option}-annotated constructor is bound via that
+	 * constructor, its annotated fields are ignored.
+	 */
+	private static <T> OptionSchema<T> compile(final Class<T> type, final Locale locale) throws IllegalArgumentException {
+		final ConstructorBinding<T> constructorBinding = ConstructorBinding.of(type, locale);
+		final List<? extends OptionBinding<Object>> bindings;
+		final IInstanceFactory<T> instanceFactory;
+		if (constructorBinding == null) {
+			bindings = compileBindings(type, locale);
+			instanceFactory = new ConstructorInstanceFactory<T>(type);
+		} else {
+			bindings = Collections.<OptionBinding<Object>> emptyList();
+			instanceFactory = constructorBinding;
+		}
+		final EnableHelp enableHelp = type.getAnnotation(EnableHelp.class);
+		final ApplicationName applicationName = type.getAnnotation(ApplicationName.class);
+		final OptionSchema<T> schema = new OptionSchema<T>(type, locale, bindings, instanceFactory, //
+				enableHelp != null, (enableHelp != null) && enableHelp.showOnExeption(), //
+				(applicationName == null) ? null : applicationName.value(), (applicationName != null) && applicationName.fromJar());
+		schema.constructorBinding = constructorBinding;
+		return schema;
+	}
+
+	private static List<FieldBinding> compileBindings(final Class<?> type, final Locale locale) throws IllegalArgumentException {
+		final List<FieldBinding> result = new ArrayList<FieldBinding>();
+		for (final Field field : type.getDeclaredFields()) {
+			final Option option = field.getAnnotation(Option.class);
+			if (option != null) {
+				field.setAccessible(true);
+				final AbstractOption<Object> optionForField = optionForField(field, option);
+				final OneOf oneOf = field.getAnnotation(OneOf.class);
+				if (oneOf != null) {
+					addValueSetValidator(type, optionForField, oneOf.value(), locale);
+				}
+				final InInterval inInterval = field.getAnnotation(InInterval.class);
+				if (inInterval != null) {
+					addIntervalValidator(type, optionForField, inInterval.min(), inInterval.max(), locale);
+				}
+				result.add(FieldBinding.of(field, optionForField));
+			}
+		}
+		if (result.isEmpty()) {
+			throw Util.illegalArgument("The class '%s' does not have any CommandLineOption-annotated fields!", type);
+		}
+		return result;
+	}
+
+	private static AbstractOption<Object> optionForField(final Field field, final Option annotation) throws IllegalArgumentException {
+		String longForm = annotation.longForm();
+		if (Util.isEmpty(longForm)) {
+			longForm = field.getName();
+		}
+		return optionForField(Util.getValueType(field), annotation.shortForm(), longForm, annotation.description());
+	}
+
+	static AbstractOption<Object> optionForField(final Class<?> fieldType, final String shortForm, final String longForm, final String description) throws IllegalArgumentException {
+		final String optionTypeName = Util.getOptionTypeName(fieldType);
+		Class<? extends AbstractOption<Object>> optionClass = null;
+		try {
+			optionClass = Util.uncheckedCast(Class.forName(optionTypeName));
+		} catch (final Exception e) {
+			throw Util.illegalArgument("Could not find '%s' required to fill the CommandLineOption", optionTypeName);
+		}
+		try {
+			if (Util.isEmpty(shortForm)) {
+				final Constructor<? extends AbstractOption<Object>> optionConstructor = optionClass.getConstructor(String.class, String.class);
+				return optionConstructor.newInstance(longForm, description);
+			} else {
+				final Constructor<? extends AbstractOption<Object>> optionConstructor = optionClass.getConstructor(Character.TYPE, String.class, String.class);
+				return optionConstructor.newInstance(shortForm.charAt(0), longForm, description);
+			}
+		} catch (final Exception e) {
+			throw Util.illegalArgument("Could not find constructor '%s(char, String, String)' or '%s(String, String)'.", optionTypeName, optionTypeName);
+		}
+	}
+
+	private static final class ConstructorInstanceFactory<T> implements IInstanceFactory<T> {
+		private final Class<T> type;
+		private final Constructor<T> constructor;
+
+		public ConstructorInstanceFactory(final Class<T> type) {
+			this.type = type;
+			Constructor<T> defaultConstructor = null;
+			try {
+				defaultConstructor = type.getDeclaredConstructor();
+				defaultConstructor.setAccessible(true);
+			} catch (final Exception ignore) {
+			}
+			this.constructor = defaultConstructor;
+		}
+
+		@Override
+		public T newInstance() throws IllegalArgumentException {
+			if (constructor != null) {
+				try {
+					return constructor.newInstance();
+				} catch (final Exception ignore) {
+				}
+			}
+			throw Util.illegalArgument("The class '%s' does not offer a default constructor!", type);
+		}
+	}
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import de.fips.util.tinyargs.option.AbstractOption;
+
+/**
+ * Frozen lookup table for the options of a {@link CommandLineParser}. <br>
+ * <br>
+ * Every option gets an integer id (its position at the time the table was
+ * built). Short forms are looked up by character, long forms by a region of the
+ * command-line argument, so the parser never has to create a string just to
+ * find an option. <br>
+ * <br>
+ * Long forms are stored in a perfect hash table (hash and displace): the keys
+ * are distributed into buckets by one hash function, and each bucket gets a
+ * seed for a second hash function that places all of its keys into distinct
+ * slots. An exact lookup therefore hashes the region once and compares against
+ * exactly one key. The table is not minimal: it starts with one slot per key
+ * and doubles up to four slots per key until seeds are found for all buckets.
+ * If that fails, exact lookups use the binary search below instead.
+ * Additionally the long forms are kept in sorted order, which allows finding
+ * unambiguous prefixes (<code>--verb</code> for <code>--verbose</code>) by
+ * binary search.
+ * 
+ * @author Philipp Eichhorn
+ */
+final class OptionTable {
+	/** No option matches. */
+	public static final int NONE = -1;
+	/** More than one option matches the prefix. */
+	public static final int AMBIGUOUS = -2;
+
+	private static final int ASCII = 128;
+	private static final int MAX_SEED = 1 << 16;
+
+	private final AbstractOption<?>[] options;
+	private final Map<AbstractOption<?>, Integer> ids = new IdentityHashMap<AbstractOption<?>, Integer>();
+	private final int[] asciiShortForms = new int[ASCII];
+	private final Map<Character, Integer> otherShortForms = new HashMap<Character, Integer>();
+	private final String[] valueSourceKeys;
+	private final String[] sortedLongForms;
+	private final int[] sortedLongFormIds;
+	private int[] seeds;
+	private String[] slotLongForms;
+	private int[] slotIds;
+
+	public OptionTable(final List<AbstractOption<?>> optionList) {
+		options = optionList.toArray(new AbstractOption<?>[optionList.size()]);
+		valueSourceKeys = new String[options.length];
+		Arrays.fill(asciiShortForms, NONE);
+		final Map<String, Integer> longForms = new TreeMap<String, Integer>();
+		for (int id = 0; id < options.length; id++) {
+			final AbstractOption<?> option = options[id];
+			ids.put(option, id);
+			final String shortForm = option.getShortForm();
+			if (shortForm != null) {
+				final char c = shortForm.charAt(0);
+				if (c < ASCII) {
+					asciiShortForms[c] = id;
+				} else {
+					otherShortForms.put(c, id);
+				}
+			}
+			longForms.put(option.getLongForm(), id);
+			valueSourceKeys[id] = ValueSources.keyOf(option.getLongForm());
+		}
+		sortedLongForms = longForms.keySet().toArray(new String[longForms.size()]);
+		sortedLongFormIds = new int[sortedLongForms.length];
+		for (int i = 0; i < sortedLongForms.length; i++) {
+			sortedLongFormIds[i] = longForms.get(sortedLongForms[i]);
+		}
+		for (int slots = Math.max(1, sortedLongForms.length); (slots <= 4 * sortedLongForms.length) && (seeds == null); slots *= 2) {
+			buildPerfectHash(slots);
+		}
+	}
+
+	/**
+	 * @return The number of options in this table.
+	 */
+	public int size() {
+		return options.length;
+	}
+
+	/**
+	 * @return The option with the specified id.
+	 */
+	public AbstractOption<?> get(final int id) {
+		return options[id];
+	}
+
+	/**
+	 * @return The id of the specified option, or {@link #NONE} if the option is
+	 *         unknown.
+	 */
+	public int idOf(final AbstractOption<?> option) {
+		final Integer id = ids.get(option);
+		return (id == null) ? NONE : id;
+	}
+
+	/**
+	 * @return The {@link IValueSource} key of the option with the specified
+	 *         id.
+	 */
+	public String valueSourceKey(final int id) {
+		return valueSourceKeys[id];
+	}
+
+	/**
+	 * @return The id of the option with the specified short form, or
+	 *         {@link #NONE} if there is none.
+	 */
+	public int shortFormId(final char c) {
+		if (c < ASCII) {
+			return asciiShortForms[c];
+		}
+		final Integer id = otherShortForms.get(c);
+		return (id == null) ? NONE : id;
+	}
+
+	/**
+	 * @return The id of the option whose long form equals the region
+	 *         <code>[start, end)</code> of the specified argument, or
+	 *         {@link #NONE} if there is none.
+	 */
+	public int longFormId(final String arg, final int start, final int end) {
+		if (seeds == null) {
+			final int index = lowerBound(arg, start, end);
+			return (index < sortedLongForms.length) && (compare(sortedLongForms[index], arg, start, end) == 0) ? sortedLongFormIds[index] : NONE;
+		}
+		int h0 = 0;
+		int h1 = 0x811c9dc5;
+		for (int i = start; i < end; i++) {
+			final char c = arg.charAt(i);
+			h0 = 31 * h0 + c;
+			h1 = (h1 ^ c) * 0x01000193;
+		}
+		final int slot = slot(h1, seeds[bucket(h0, seeds.length)], slotLongForms.length);
+		final String key = slotLongForms[slot];
+		final int length = end - start;
+		if ((key != null) && (key.length() == length) && key.regionMatches(0, arg, start, length)) {
+			return slotIds[slot];
+		}
+		return NONE;
+	}
+
+	/**
+	 * @return The id of the only option whose long form starts with the region
+	 *         <code>[start, end)</code> of the specified argument,
+	 *         {@link #NONE} if there is none or the region is empty, or
+	 *         {@link #AMBIGUOUS} if there are several.
+	 */
+	public int longFormPrefixId(final String arg, final int start, final int end) {
+		if (start == end) {
+			return NONE;
+		}
+		final int index = lowerBound(arg, start, end);
+		if ((index >= sortedLongForms.length) || !isPrefix(arg, start, end, sortedLongForms[index])) {
+			return NONE;
+		}
+		if ((compare(sortedLongForms[index], arg, start, end) != 0) && (index + 1 < sortedLongForms.length) && isPrefix(arg, start, end, sortedLongForms[index + 1])) {
+			return AMBIGUOUS;
+		}
+		return sortedLongFormIds[index];
+	}
+
+	private void buildPerfectHash(final int slots) {
+		final int n = sortedLongForms.length;
+		final int bucketCount = Math.max(1, n / 2);
+		final List<List<Integer>> buckets = new ArrayList<List<Integer>>(bucketCount);
+		for (int b = 0; b < bucketCount; b++) {
+			buckets.add(new ArrayList<Integer>());
+		}
+		final int[] h1s = new int[n];
+		for (int i = 0; i < n; i++) {
+			final String key = sortedLongForms[i];
+			h1s[i] = fnv(key);
+			buckets.get(bucket(key.hashCode(), bucketCount)).add(i);
+		}
+		final Integer[] order = new Integer[bucketCount];
+		for (int b = 0; b < bucketCount; b++) {
+			order[b] = b;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(final Integer b1, final Integer b2) {
+				return buckets.get(b2).size() - buckets.get(b1).size();
+			}
+		});
+		final int[] bucketSeeds = new int[bucketCount];
+		final String[] keys = new String[slots];
+		final int[] keyIds = new int[slots];
+		final int[] candidates = new int[n];
+		for (final int b : order) {
+			final List<Integer> bucket = buckets.get(b);
+			if (bucket.isEmpty()) {
+				continue;
+			}
+			int seed = 0;
+			while (!fits(bucket, h1s, seed, keys, candidates)) {
+				if (++seed == MAX_SEED) {
+					return;
+				}
+			}
+			bucketSeeds[b] = seed;
+			for (int k = 0; k < bucket.size(); k++) {
+				keys[candidates[k]] = sortedLongForms[bucket.get(k)];
+				keyIds[candidates[k]] = sortedLongFormIds[bucket.get(k)];
+			}
+		}
+		seeds = bucketSeeds;
+		slotLongForms = keys;
+		slotIds = keyIds;
+	}
+
+	private static boolean fits(final List<Integer> bucket, final int[] h1s, final int seed, final String[] keys, final int[] candidates) {
+		for (int k = 0; k < bucket.size(); k++) {
+			final int slot = slot(h1s[bucket.get(k)], seed, keys.length);
+			if (keys[slot] != null) {
+				return false;
+			}
+			for (int j = 0; j < k; j++) {
+				if (candidates[j] == slot) {
+					return false;
+				}
+			}
+			candidates[k] = slot;
+		}
+		return true;
+	}
+
+	private static int bucket(final int h0, final int bucketCount) {
+		return (h0 & 0x7fffffff) % bucketCount;
+	}
+
+	private static int slot(final int h1, final int seed, final int slots) {
+		int h = h1 ^ (seed * 0x9e3779b9);
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return (h & 0x7fffffff) % slots;
+	}
+
+	/**
+	 * FNV-1a, computed alongside {@link String#hashCode()} during lookups.
+	 */
+	private static int fnv(final String s) {
+		int h = 0x811c9dc5;
+		for (int i = 0; i < s.length(); i++) {
+			h = (h ^ s.charAt(i)) * 0x01000193;
+		}
+		return h;
+	}
+
+	/**
+	 * @return The index of the first sorted long form that is not smaller
+	 *         than the region <code>[start, end)</code>.
+	 */
+	private int lowerBound(final String arg, final int start, final int end) {
+		int low = 0;
+		int high = sortedLongForms.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (compare(sortedLongForms[mid], arg, start, end) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Same as {@link String#compareTo(String)} with the region
+	 * <code>[start, end)</code> as second string.
+	 */
+	private static int compare(final String key, final String arg, final int start, final int end) {
+		final int length = Math.min(key.length(), end - start);
+		for (int i = 0; i < length; i++) {
+			final int diff = key.charAt(i) - arg.charAt(start + i);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return key.length() - (end - start);
+	}
+
+	private static boolean isPrefix(final String arg, final int start, final int end, final String key) {
+		return (key.length() >= end - start) && key.regionMatches(0, arg, start, end - start);
+	}
+}
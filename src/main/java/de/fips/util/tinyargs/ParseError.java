@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import de.fips.util.tinyargs.exception.ArgFileException;
+import de.fips.util.tinyargs.exception.IllegalOptionValueException;
+import de.fips.util.tinyargs.exception.NotFlagException;
+import de.fips.util.tinyargs.exception.OptionException;
+import de.fips.util.tinyargs.exception.UnknownOptionException;
+import de.fips.util.tinyargs.exception.UnknownSuboptionException;
+import de.fips.util.tinyargs.option.AbstractOption;
+
+/**
+ * A problem found by {@link CommandLineParser#tryParse(String[], java.util.Locale)}.
+ * Unlike an {@link OptionException} it captures no stack trace, and its
+ * message is only formatted when asked for.
+ * 
+ * @author Philipp Eichhorn
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ParseError {
+	/** The kind of problem, each matches an {@link OptionException}. */
+	public enum Code {
+		/** see {@link UnknownOptionException} */
+		UNKNOWN_OPTION,
+		/** an abbreviated long form that matches several options */
+		AMBIGUOUS_OPTION,
+		/** see {@link UnknownSuboptionException} */
+		UNKNOWN_SUBOPTION,
+		/** see {@link NotFlagException} */
+		NOT_FLAG,
+		/** see {@link IllegalOptionValueException} */
+		ILLEGAL_VALUE,
+		/** see {@link ArgFileException} */
+		ARG_FILE
+	}
+
+	private final Code code;
+	/**
+	 * the index of the offending token, -1 for values of an
+	 * {@link IValueSource}. The index of an argument file that can not be
+	 * expanded is the one its first argument would have had.
+	 */
+	private final int tokenIndex;
+	/** the option name, the cluster of short options, the illegal value or the <code>@file</code> */
+	private final String token;
+	/** the option of an illegal value, else <code>null</code> */
+	private final AbstractOption<?> option;
+	/** the offending character of a cluster of short options */
+	private final char optionChar;
+	@Getter(AccessLevel.NONE)
+	private final OptionException cause;
+
+	static ParseError unknownOption(final int tokenIndex, final String optionName) {
+		return new ParseError(Code.UNKNOWN_OPTION, tokenIndex, optionName, null, '\0', null);
+	}
+
+	static ParseError ambiguousOption(final int tokenIndex, final String optionName) {
+		return new ParseError(Code.AMBIGUOUS_OPTION, tokenIndex, optionName, null, '\0', null);
+	}
+
+	static ParseError unknownSuboption(final int tokenIndex, final String cluster, final char suboption) {
+		return new ParseError(Code.UNKNOWN_SUBOPTION, tokenIndex, cluster, null, suboption, null);
+	}
+
+	static ParseError notFlag(final int tokenIndex, final String cluster, final char optionChar) {
+		return new ParseError(Code.NOT_FLAG, tokenIndex, cluster, null, optionChar, null);
+	}
+
+	static ParseError illegalValue(final int tokenIndex, final AbstractOption<?> option, final String value) {
+		return new ParseError(Code.ILLEGAL_VALUE, tokenIndex, value, option, '\0', null);
+	}
+
+	static ParseError argFile(final int tokenIndex, final ArgFileException cause) {
+		return new ParseError(Code.ARG_FILE, tokenIndex, "@" + cause.getFileName(), null, '\0', cause);
+	}
+
+	/**
+	 * @return The same message the matching {@link OptionException} has.
+	 */
+	public String getMessage() {
+		switch (code) {
+		case UNKNOWN_OPTION:
+			return String.format("Unknown option '%s'", token);
+		case AMBIGUOUS_OPTION:
+			return String.format("Ambiguous option '%s'", token);
+		case UNKNOWN_SUBOPTION:
+			return String.format("Illegal option '%s' in '%s'", optionChar, token);
+		case NOT_FLAG:
+			return String.format("Illegal option: '%s', '%s' requires a value", token, optionChar);
+		case ILLEGAL_VALUE:
+			return String.format("Illegal value '%s' for option %s--%s", token, option.getShortForm() != null ? "-" + option.getShortForm() + "/" : "", option.getLongForm());
+		default:
+			return cause.getMessage();
+		}
+	}
+
+	/**
+	 * @return The exception {@link CommandLineParser#parse(String[], java.util.Locale)}
+	 *         throws for this problem.
+	 */
+	public OptionException toException() {
+		switch (code) {
+		case ILLEGAL_VALUE:
+			return new IllegalOptionValueException(option, token);
+		case ARG_FILE:
+			return cause;
+		default:
+			return toUnknownOptionException();
+		}
+	}
+
+	/**
+	 * @return The exception for one of the codes of an unknown or misused
+	 *         option.
+	 * @throws IllegalStateException
+	 *             For any other code.
+	 */
+	UnknownOptionException toUnknownOptionException() throws IllegalStateException {
+		switch (code) {
+		case UNKNOWN_OPTION:
+			return new UnknownOptionException(token);
+		case AMBIGUOUS_OPTION:
+			return new UnknownOptionException(token, getMessage());
+		case UNKNOWN_SUBOPTION:
+			return new UnknownSuboptionException(token, optionChar);
+		case NOT_FLAG:
+			return new NotFlagException(token, optionChar);
+		default:
+			throw new IllegalStateException("No unknown option: " + code);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return code + "@" + tokenIndex + ": " + getMessage();
+	}
+}
@@ -0,0 +1,510 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.RandomAccess;
+
+import de.fips.util.tinyargs.exception.IllegalOptionValueException;
+import de.fips.util.tinyargs.listener.IParseListener;
+import de.fips.util.tinyargs.option.AbstractOption;
+import de.fips.util.tinyargs.option.PrimitiveOption;
+
+/**
+ * The result of a single {@link CommandLineParser#parse(String[], java.util.Locale)
+ * parse} call: the parsed option values and the arguments no option was
+ * specified for. <br>
+ * <br>
+ * A result is immutable once it is returned by the parser and does not share
+ * any mutable state with the parser or other results, so it can be handed to
+ * other threads freely. Values are kept in flat arrays, indexed by the integer
+ * id of their option. The values of a {@link PrimitiveOption} are kept as raw
+ * bits in a <code>long[]</code> and can be read without boxing, see
+ * {@link #getInt(AbstractOption, int)} and its siblings. <br>
+ * <br>
+ * The values of a {@link CommandLineParser#setLazyConversion(boolean) lazy}
+ * parse are converted and validated on first access and then remembered. A
+ * value that fails then makes the getter throw an
+ * {@link IllegalArgumentException}; use {@link #validateAll()} to get these
+ * failures up front.
+ * 
+ * @author Philipp Eichhorn
+ */
+public final class ParseResult {
+	private final OptionTable table;
+	private final int[] firstValues;
+	private int[] valueIds;
+	private Object[] values;
+	private long[] bits;
+	/** the not yet converted arguments of a lazy parse, <code>null</code> once converted */
+	private String[] pendingArgs;
+	private int valueCount;
+	/** the value indices grouped by option, in command-line order, built on demand */
+	private volatile int[] groupedValues;
+	/** per option id the start of its group in {@link #groupedValues}, plus the end */
+	private int[] groupStarts;
+	private List<String> remainingArgs = Collections.emptyList();
+	private List<ParseError> errors = Collections.emptyList();
+	private final Locale locale;
+	private final IParseListener listener;
+
+	ParseResult(final OptionTable table, final int expectedValueCount) {
+		this(table, expectedValueCount, null, null);
+	}
+
+	/**
+	 * @param locale
+	 *            The locale used to convert pending values.
+	 * @param listener
+	 *            Notified about the conversion of pending values, may be
+	 *            <code>null</code>.
+	 */
+	ParseResult(final OptionTable table, final int expectedValueCount, final Locale locale, final IParseListener listener) {
+		this.table = table;
+		this.locale = locale;
+		this.listener = listener;
+		firstValues = new int[table.size()];
+		Arrays.fill(firstValues, -1);
+		valueIds = new int[expectedValueCount];
+	}
+
+	/**
+	 * Equivalent to {@link #getOptionValue(AbstractOption, Object)
+	 * getOptionValue(option, null)}.
+	 */
+	public <E> E getOptionValue(final AbstractOption<E> option) {
+		return getOptionValue(option, null);
+	}
+
+	/**
+	 * @param option
+	 *            The specified Option.
+	 * @param def
+	 *            The default value.
+	 * @param <E>
+	 *            Type of options value.
+	 * @return The parsed value of the specified Option, or a default value if
+	 *         the option was not set.
+	 */
+	public <E> E getOptionValue(final AbstractOption<E> option, final E def) {
+		final int index = firstValue(option);
+		if (index < 0) {
+			return def;
+		} else {
+			return valueAt(option, index);
+		}
+	}
+
+	/**
+	 * Same as {@link #getOptionValue(AbstractOption, Object)}, without boxing
+	 * for a {@link PrimitiveOption}.
+	 */
+	public int getInt(final AbstractOption<Integer> option, final int def) {
+		final int index = firstValue(option);
+		if (index < 0) {
+			return def;
+		}
+		return intAt(option, index);
+	}
+
+	/**
+	 * Same as {@link #getOptionValue(AbstractOption, Object)}, without boxing
+	 * for a {@link PrimitiveOption}.
+	 */
+	public long getLong(final AbstractOption<Long> option, final long def) {
+		final int index = firstValue(option);
+		if (index < 0) {
+			return def;
+		}
+		return longAt(option, index);
+	}
+
+	/**
+	 * Same as {@link #getOptionValue(AbstractOption, Object)}, without boxing
+	 * for a {@link PrimitiveOption}.
+	 */
+	public double getDouble(final AbstractOption<Double> option, final double def) {
+		final int index = firstValue(option);
+		if (index < 0) {
+			return def;
+		}
+		return doubleAt(option, index);
+	}
+
+	/**
+	 * Same as {@link #getOptionValue(AbstractOption, Object)}, without boxing
+	 * for a {@link PrimitiveOption}.
+	 */
+	public float getFloat(final AbstractOption<Float> option, final float def) {
+		final int index = firstValue(option);
+		if (index < 0) {
+			return def;
+		}
+		ensureConverted(index);
+		return (option instanceof PrimitiveOption) ? Float.intBitsToFloat((int) bits[index]) : ((Float) values[index]).floatValue();
+	}
+
+	/**
+	 * Same as {@link #getOptionValue(AbstractOption, Object)}, without boxing
+	 * for a {@link PrimitiveOption}.
+	 */
+	public boolean getBoolean(final AbstractOption<Boolean> option, final boolean def) {
+		final int index = firstValue(option);
+		if (index < 0) {
+			return def;
+		}
+		ensureConverted(index);
+		return (option instanceof PrimitiveOption) ? (bits[index] != 0) : ((Boolean) values[index]).booleanValue();
+	}
+
+	/**
+	 * @param option
+	 *            The specified Option.
+	 * @param <E>
+	 *            Type of options value.
+	 * @return A read-only view of the parsed values of all the occurrences of
+	 *         the given Option, or an empty List if the option was not set. The
+	 *         view does not copy the values and supports fast random access.
+	 */
+	public <E> List<E> getOptionValues(final AbstractOption<E> option) {
+		final int id = table.idOf(option);
+		if ((id < 0) || (firstValues[id] < 0)) {
+			return Collections.emptyList();
+		}
+		final int[] grouped = getGroupedValues();
+		return new ValueList<E>(option, grouped, groupStarts[id], groupStarts[id + 1]);
+	}
+
+	/**
+	 * Same as {@link #getOptionValues(AbstractOption)}, but copies the values
+	 * into a new array of exactly their number, without boxing for a
+	 * {@link PrimitiveOption}.
+	 * 
+	 * @return The values of all the occurrences of the given Option, or an
+	 *         empty array if the option was not set.
+	 */
+	public int[] getInts(final AbstractOption<Integer> option) {
+		final int id = table.idOf(option);
+		if ((id < 0) || (firstValues[id] < 0)) {
+			return new int[0];
+		}
+		final int[] grouped = getGroupedValues();
+		final int start = groupStarts[id];
+		final int[] array = new int[groupStarts[id + 1] - start];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = intAt(option, grouped[start + i]);
+		}
+		return array;
+	}
+
+	/**
+	 * @see #getInts(AbstractOption)
+	 */
+	public long[] getLongs(final AbstractOption<Long> option) {
+		final int id = table.idOf(option);
+		if ((id < 0) || (firstValues[id] < 0)) {
+			return new long[0];
+		}
+		final int[] grouped = getGroupedValues();
+		final int start = groupStarts[id];
+		final long[] array = new long[groupStarts[id + 1] - start];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = longAt(option, grouped[start + i]);
+		}
+		return array;
+	}
+
+	/**
+	 * @see #getInts(AbstractOption)
+	 */
+	public double[] getDoubles(final AbstractOption<Double> option) {
+		final int id = table.idOf(option);
+		if ((id < 0) || (firstValues[id] < 0)) {
+			return new double[0];
+		}
+		final int[] grouped = getGroupedValues();
+		final int start = groupStarts[id];
+		final double[] array = new double[groupStarts[id + 1] - start];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = doubleAt(option, grouped[start + i]);
+		}
+		return array;
+	}
+
+	/**
+	 * @param option
+	 *            The specified Option.
+	 * @param <E>
+	 *            Type of options value.
+	 * @return Status flag which indicates whether there are values for a given
+	 *         options or not.
+	 */
+	public <E> boolean hasValues(final AbstractOption<E> option) {
+		return firstValue(option) >= 0;
+	}
+
+	/**
+	 * Converts and validates all values that were left unconverted by a
+	 * {@link CommandLineParser#setLazyConversion(boolean) lazy} parse. Does
+	 * nothing for an eager parse.
+	 * 
+	 * @throws IllegalOptionValueException
+	 *             For the first value that could not be converted or
+	 *             validated.
+	 */
+	public void validateAll() throws IllegalOptionValueException {
+		if (pendingArgs != null) {
+			for (int i = 0; i < valueCount; i++) {
+				convert(i);
+			}
+		}
+	}
+
+	/**
+	 * @return The arguments no option was specified for.
+	 */
+	public List<String> getRemainingArgs() {
+		return remainingArgs;
+	}
+
+	/**
+	 * @return The problems found by
+	 *         {@link CommandLineParser#tryParse(String[], Locale)}, in the
+	 *         order of the command-line. Always empty for the results of
+	 *         the throwing <code>parse</code> methods.
+	 */
+	public List<ParseError> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @return Whether {@link #getErrors()} is not empty.
+	 */
+	public boolean hasErrors() {
+		return !errors.isEmpty();
+	}
+
+	boolean hasValues(final int id) {
+		return firstValues[id] >= 0;
+	}
+
+	void addValue(final int id, final Object value) {
+		final int index = append(id);
+		if (values == null) {
+			values = new Object[valueIds.length];
+		}
+		values[index] = value;
+	}
+
+	/**
+	 * Adds a value that is converted on first access.
+	 */
+	void addPending(final int id, final AbstractOption<?> option, final String arg) {
+		final int index = append(id);
+		if (option instanceof PrimitiveOption) {
+			if (bits == null) {
+				bits = new long[valueIds.length];
+			}
+		} else if (values == null) {
+			values = new Object[valueIds.length];
+		}
+		if (pendingArgs == null) {
+			pendingArgs = new String[valueIds.length];
+		}
+		pendingArgs[index] = arg;
+	}
+
+	void addBits(final int id, final long value) {
+		final int index = append(id);
+		if (bits == null) {
+			bits = new long[valueIds.length];
+		}
+		bits[index] = value;
+	}
+
+	private int append(final int id) {
+		if (valueCount == valueIds.length) {
+			final int capacity = Math.max(4, valueCount * 2);
+			valueIds = Arrays.copyOf(valueIds, capacity);
+			if (values != null) {
+				values = Arrays.copyOf(values, capacity);
+			}
+			if (bits != null) {
+				bits = Arrays.copyOf(bits, capacity);
+			}
+			if (pendingArgs != null) {
+				pendingArgs = Arrays.copyOf(pendingArgs, capacity);
+			}
+		}
+		if (firstValues[id] < 0) {
+			firstValues[id] = valueCount;
+		}
+		valueIds[valueCount] = id;
+		return valueCount++;
+	}
+
+	void addError(final ParseError error) {
+		if (errors.isEmpty()) {
+			errors = new ArrayList<ParseError>();
+		}
+		errors.add(error);
+	}
+
+	void addRemainingArg(final String arg) {
+		if (remainingArgs.isEmpty()) {
+			remainingArgs = new ArrayList<String>();
+		}
+		remainingArgs.add(arg);
+	}
+
+	void freeze() {
+		if (!remainingArgs.isEmpty()) {
+			remainingArgs = Collections.unmodifiableList(remainingArgs);
+		}
+		if (!errors.isEmpty()) {
+			errors = Collections.unmodifiableList(errors);
+		}
+	}
+
+	private <E> E valueAt(final AbstractOption<E> option, final int index) {
+		ensureConverted(index);
+		if (option instanceof PrimitiveOption) {
+			final PrimitiveOption<E> primitiveOption = Util.uncheckedCast(option);
+			return primitiveOption.box(bits[index]);
+		}
+		return Util.<E> uncheckedCast(values[index]);
+	}
+
+	private int intAt(final AbstractOption<Integer> option, final int index) {
+		ensureConverted(index);
+		return (option instanceof PrimitiveOption) ? (int) bits[index] : ((Integer) values[index]).intValue();
+	}
+
+	private long longAt(final AbstractOption<Long> option, final int index) {
+		ensureConverted(index);
+		return (option instanceof PrimitiveOption) ? bits[index] : ((Long) values[index]).longValue();
+	}
+
+	private double doubleAt(final AbstractOption<Double> option, final int index) {
+		ensureConverted(index);
+		return (option instanceof PrimitiveOption) ? Double.longBitsToDouble(bits[index]) : ((Double) values[index]).doubleValue();
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             If the pending value at the specified index could not be
+	 *             converted, caused by the {@link IllegalOptionValueException}.
+	 */
+	private void ensureConverted(final int index) throws IllegalArgumentException {
+		if (pendingArgs != null) {
+			try {
+				convert(index);
+			} catch (final IllegalOptionValueException e) {
+				throw new IllegalArgumentException(e.getMessage(), e);
+			}
+		}
+	}
+
+	private synchronized void convert(final int index) throws IllegalOptionValueException {
+		final String arg = pendingArgs[index];
+		if (arg != null) {
+			final AbstractOption<?> option = table.get(valueIds[index]);
+			if (option instanceof PrimitiveOption) {
+				bits[index] = ((PrimitiveOption<?>) option).getBits(arg, locale, listener);
+			} else {
+				values[index] = option.getValue(arg, locale, listener);
+			}
+			pendingArgs[index] = null;
+		}
+	}
+
+	/**
+	 * Groups the value indices by option with a counting sort, in two passes
+	 * over all values.
+	 */
+	private int[] getGroupedValues() {
+		int[] grouped = groupedValues;
+		if (grouped == null) {
+			synchronized (this) {
+				grouped = groupedValues;
+				if (grouped == null) {
+					final int[] starts = new int[firstValues.length + 1];
+					for (int i = 0; i < valueCount; i++) {
+						starts[valueIds[i] + 1]++;
+					}
+					for (int id = 0; id < firstValues.length; id++) {
+						starts[id + 1] += starts[id];
+					}
+					final int[] ends = Arrays.copyOf(starts, firstValues.length);
+					grouped = new int[valueCount];
+					for (int i = 0; i < valueCount; i++) {
+						grouped[ends[valueIds[i]]++] = i;
+					}
+					groupStarts = starts;
+					groupedValues = grouped;
+				}
+			}
+		}
+		return grouped;
+	}
+
+	private int firstValue(final AbstractOption<?> option) {
+		final int id = table.idOf(option);
+		return (id < 0) ? -1 : firstValues[id];
+	}
+
+	/**
+	 * Read-only view of the values of one option, a range of the grouped value
+	 * indices.
+	 */
+	private final class ValueList<E> extends AbstractList<E> implements RandomAccess {
+		private final AbstractOption<E> option;
+		private final int[] grouped;
+		private final int start;
+		private final int end;
+
+		private ValueList(final AbstractOption<E> option, final int[] grouped, final int start, final int end) {
+			this.option = option;
+			this.grouped = grouped;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public E get(final int index) {
+			if ((index < 0) || (index >= size())) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+			}
+			return valueAt(option, grouped[start + index]);
+		}
+
+		@Override
+		public int size() {
+			return end - start;
+		}
+	}
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+import de.fips.util.tinyargs.annotation.ApplicationName;
+import de.fips.util.tinyargs.annotation.EnableHelp;
+import de.fips.util.tinyargs.annotation.InInterval;
+import de.fips.util.tinyargs.annotation.OneOf;
+import de.fips.util.tinyargs.annotation.Option;
+import de.fips.util.tinyargs.option.AbstractOption;
+
+/**
+ * Binary snapshot of an {@link OptionSchema}, written at build time and
+ * loaded instead of reflecting over the annotations at runtime. <br>
+ * <br>
+ * The snapshot of the class <code>com.acme.Tool</code> is stored as the
+ * resource <code>com/acme/Tool.tinyargs</code>, next to the class file, and
+ * picked up by {@link OptionSchema#of(Class, Locale)}. It holds the options
+ * with their forms, descriptions, {@link OneOf} values and {@link InInterval}
+ * bounds, the help settings and the rendered usage-message. <br>
+ * <br>
+ * A snapshot is only used if its format and the tinyargs version match, and
+ * if the CRC-32 of the class file is still the one it was written for.
+ * Otherwise the schema is compiled via reflection as usual.
+ * 
+ * <pre>
+ * usage: java de.fips.util.tinyargs.SchemaSnapshot classesDir className...
+ * </pre>
+ * 
+ * @author Philipp Eichhorn
+ */
+public final class SchemaSnapshot {
+	/** the file extension of snapshot resources */
+	public static final String EXTENSION = ".tinyargs";
+	private static final int MAGIC = 0x54415353;
+	private static final int FORMAT_VERSION = 1;
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private SchemaSnapshot() {
+	}
+
+	/**
+	 * Writes the snapshots of the specified classes into the specified
+	 * classes directory, next to their class files.
+	 */
+	public static void main(final String[] args) throws IOException, ClassNotFoundException {
+		if (args.length < 2) {
+			System.err.println("usage: SchemaSnapshot classesDir className...");
+			System.exit(2);
+		}
+		for (int i = 1; i < args.length; i++) {
+			final Class<?> type = Class.forName(args[i]);
+			final File file = new File(args[0], resourceName(type));
+			final OutputStream out = new FileOutputStream(file);
+			try {
+				write(type, out);
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+	/**
+	 * Writes the snapshot of the specified command-line application class.
+	 * 
+	 * @throws IOException
+	 *             If the stream or the class file can not be read.
+	 * @throws IllegalArgumentException
+	 *             If the type is no valid command-line application class, or
+	 *             is bound via its constructor.
+	 */
+	public static void write(final Class<?> type, final OutputStream stream) throws IOException, IllegalArgumentException {
+		final OptionSchema<?> schema = OptionSchema.of(type, Locale.ROOT);
+		if (schema.getConstructorBinding() != null) {
+			throw Util.illegalArgument("The class '%s' is bound via its constructor, only annotated fields can be stored in a snapshot!", type.getName());
+		}
+		final DataOutputStream out = new DataOutputStream(stream);
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT_VERSION);
+		out.writeUTF(Version.getVersion());
+		out.writeUTF(type.getName());
+		out.writeLong(classChecksum(type));
+		final EnableHelp enableHelp = type.getAnnotation(EnableHelp.class);
+		final ApplicationName applicationName = type.getAnnotation(ApplicationName.class);
+		out.writeBoolean(enableHelp != null);
+		out.writeBoolean((enableHelp != null) && enableHelp.showOnExeption());
+		writeNullable(out, (applicationName == null) ? null : applicationName.value());
+		out.writeBoolean((applicationName != null) && applicationName.fromJar());
+		final List<Field> fields = new ArrayList<Field>();
+		for (final Field field : type.getDeclaredFields()) {
+			if (field.isAnnotationPresent(Option.class)) {
+				fields.add(field);
+			}
+		}
+		out.writeInt(fields.size());
+		for (final Field field : fields) {
+			final Option option = field.getAnnotation(Option.class);
+			out.writeUTF(field.getName());
+			writeNullable(out, Util.isEmpty(option.shortForm()) ? null : option.shortForm());
+			out.writeUTF(Util.isEmpty(option.longForm()) ? field.getName() : option.longForm());
+			out.writeUTF(option.description());
+			final OneOf oneOf = field.getAnnotation(OneOf.class);
+			final String[] values = (oneOf == null) ? new String[0] : oneOf.value();
+			out.writeInt(values.length);
+			for (final String value : values) {
+				out.writeUTF(value);
+			}
+			final InInterval inInterval = field.getAnnotation(InInterval.class);
+			writeNullable(out, (inInterval == null) ? null : inInterval.min());
+			writeNullable(out, (inInterval == null) ? null : inInterval.max());
+		}
+		out.writeUTF(System.getProperty("line.separator"));
+		if ((applicationName != null) && applicationName.fromJar()) {
+			out.writeInt(-1);
+		} else {
+			final CommandLineParser parser = schema.newParser();
+			if (schema.isHelpEnabled()) {
+				parser.addHelpOption();
+			}
+			final byte[] usageMessage = parser.getUsage().bytes(0, UTF_8);
+			out.writeInt(usageMessage.length);
+			out.write(usageMessage);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Reads a snapshot of the specified class.
+	 * 
+	 * @return The schema, or <code>null</code> if the snapshot is outdated.
+	 * @throws IOException
+	 *             If the stream can not be read.
+	 * @throws IllegalArgumentException
+	 *             If the snapshot does not match the class.
+	 */
+	public static <T> OptionSchema<T> read(final Class<T> type, final Locale locale, final InputStream stream) throws IOException, IllegalArgumentException {
+		final DataInputStream in = new DataInputStream(stream);
+		if ((in.readInt() != MAGIC) || (in.readInt() != FORMAT_VERSION) || !Version.getVersion().equals(in.readUTF())) {
+			return null;
+		}
+		if (!type.getName().equals(in.readUTF()) || (in.readLong() != classChecksum(type))) {
+			return null;
+		}
+		final boolean helpEnabled = in.readBoolean();
+		final boolean showUsageOnExeption = in.readBoolean();
+		final String applicationName = readNullable(in);
+		final boolean applicationNameFromJar = in.readBoolean();
+		final int fieldCount = in.readInt();
+		final List<FieldBinding> bindings = new ArrayList<FieldBinding>(fieldCount);
+		for (int i = 0; i < fieldCount; i++) {
+			final Field field = declaredField(type, in.readUTF());
+			final AbstractOption<Object> option = OptionSchema.optionForField(Util.getValueType(field), readNullable(in), in.readUTF(), in.readUTF());
+			final String[] values = new String[in.readInt()];
+			for (int j = 0; j < values.length; j++) {
+				values[j] = in.readUTF();
+			}
+			OptionSchema.addValueSetValidator(type, option, values, locale);
+			final String min = readNullable(in);
+			final String max = readNullable(in);
+			if ((min != null) && (max != null)) {
+				OptionSchema.addIntervalValidator(type, option, min, max, locale);
+			}
+			bindings.add(FieldBinding.of(field, option));
+		}
+		final boolean sameLineSeparator = System.getProperty("line.separator").equals(in.readUTF());
+		final int usageLength = in.readInt();
+		String usageMessage = null;
+		if (usageLength >= 0) {
+			final byte[] bytes = new byte[usageLength];
+			in.readFully(bytes);
+			usageMessage = new String(bytes, UTF_8);
+		}
+		return OptionSchema.fromSnapshot(type, locale, bindings, helpEnabled, showUsageOnExeption, applicationName, applicationNameFromJar,
+				sameLineSeparator ? usageMessage : null);
+	}
+
+	/**
+	 * @return The schema from the snapshot resource of the specified class,
+	 *         or <code>null</code> if there is no usable one.
+	 */
+	static <T> OptionSchema<T> load(final Class<T> type, final Locale locale) {
+		final ClassLoader classLoader = type.getClassLoader();
+		final InputStream in = (classLoader == null) ? null : classLoader.getResourceAsStream(resourceName(type));
+		if (in == null) {
+			return null;
+		}
+		try {
+			try {
+				return read(type, locale, in);
+			} finally {
+				in.close();
+			}
+		} catch (final Exception ignore) {
+			// unusable snapshot, fall back to reflection
+			return null;
+		}
+	}
+
+	private static String resourceName(final Class<?> type) {
+		return type.getName().replace('.', '/') + EXTENSION;
+	}
+
+	private static Field declaredField(final Class<?> type, final String name) throws IllegalArgumentException {
+		try {
+			final Field field = type.getDeclaredField(name);
+			field.setAccessible(true);
+			return field;
+		} catch (final NoSuchFieldException e) {
+			throw Util.illegalArgument("The class '%s' has no field '%s'", type.getName(), name);
+		}
+	}
+
+	/**
+	 * @return The CRC-32 of the class file of the specified class.
+	 */
+	private static long classChecksum(final Class<?> type) throws IOException {
+		final ClassLoader classLoader = type.getClassLoader();
+		final String classFile = type.getName().replace('.', '/') + ".class";
+		final InputStream in = (classLoader == null) ? ClassLoader.getSystemResourceAsStream(classFile) : classLoader.getResourceAsStream(classFile);
+		if (in == null) {
+			throw new IOException(String.format("Could not find the class file of '%s'", type.getName()));
+		}
+		try {
+			final CRC32 crc = new CRC32();
+			final byte[] buffer = new byte[4096];
+			for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+				crc.update(buffer, 0, n);
+			}
+			return crc.getValue();
+		} finally {
+			in.close();
+		}
+	}
+
+	private static void writeNullable(final DataOutputStream out, final String s) throws IOException {
+		out.writeBoolean(s != null);
+		if (s != null) {
+			out.writeUTF(s);
+		}
+	}
+
+	private static String readNullable(final DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+}
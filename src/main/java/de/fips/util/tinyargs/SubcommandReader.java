@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import de.fips.util.tinyargs.exception.ArgFileException;
+import de.fips.util.tinyargs.exception.IllegalOptionValueException;
+import de.fips.util.tinyargs.exception.UnknownOptionException;
+
+/**
+ * Reads git-style command-lines: global options, followed by the name of a
+ * subcommand and its own options.
+ * 
+ * <pre>
+ * Example:
+ * 
+ * SubcommandReader&lt;Tool&gt; reader = SubcommandReader.of(Tool.class) //
+ *     .addSubcommand(&quot;deploy&quot;, &quot;com.acme.tool.Deploy&quot;) //
+ *     .addSubcommand(&quot;gc&quot;, &quot;com.acme.tool.Gc&quot;);
+ * SubcommandResult&lt;Tool&gt; result = reader.read(args);
+ * if (result.getCommand() instanceof Deploy) {
+ *   ...
+ * }
+ * </pre>
+ * 
+ * The global options end at the first non-option argument, which selects the
+ * subcommand. Only the class of the selected subcommand is loaded and its
+ * {@link OptionSchema} compiled, so the startup cost does not grow with the
+ * number of subcommands.
+ * 
+ * @author Philipp Eichhorn
+ */
+public final class SubcommandReader<E> {
+	private final CommandLineReader<E> globalReader;
+	private final Locale locale;
+	private final ClassLoader classLoader;
+	private final Map<String, String> subcommandClassNames = new LinkedHashMap<String, String>();
+	private PrintStream printStream;
+
+	private SubcommandReader(final CommandLineReader<E> globalReader, final Class<E> globalType, final Locale locale) {
+		this.globalReader = globalReader;
+		this.locale = locale;
+		final ClassLoader globalClassLoader = globalType.getClassLoader();
+		this.classLoader = (globalClassLoader == null) ? Thread.currentThread().getContextClassLoader() : globalClassLoader;
+		globalReader.setStopAtFirstNonOption(true);
+		printStream = globalReader.getPrintStream();
+	}
+
+	/**
+	 * Registers a subcommand by the name of its command-line application
+	 * class. The class is neither loaded nor compiled before the subcommand is
+	 * selected.
+	 */
+	public SubcommandReader<E> addSubcommand(final String name, final String className) {
+		subcommandClassNames.put(name, className);
+		return this;
+	}
+
+	/**
+	 * Registers a subcommand by its command-line application class. Its
+	 * {@link OptionSchema} is not compiled before the subcommand is selected.
+	 */
+	public SubcommandReader<E> addSubcommand(final String name, final Class<?> type) {
+		return addSubcommand(name, type.getName());
+	}
+
+	/**
+	 * @return The names of all registered subcommands, in registration order.
+	 */
+	public Set<String> getSubcommandNames() {
+		return Collections.unmodifiableSet(subcommandClassNames.keySet());
+	}
+
+	/**
+	 * Sets the {@link PrintStream} used for the usage of the global and the
+	 * subcommand options.
+	 */
+	public void setPrintStream(final PrintStream out) {
+		printStream = out;
+		globalReader.setPrintStream(out);
+	}
+
+	/**
+	 * Reads the global options and the options of the selected subcommand.
+	 * 
+	 * @return The global options and the selected subcommand, which is
+	 *         <code>null</code> if the command-line does not name one.
+	 * @throws IllegalOptionValueException
+	 * @throws UnknownOptionException
+	 *             Also if the named subcommand is not registered.
+	 * @throws ArgFileException
+	 * @throws IllegalArgumentException
+	 *             If the class of the selected subcommand can not be loaded or
+	 *             is no valid command-line application class.
+	 */
+	public SubcommandResult<E> read(final String[] args) throws IllegalOptionValueException, UnknownOptionException, ArgFileException, IllegalArgumentException {
+		final E globalOptions = globalReader.read(args);
+		final List<String> remainingArgs = globalReader.getRemainingArgs();
+		if (remainingArgs.isEmpty()) {
+			return new SubcommandResult<E>(globalOptions, null, null, remainingArgs);
+		}
+		final String name = remainingArgs.get(0);
+		final String className = subcommandClassNames.get(name);
+		if (className == null) {
+			throw new UnknownOptionException(name, String.format("Unknown subcommand '%s'", name));
+		}
+		final CommandLineReader<Object> subcommandReader = CommandLineReader.of(OptionSchema.of(loadClass(className), locale));
+		subcommandReader.setPrintStream(printStream);
+		final List<String> subcommandArgs = remainingArgs.subList(1, remainingArgs.size());
+		final Object command = subcommandReader.read(subcommandArgs.toArray(new String[subcommandArgs.size()]));
+		return new SubcommandResult<E>(globalOptions, name, command, new ArrayList<String>(subcommandReader.getRemainingArgs()));
+	}
+
+	private Class<Object> loadClass(final String className) throws IllegalArgumentException {
+		try {
+			return Util.uncheckedCast(Class.forName(className, true, classLoader));
+		} catch (final ClassNotFoundException e) {
+			throw Util.illegalArgument("Could not find subcommand class '%s'", className);
+		}
+	}
+
+	/**
+	 * Equivalent to {@link #of(Class, Locale) of(globalType,
+	 * Locale.getDefault())}.
+	 */
+	public static <T> SubcommandReader<T> of(final Class<T> globalType) throws IllegalArgumentException {
+		return of(globalType, Locale.getDefault());
+	}
+
+	/**
+	 * @param globalType
+	 *            The command-line application class of the global options.
+	 */
+	public static <T> SubcommandReader<T> of(final Class<T> globalType, final Locale locale) throws IllegalArgumentException {
+		return new SubcommandReader<T>(CommandLineReader.of(globalType, locale), globalType, locale);
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The result of {@link SubcommandReader#read(String[])}.
+ * 
+ * @author Philipp Eichhorn
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public final class SubcommandResult<E> {
+	/** the filled instance of the global command-line application class */
+	private final E globalOptions;
+	/** the name of the selected subcommand, or <code>null</code> if none was given */
+	private final String name;
+	/** the filled instance of the subcommand class, or <code>null</code> if none was given */
+	private final Object command;
+	/** the arguments after the subcommand no option was specified for */
+	private final List<String> remainingArgs;
+
+	/**
+	 * @return The subcommand instance, if it is of the specified type, else
+	 *         <code>null</code>.
+	 */
+	public <T> T getCommand(final Class<T> type) {
+		return type.isInstance(command) ? type.cast(command) : null;
+	}
+}
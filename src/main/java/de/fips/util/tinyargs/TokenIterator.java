@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits the characters of a {@link Reader} into arguments separated by NUL or
+ * newline characters, reading only as far as needed. A carriage return right
+ * before a newline is dropped, empty arguments are skipped.
+ * 
+ * @author Philipp Eichhorn
+ */
+final class TokenIterator implements Iterator<String> {
+	private final Reader reader;
+	private final char[] buffer = new char[8192];
+	private final StringBuilder token = new StringBuilder();
+	private int position;
+	private int limit;
+	private String next;
+	private boolean eof;
+
+	TokenIterator(final Reader reader) {
+		this.reader = reader;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null) {
+			next = readToken();
+		}
+		return next != null;
+	}
+
+	@Override
+	public String next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		final String result = next;
+		next = null;
+		return result;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	private String readToken() {
+		token.setLength(0);
+		while (fill()) {
+			final int start = position;
+			while ((position < limit) && (buffer[position] != '\0') && (buffer[position] != '\n')) {
+				position++;
+			}
+			token.append(buffer, start, position - start);
+			if (position < limit) {
+				final boolean newline = buffer[position] == '\n';
+				position++;
+				if (newline && (token.length() > 0) && (token.charAt(token.length() - 1) == '\r')) {
+					token.setLength(token.length() - 1);
+				}
+				if (token.length() > 0) {
+					return token.toString();
+				}
+			}
+		}
+		return (token.length() > 0) ? token.toString() : null;
+	}
+
+	private boolean fill() {
+		if (position < limit) {
+			return true;
+		}
+		if (eof) {
+			return false;
+		}
+		try {
+			final int read = reader.read(buffer);
+			if (read < 0) {
+				eof = true;
+				return false;
+			}
+			position = 0;
+			limit = read;
+			return true;
+		} catch (final IOException e) {
+			throw new ReadFailedException(e);
+		}
+	}
+
+	/**
+	 * Carries an {@link IOException} through the {@link Iterator} methods.
+	 */
+	static final class ReadFailedException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		ReadFailedException(final IOException cause) {
+			super(cause);
+		}
+
+		@Override
+		public IOException getCause() {
+			return (IOException) super.getCause();
+		}
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import de.fips.util.tinyargs.option.AbstractOption;
+import de.fips.util.tinyargs.option.OptionComparator;
+import de.fips.util.tinyargs.validator.IValidator;
+
+/**
+ * The rendered usage-message of a set of options, cached as encoded bytes per
+ * width and charset, so printing it is a single write. <br>
+ * <br>
+ * A width of 0 renders the classic format, one unwrapped line per option. A
+ * positive width aligns the descriptions in a second column and wraps them to
+ * fit.
+ * 
+ * @author Philipp Eichhorn
+ */
+final class Usage {
+	private static final String INDENT = "  ";
+	private static final String GAP = "  ";
+
+	private final List<AbstractOption<?>> options;
+	private final String applicationName;
+	/** the classic format rendered ahead of time, or <code>null</code> */
+	private final String classicText;
+	private final ConcurrentMap<String, byte[]> rendered = new ConcurrentHashMap<String, byte[]>();
+
+	/**
+	 * @param options
+	 *            The options in registration order, they are sorted by long
+	 *            form for the usage-message.
+	 */
+	Usage(final List<AbstractOption<?>> options, final String applicationName) {
+		final List<AbstractOption<?>> sorted = new ArrayList<AbstractOption<?>>(options);
+		Collections.sort(sorted, new OptionComparator());
+		this.options = sorted;
+		this.applicationName = applicationName;
+		this.classicText = null;
+	}
+
+	private Usage(final Usage usage, final String classicText) {
+		this.options = usage.options;
+		this.applicationName = usage.applicationName;
+		this.classicText = classicText;
+	}
+
+	/**
+	 * @return A copy of this usage, that uses the specified text instead of
+	 *         rendering the classic format.
+	 */
+	Usage withClassicText(final String text) {
+		return new Usage(this, text);
+	}
+
+	/**
+	 * @return The encoded usage-message, not to be modified.
+	 */
+	byte[] bytes(final int width, final Charset charset) {
+		final String key = width + ":" + charset.name();
+		byte[] bytes = rendered.get(key);
+		if (bytes == null) {
+			bytes = render(width).getBytes(charset);
+			rendered.putIfAbsent(key, bytes);
+		}
+		return bytes;
+	}
+
+	private String render(final int width) {
+		if ((width <= 0) && (classicText != null)) {
+			return classicText;
+		}
+		final String ls = System.getProperty("line.separator");
+		final StringBuilder usage = new StringBuilder();
+		usage.append("usage: ").append(applicationName).append(" [options]").append(ls);
+		usage.append("options:").append(ls);
+		if (width <= 0) {
+			for (final AbstractOption<?> option : options) {
+				usage.append('\t').append(option).append(ls);
+			}
+			return usage.toString();
+		}
+		final List<String> names = new ArrayList<String>(options.size());
+		int column = 0;
+		for (final AbstractOption<?> option : options) {
+			final String name = names(option);
+			names.add(name);
+			column = Math.max(column, INDENT.length() + name.length() + GAP.length());
+		}
+		column = Math.min(column, width / 2);
+		for (int i = 0; i < options.size(); i++) {
+			final int lineStart = usage.length();
+			usage.append(INDENT).append(names.get(i));
+			final String description = description(options.get(i));
+			if (description.length() > 0) {
+				if (usage.length() - lineStart + GAP.length() > column) {
+					usage.append(ls);
+					pad(usage, column);
+				} else {
+					pad(usage, column - (usage.length() - lineStart));
+				}
+				wrap(usage, description, column, Math.max(1, width - column), ls);
+			}
+			usage.append(ls);
+		}
+		return usage.toString();
+	}
+
+	private static String names(final AbstractOption<?> option) {
+		return ((option.getShortForm() == null) ? "    " : "-" + option.getShortForm() + ", ") + "--" + option.getLongForm();
+	}
+
+	private static String description(final AbstractOption<?> option) {
+		final StringBuilder description = new StringBuilder(option.getDescription());
+		for (final IValidator<?> validator : option.getValidators()) {
+			description.append((description.length() == 0) ? "" : "; ").append(validator);
+		}
+		return description.toString();
+	}
+
+	/**
+	 * Appends the text word by word, breaking lines before they exceed the
+	 * specified length. Words longer than a line get a line of their own.
+	 */
+	private static void wrap(final StringBuilder usage, final String text, final int column, final int length, final String ls) {
+		int lineLength = 0;
+		for (final String word : text.split(" +")) {
+			if (word.length() == 0) {
+				continue;
+			}
+			if ((lineLength > 0) && (lineLength + 1 + word.length() > length)) {
+				usage.append(ls);
+				pad(usage, column);
+				lineLength = 0;
+			}
+			if (lineLength > 0) {
+				usage.append(' ');
+				lineLength++;
+			}
+			usage.append(word);
+			lineLength += word.length();
+		}
+	}
+
+	private static void pad(final StringBuilder usage, final int count) {
+		for (int i = 0; i < count; i++) {
+			usage.append(' ');
+		}
+	}
+}
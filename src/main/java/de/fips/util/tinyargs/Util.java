@@ -1,110 +1,173 @@
-/*
- * Copyright © 2009-2011 Philipp Eichhorn.
- * 
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- * 
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- * 
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
- * THE SOFTWARE.
- */
-package de.fips.util.tinyargs;
-
-import java.util.Collection;
-
-import lombok.AccessLevel;
-import lombok.NoArgsConstructor;
-
-import de.fips.util.tinyargs.option.AbstractOption;
-
-/**
- * Collection of utility methods.
- * 
- * @author Philipp Eichhorn
- */
-@NoArgsConstructor(access = AccessLevel.PRIVATE)
-final class Util {
-	private static final String OPTION_PACKAGE = AbstractOption.class.getPackage().getName();
-
-	@SuppressWarnings("unchecked")
-	public static <T> T uncheckedCast(final Object value) {
-		return (T) value;
-	}
-
-	public static IllegalArgumentException illegalArgument(final String message, final Object... args) {
-		return new IllegalArgumentException(String.format(message, args));
-	}
-
-	/**
-	 * <pre>
-	 * int     -> jargs.gnu.option.IntegerOption
-	 * boolean -> jargs.gnu.option.BooleanOption
-	 * String  -> jargs.gnu.option.StringOption
-	 * Custom  -> jargs.gnu.option.CustomOption
-	 * </pre>
-	 */
-	public static String getOptionTypeName(final Class<?> fieldType) {
-		final StringBuilder builder = new StringBuilder(OPTION_PACKAGE);
-		builder.append(".");
-		if (fieldType == Character.TYPE) {
-			builder.append("Character");
-		} else if (fieldType == Integer.TYPE) {
-			builder.append("Integer");
-		} else {
-			builder.append(capitalizeName(fieldType.getSimpleName()));
-		}
-		builder.append("Option");
-		return builder.toString();
-	}
-
-	/**
-	 * <pre>
-	 * isEmpty(null)  = true
-	 * isEmpty("")    = true
-	 * isEmpty("abc") = false
-	 * </pre>
-	 */
-	public static boolean isEmpty(final String s) {
-		return (s == null) || s.isEmpty();
-	}
-
-	/**
-	 * <pre>
-	 * isEmpty(null)               = true
-	 * isEmpty(new int[]{})        = true
-	 * isEmpty(new int[]{1, 2, 3}) = false
-	 * </pre>
-	 */
-	public static <T> boolean isEmpty(final T[] v) {
-		return (v == null) || (v.length <= 0);
-	}
-	
-	/**
-	 * <pre>
-	 * isEmpty(null)      = true
-	 * isEmpty([])        = true
-	 * isEmpty([1, 2, 3]) = false
-	 * </pre>
-	 */
-	public static <T> boolean isEmpty(final Collection<T> v) {
-		return (v == null) || v.isEmpty();
-	}
-
-	/**
-	 * name -> Name
-	 */
-	public static String capitalizeName(final String name) {
-		return name.substring(0, 1).toUpperCase() + name.substring(1);
-	}
-}
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import de.fips.util.tinyargs.option.AbstractOption;
+
+/**
+ * Collection of utility methods.
+ * 
+ * @author Philipp Eichhorn
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class Util {
+	private static final String OPTION_PACKAGE = AbstractOption.class.getPackage().getName();
+	private static final String SCHEMA_FACTORY_SUFFIX = "OptionSchema";
+
+	@SuppressWarnings("unchecked")
+	public static <T> T uncheckedCast(final Object value) {
+		return (T) value;
+	}
+
+	public static IllegalArgumentException illegalArgument(final String message, final Object... args) {
+		return new IllegalArgumentException(String.format(message, args));
+	}
+
+	/**
+	 * <pre>
+	 * int     -> jargs.gnu.option.IntegerOption
+	 * boolean -> jargs.gnu.option.BooleanOption
+	 * String  -> jargs.gnu.option.StringOption
+	 * Custom  -> jargs.gnu.option.CustomOption
+	 * </pre>
+	 */
+	public static String getOptionTypeName(final Class<?> fieldType) {
+		final StringBuilder builder = new StringBuilder(OPTION_PACKAGE);
+		builder.append(".");
+		if (fieldType == Character.TYPE) {
+			builder.append("Character");
+		} else if (fieldType == Integer.TYPE) {
+			builder.append("Integer");
+		} else {
+			builder.append(capitalizeName(fieldType.getSimpleName()));
+		}
+		builder.append("Option");
+		return builder.toString();
+	}
+
+	/**
+	 * Type of the values bound to an option field, which determines the option
+	 * type. A repeated option can be bound to an array, a {@link List} or a
+	 * {@link Set}, which take all of its values.
+	 * 
+	 * <pre>
+	 * int          -> int
+	 * int[]        -> int
+	 * List&lt;String&gt; -> String
+	 * </pre>
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if a {@link List} or {@link Set} field lacks a type argument.
+	 */
+	public static Class<?> getValueType(final Field field) throws IllegalArgumentException {
+		return getValueType(field.getType(), field.getGenericType(), "field", field.getName());
+	}
+
+	/**
+	 * Same as {@link #getValueType(Field)}, for a field or a constructor
+	 * parameter of the specified type.
+	 * 
+	 * @param kind
+	 *            What is typed, for the exception message.
+	 * @throws IllegalArgumentException
+	 *             if a {@link List} or {@link Set} lacks a type argument.
+	 */
+	public static Class<?> getValueType(final Class<?> type, final Type genericType, final String kind, final String name) throws IllegalArgumentException {
+		if (type.isArray()) {
+			return type.getComponentType();
+		}
+		if ((type == List.class) || (type == Set.class)) {
+			if (genericType instanceof ParameterizedType) {
+				final Type argument = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+				if (argument instanceof Class) {
+					return (Class<?>) argument;
+				}
+			}
+			throw illegalArgument("The %s '%s' needs a class as type argument!", kind, name);
+		}
+		return type;
+	}
+
+	/**
+	 * Name of the {@link ISchemaFactory} generated for the specified class, has
+	 * to match the name used by
+	 * {@link de.fips.util.tinyargs.processor.OptionProcessor OptionProcessor}.
+	 * 
+	 * <pre>
+	 * a.b.Application       -> a.b.ApplicationOptionSchema
+	 * a.b.Outer$Application -> a.b.Outer_ApplicationOptionSchema
+	 * </pre>
+	 */
+	public static String getSchemaFactoryName(final Class<?> type) {
+		return type.getName().replace('$', '_') + SCHEMA_FACTORY_SUFFIX;
+	}
+
+	/**
+	 * <pre>
+	 * isEmpty(null)  = true
+	 * isEmpty("")    = true
+	 * isEmpty("abc") = false
+	 * </pre>
+	 */
+	public static boolean isEmpty(final String s) {
+		return (s == null) || s.isEmpty();
+	}
+
+	/**
+	 * <pre>
+	 * isEmpty(null)               = true
+	 * isEmpty(new int[]{})        = true
+	 * isEmpty(new int[]{1, 2, 3}) = false
+	 * </pre>
+	 */
+	public static <T> boolean isEmpty(final T[] v) {
+		return (v == null) || (v.length <= 0);
+	}
+	
+	/**
+	 * <pre>
+	 * isEmpty(null)      = true
+	 * isEmpty([])        = true
+	 * isEmpty([1, 2, 3]) = false
+	 * </pre>
+	 */
+	public static <T> boolean isEmpty(final Collection<T> v) {
+		return (v == null) || v.isEmpty();
+	}
+
+	/**
+	 * name -> Name
+	 */
+	public static String capitalizeName(final String name) {
+		return name.substring(0, 1).toUpperCase() + name.substring(1);
+	}
+}
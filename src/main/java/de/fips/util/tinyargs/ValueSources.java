@@ -0,0 +1,174 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Factory methods for the common {@link IValueSource IValueSources}. <br>
+ * <br>
+ * Every source takes a snapshot of its entries when created and stores them
+ * under their {@link #keyOf(String) key}, so looking up an option is a single
+ * hash lookup, no matter how large the environment is.
+ * 
+ * @author Philipp Eichhorn
+ */
+public final class ValueSources {
+
+	private ValueSources() {
+	}
+
+	/**
+	 * Normalizes a long form or an entry name to a key: lower case, without
+	 * <code>-</code>, <code>_</code> and <code>.</code>. This way the option
+	 * <code>maxSize</code> is found as <code>max-size</code>,
+	 * <code>MAX_SIZE</code> or <code>max.size</code>.
+	 */
+	public static String keyOf(final String name) {
+		final StringBuilder key = new StringBuilder(name.length());
+		for (int i = 0; i < name.length(); i++) {
+			final char c = name.charAt(i);
+			if ((c != '-') && (c != '_') && (c != '.')) {
+				key.append(Character.toLowerCase(c));
+			}
+		}
+		return key.toString();
+	}
+
+	/**
+	 * @param prefix
+	 *            Only variables starting with this prefix are used, the prefix
+	 *            is not part of the key, like <code>"MYAPP_"</code>.
+	 * @return A snapshot of the environment variables.
+	 */
+	public static IValueSource environment(final String prefix) {
+		return snapshot(System.getenv(), prefix);
+	}
+
+	/**
+	 * @param prefix
+	 *            Only properties starting with this prefix are used, the
+	 *            prefix is not part of the key, like <code>"myapp."</code>.
+	 * @return A snapshot of the system properties.
+	 */
+	public static IValueSource systemProperties(final String prefix) {
+		return snapshot(System.getProperties(), prefix);
+	}
+
+	/**
+	 * Reads a properties or INI file once.<br>
+	 * <br>
+	 * Every line holds an entry <code>name=value</code> or
+	 * <code>name: value</code>. Lines starting with <code>#</code> or
+	 * <code>;</code> are comments. A line <code>[section]</code> prefixes the
+	 * names of the following entries with <code>section.</code>.
+	 * 
+	 * @throws IOException
+	 *             If the file can not be read.
+	 */
+	public static IValueSource file(final File file, final Charset charset) throws IOException {
+		final Map<String, String> values = new HashMap<String, String>();
+		String section = "";
+		for (final String rawLine : read(file, charset).split("\r\n|\r|\n")) {
+			final String line = rawLine.trim();
+			if ((line.length() == 0) || (line.charAt(0) == '#') || (line.charAt(0) == ';')) {
+				continue;
+			}
+			if ((line.charAt(0) == '[') && (line.charAt(line.length() - 1) == ']')) {
+				section = line.substring(1, line.length() - 1).trim() + ".";
+				continue;
+			}
+			final int separatorPos = separatorPos(line);
+			if (separatorPos == -1) {
+				values.put(keyOf(section + line), "");
+			} else {
+				values.put(keyOf(section + line.substring(0, separatorPos).trim()), line.substring(separatorPos + 1).trim());
+			}
+		}
+		return new MapValueSource(values);
+	}
+
+	/**
+	 * @return A source backed by the specified map, whose keys are normalized
+	 *         once.
+	 */
+	public static IValueSource of(final Map<String, String> entries) {
+		return snapshot(entries, "");
+	}
+
+	private static IValueSource snapshot(final Map<?, ?> entries, final String prefix) {
+		final Map<String, String> values = new HashMap<String, String>();
+		for (final Map.Entry<?, ?> entry : entries.entrySet()) {
+			if ((entry.getKey() instanceof String) && (entry.getValue() instanceof String)) {
+				final String name = (String) entry.getKey();
+				if (name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+					values.put(keyOf(name.substring(prefix.length())), (String) entry.getValue());
+				}
+			}
+		}
+		return new MapValueSource(values);
+	}
+
+	private static String read(final File file, final Charset charset) throws IOException {
+		final FileInputStream in = new FileInputStream(file);
+		try {
+			final FileChannel channel = in.getChannel();
+			final ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+			while (buffer.hasRemaining() && (channel.read(buffer) != -1)) {
+				// read the whole file
+			}
+			buffer.flip();
+			return charset.decode(buffer).toString();
+		} finally {
+			in.close();
+		}
+	}
+
+	private static int separatorPos(final String line) {
+		for (int i = 0; i < line.length(); i++) {
+			final char c = line.charAt(i);
+			if ((c == '=') || (c == ':')) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@RequiredArgsConstructor
+	private static final class MapValueSource implements IValueSource {
+		private final Map<String, String> values;
+
+		@Override
+		public String getValue(final String key) {
+			return values.get(key);
+		}
+	}
+}
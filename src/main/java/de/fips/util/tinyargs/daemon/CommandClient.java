@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Arrays;
+
+/**
+ * Forwards a command-line to a {@link CommandServer} and relays its output.
+ * 
+ * <pre>
+ * usage: java de.fips.util.tinyargs.daemon.CommandClient port tokenfile command [args]
+ * </pre>
+ * 
+ * The client loads nothing but this package, so it starts much faster than
+ * the application itself.
+ * 
+ * @author Philipp Eichhorn
+ */
+public final class CommandClient {
+	/** exit code if the server can not be reached or breaks the protocol */
+	public static final int CONNECTION_ERROR = 255;
+
+	private CommandClient() {
+	}
+
+	/**
+	 * Runs the command <code>args[2]</code> with the arguments
+	 * <code>args[3..]</code> on the server listening on port
+	 * <code>args[0]</code>, whose token is in the file <code>args[1]</code>,
+	 * and exits with its exit code.
+	 */
+	public static void main(final String[] args) {
+		if (args.length < 3) {
+			System.err.println("usage: CommandClient port tokenfile command [args]");
+			System.exit(CommandServer.USAGE_ERROR);
+		}
+		int exitCode;
+		try {
+			exitCode = run(Integer.parseInt(args[0]), new File(args[1]), Arrays.copyOfRange(args, 2, args.length), System.out, System.err);
+		} catch (final NumberFormatException e) {
+			System.err.println(String.format("Invalid port '%s'", args[0]));
+			exitCode = CommandServer.USAGE_ERROR;
+		} catch (final IOException e) {
+			System.err.println(String.format("Could not reach the command server: %s", e.getMessage()));
+			exitCode = CONNECTION_ERROR;
+		}
+		System.exit(exitCode);
+	}
+
+	/**
+	 * Runs a command on the server listening on the specified port.
+	 * 
+	 * @param tokenFile
+	 *            The token file written by the server.
+	 * @param commandLine
+	 *            The command name followed by its arguments.
+	 * @return The exit code of the command.
+	 * @throws IOException
+	 *             If the token can not be read, the server can not be
+	 *             reached, drops the client or breaks the protocol.
+	 */
+	public static int run(final int port, final File tokenFile, final String[] commandLine, final OutputStream out, final OutputStream err) throws IOException {
+		final byte[] token = Protocol.readToken(tokenFile);
+		final Socket socket = new Socket(Protocol.loopback(), port);
+		try {
+			socket.setTcpNoDelay(true);
+			Protocol.writeArgs(new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())), token, commandLine);
+			final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			final byte[] buffer = new byte[8192];
+			while (true) {
+				final int channel = in.readUnsignedByte();
+				if (channel == Protocol.EXIT) {
+					return in.readInt();
+				}
+				int remaining = in.readInt();
+				if (remaining < 0) {
+					throw new IOException(String.format("Invalid length %d", remaining));
+				}
+				// copies through the buffer, whatever length the server claims
+				final OutputStream target = (channel == Protocol.STDERR) ? err : out;
+				while (remaining > 0) {
+					final int count = in.read(buffer, 0, Math.min(remaining, buffer.length));
+					if (count < 0) {
+						throw new EOFException();
+					}
+					target.write(buffer, 0, count);
+					remaining -= count;
+				}
+				target.flush();
+			}
+		} finally {
+			socket.close();
+		}
+	}
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import lombok.RequiredArgsConstructor;
+
+import de.fips.util.tinyargs.CommandLineReader;
+import de.fips.util.tinyargs.OptionSchema;
+import de.fips.util.tinyargs.exception.OptionException;
+
+/**
+ * A long-running server for command-line applications, which keeps their
+ * {@link OptionSchema OptionSchemas} compiled and the JVM warm. A
+ * {@link CommandClient} forwards its arguments, the server reads the options
+ * of the named command, runs its {@link ICommandHandler} and streams standard
+ * output, standard error and the exit code back.
+ * 
+ * <pre>
+ * Example:
+ * 
+ * CommandServer server = new CommandServer(Executors.newCachedThreadPool()) //
+ *     .register(&quot;deploy&quot;, Deploy.class, new DeployHandler());
+ * int port = server.start(0, new File(System.getProperty(&quot;user.home&quot;), &quot;.deploy-token&quot;));
+ * </pre>
+ * 
+ * The server only listens on the loopback interface. It writes a random token
+ * to a file only its owner can read, and only serves clients that send this
+ * token, so other local users can not run the registered commands.
+ * 
+ * @author Philipp Eichhorn
+ */
+public final class CommandServer implements Closeable {
+	/** exit code for unknown commands and illegal options */
+	public static final int USAGE_ERROR = 2;
+	private static final int READ_TIMEOUT_MILLIS = 10000;
+	private static final long MIN_BACKOFF_MILLIS = 10;
+	private static final long MAX_BACKOFF_MILLIS = 1000;
+
+	private final Map<String, Command<?>> commands = new ConcurrentHashMap<String, Command<?>>();
+	private final ExecutorService executor;
+	private final Locale locale;
+	private volatile ServerSocket serverSocket;
+	private volatile byte[] token;
+	private File tokenFile;
+
+	public CommandServer(final ExecutorService executor) {
+		this(executor, Locale.getDefault());
+	}
+
+	/**
+	 * @param executor
+	 *            Runs the commands, one task per client.
+	 * @param locale
+	 *            The locale the schemas are compiled for.
+	 */
+	public CommandServer(final ExecutorService executor, final Locale locale) {
+		this.executor = executor;
+		this.locale = locale;
+	}
+
+	/**
+	 * Registers a command and compiles its schema.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             If the type is no valid command-line application class.
+	 */
+	public <T> CommandServer register(final String name, final Class<T> type, final ICommandHandler<? super T> handler) throws IllegalArgumentException {
+		commands.put(name, new Command<T>(OptionSchema.of(type, locale), handler));
+		return this;
+	}
+
+	/**
+	 * Starts accepting clients on a background thread.
+	 * 
+	 * @param port
+	 *            The port to listen on, or 0 for any free port.
+	 * @param tokenFile
+	 *            The file that receives the token clients have to send. An
+	 *            existing file is replaced, and the file is deleted on
+	 *            {@link #close()}. The file is only accessible by its owner,
+	 *            but it should still be placed in a directory no other user
+	 *            can write to.
+	 * @return The port the server listens on.
+	 * @throws IOException
+	 *             If the port can not be bound or the token file can not be
+	 *             written.
+	 */
+	public synchronized int start(final int port, final File tokenFile) throws IOException {
+		if (serverSocket != null) {
+			throw new IllegalStateException("Server already started");
+		}
+		final byte[] newToken = Protocol.newToken();
+		Protocol.writeToken(tokenFile, newToken);
+		final ServerSocket socket;
+		try {
+			socket = new ServerSocket(port, 50, Protocol.loopback());
+		} catch (final IOException e) {
+			tokenFile.delete();
+			throw e;
+		}
+		token = newToken;
+		this.tokenFile = tokenFile;
+		serverSocket = socket;
+		final Thread acceptor = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				accept(socket);
+			}
+		}, "tinyargs-command-server");
+		acceptor.setDaemon(true);
+		acceptor.start();
+		return socket.getLocalPort();
+	}
+
+	/**
+	 * Stops accepting clients and deletes the token file. Running commands are
+	 * not interrupted.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (serverSocket != null) {
+			serverSocket.close();
+			tokenFile.delete();
+		}
+	}
+
+	/**
+	 * Backs off while accepting fails, e.g. because the process ran out of file
+	 * descriptors, instead of retrying right away.
+	 */
+	private void accept(final ServerSocket socket) {
+		long backoffMillis = 0;
+		while (!socket.isClosed()) {
+			final Socket client;
+			try {
+				client = socket.accept();
+				backoffMillis = 0;
+			} catch (final IOException e) {
+				if (socket.isClosed()) {
+					return;
+				}
+				backoffMillis = Math.min(Math.max(2 * backoffMillis, MIN_BACKOFF_MILLIS), MAX_BACKOFF_MILLIS);
+				try {
+					Thread.sleep(backoffMillis);
+				} catch (final InterruptedException interrupted) {
+					return;
+				}
+				continue;
+			}
+			try {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						serve(client);
+					}
+				});
+			} catch (final RejectedExecutionException e) {
+				closeQuietly(client);
+			}
+		}
+	}
+
+	private void serve(final Socket client) {
+		try {
+			client.setSoTimeout(READ_TIMEOUT_MILLIS);
+			final DataInputStream in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+			final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(client.getOutputStream()));
+			final String[] args = Protocol.readArgs(in, token);
+			client.setSoTimeout(0);
+			final PrintStream stdout = printStream(out, Protocol.STDOUT);
+			final PrintStream stderr = printStream(out, Protocol.STDERR);
+			final int exitCode = run(args, stdout, stderr);
+			stdout.flush();
+			stderr.flush();
+			synchronized (out) {
+				out.writeByte(Protocol.EXIT);
+				out.writeInt(exitCode);
+				out.flush();
+			}
+		} catch (final IOException e) {
+			// the client is gone, nobody left to report to
+		} finally {
+			closeQuietly(client);
+		}
+	}
+
+	private int run(final String[] args, final PrintStream out, final PrintStream err) {
+		if (args.length == 0) {
+			err.println("No command given");
+			return USAGE_ERROR;
+		}
+		final Command<?> command = commands.get(args[0]);
+		if (command == null) {
+			err.println(String.format("Unknown command '%s'", args[0]));
+			return USAGE_ERROR;
+		}
+		return command.run(Arrays.copyOfRange(args, 1, args.length), out, err);
+	}
+
+	private static PrintStream printStream(final DataOutputStream out, final int channel) {
+		try {
+			return new PrintStream(new BufferedOutputStream(new Protocol.FrameOutputStream(out, channel)), true, Protocol.UTF_8.name());
+		} catch (final UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void closeQuietly(final Socket socket) {
+		try {
+			socket.close();
+		} catch (final IOException ignore) {
+			// nothing to do
+		}
+	}
+
+	@RequiredArgsConstructor
+	private static final class Command<E> {
+		private final OptionSchema<E> schema;
+		private final ICommandHandler<? super E> handler;
+
+		private int run(final String[] args, final PrintStream out, final PrintStream err) {
+			final CommandLineReader<E> reader = CommandLineReader.of(schema);
+			reader.setPrintStream(err);
+			final E options;
+			try {
+				options = reader.read(args);
+			} catch (final OptionException e) {
+				if (!schema.isShowUsageOnExeption()) {
+					err.println(e.getMessage());
+				}
+				return USAGE_ERROR;
+			}
+			if (reader.helpRequested()) {
+				return 0;
+			}
+			try {
+				return handler.run(options, reader.getRemainingArgs(), out, err);
+			} catch (final Exception e) {
+				e.printStackTrace(err);
+				return 1;
+			}
+		}
+	}
+}
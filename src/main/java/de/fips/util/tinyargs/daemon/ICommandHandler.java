@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs.daemon;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Runs a command of a {@link CommandServer} with its already read options.
+ * 
+ * @param <E>
+ *            Type of the command-line application
+ * 
+ * @author Philipp Eichhorn
+ */
+public interface ICommandHandler<E> {
+
+	/**
+	 * @param options
+	 *            A new, filled instance of the command-line application class.
+	 * @param remainingArgs
+	 *            The arguments no option was specified for.
+	 * @param out
+	 *            Streamed to the standard output of the client.
+	 * @param err
+	 *            Streamed to the standard error of the client.
+	 * @return The exit code of the client.
+	 * @throws Exception
+	 *             Its stack trace is written to <code>err</code> and the exit
+	 *             code is 1.
+	 */
+	public int run(E options, List<String> remainingArgs, PrintStream out, PrintStream err) throws Exception;
+}
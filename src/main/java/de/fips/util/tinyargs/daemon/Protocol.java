@@ -0,0 +1,211 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * The wire format between {@link CommandClient} and {@link CommandServer}.<br>
+ * <br>
+ * The client sends the magic number, the token of the server, the number of
+ * arguments and each argument as length-prefixed UTF-8, the first argument
+ * being the command name. The server drops clients with a wrong token and
+ * answers all others with frames, each starting with a channel byte:
+ * {@link #STDOUT} and {@link #STDERR} frames carry length-prefixed bytes, the
+ * final {@link #EXIT} frame carries the exit code.
+ * 
+ * @author Philipp Eichhorn
+ */
+final class Protocol {
+	static final int MAGIC = 0x74617267;
+	static final int STDOUT = 1;
+	static final int STDERR = 2;
+	static final int EXIT = 3;
+	static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	static final int TOKEN_LENGTH = 32;
+
+	private static final int MAX_ARGS = 1 << 16;
+	private static final int MAX_ARG_LENGTH = 1 << 20;
+
+	private Protocol() {
+	}
+
+	/**
+	 * @return The loopback address, the only address the server listens on.
+	 */
+	static InetAddress loopback() {
+		try {
+			return InetAddress.getByAddress("localhost", new byte[] { 127, 0, 0, 1 });
+		} catch (final UnknownHostException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @return A new random token.
+	 */
+	static byte[] newToken() {
+		final byte[] token = new byte[TOKEN_LENGTH];
+		new SecureRandom().nextBytes(token);
+		return token;
+	}
+
+	/**
+	 * Writes the token to a file only its owner can access, that is mode 0600
+	 * on POSIX systems. The token is written to a new directory next to the
+	 * file, which is made accessible to its owner first, and then moved into
+	 * place, so it is never readable by others. An existing file, e.g. the one
+	 * of a crashed server, is replaced. Where POSIX permissions do not apply,
+	 * e.g. on Windows, the file keeps the access rights of its directory.
+	 * 
+	 * @throws IOException
+	 *             If the file can not be written, or its access can not be
+	 *             restricted.
+	 */
+	static void writeToken(final File file, final byte[] token) throws IOException {
+		final File target = file.getAbsoluteFile();
+		final File dir = new File(target.getParentFile(), "." + target.getName() + "." + Long.toHexString(new SecureRandom().nextLong() >>> 1));
+		if (!dir.mkdir()) {
+			throw new IOException(String.format("Could not create the directory '%s'", dir));
+		}
+		final File staged = new File(dir, target.getName());
+		try {
+			restrictToOwner(dir);
+			final OutputStream out = new FileOutputStream(staged);
+			try {
+				out.write(token);
+			} finally {
+				out.close();
+			}
+			restrictToOwner(staged);
+			if (!staged.renameTo(target)) {
+				throw new IOException(String.format("Could not move the token file to '%s'", target));
+			}
+		} finally {
+			staged.delete();
+			dir.delete();
+		}
+	}
+
+	private static void restrictToOwner(final File file) throws IOException {
+		final boolean restricted = file.setReadable(false, false) && file.setReadable(true, true) && file.setWritable(false, false) && file.setWritable(true, true) && file.setExecutable(false, false) && (!file.isDirectory() || file.setExecutable(true, true));
+		if (!restricted && (File.separatorChar == '/')) {
+			throw new IOException(String.format("Could not restrict the access to '%s'", file));
+		}
+	}
+
+	static byte[] readToken(final File file) throws IOException {
+		final DataInputStream in = new DataInputStream(new FileInputStream(file));
+		try {
+			final byte[] token = new byte[TOKEN_LENGTH];
+			in.readFully(token);
+			return token;
+		} finally {
+			in.close();
+		}
+	}
+
+	static void writeArgs(final DataOutputStream out, final byte[] token, final String[] args) throws IOException {
+		out.writeInt(MAGIC);
+		out.write(token);
+		out.writeInt(args.length);
+		for (final String arg : args) {
+			final byte[] bytes = arg.getBytes(UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+		out.flush();
+	}
+
+	/**
+	 * @throws IOException
+	 *             If the client sends a wrong token or breaks the protocol.
+	 */
+	static String[] readArgs(final DataInputStream in, final byte[] token) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a tinyargs client");
+		}
+		final byte[] clientToken = new byte[TOKEN_LENGTH];
+		in.readFully(clientToken);
+		// compares in constant time
+		if (!MessageDigest.isEqual(clientToken, token)) {
+			throw new IOException("Wrong token");
+		}
+		final String[] args = new String[checkedLength(in.readInt(), MAX_ARGS)];
+		for (int i = 0; i < args.length; i++) {
+			final byte[] bytes = new byte[checkedLength(in.readInt(), MAX_ARG_LENGTH)];
+			in.readFully(bytes);
+			args[i] = new String(bytes, UTF_8);
+		}
+		return args;
+	}
+
+	private static int checkedLength(final int length, final int max) throws IOException {
+		if ((length < 0) || (length > max)) {
+			throw new IOException(String.format("Invalid length %d", length));
+		}
+		return length;
+	}
+
+	/**
+	 * Writes everything as frames of one channel, flushing each frame.
+	 */
+	static final class FrameOutputStream extends OutputStream {
+		private final DataOutputStream out;
+		private final int channel;
+
+		FrameOutputStream(final DataOutputStream out, final int channel) {
+			this.out = out;
+			this.channel = channel;
+		}
+
+		@Override
+		public void write(final int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			if (len == 0) {
+				return;
+			}
+			synchronized (out) {
+				out.writeByte(channel);
+				out.writeInt(len);
+				out.write(b, off, len);
+				out.flush();
+			}
+		}
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when an argument file (<code>@file</code>) can not be read or is
+ * malformed, see
+ * {@link de.fips.util.tinyargs.CommandLineParser#setArgFileExpansion(boolean)
+ * CommandLineParser.setArgFileExpansion}.
+ * 
+ * @author Philipp Eichhorn
+ */
+@Getter
+public class ArgFileException extends OptionException {
+	private static final long serialVersionUID = -2379470447164539911L;
+
+	private final String fileName;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param fileName
+	 *            The name of the argument file.
+	 * @param reason
+	 *            Why the file could not be expanded.
+	 */
+	public ArgFileException(final String fileName, final String reason) {
+		super(String.format("Cannot expand argument file '%s': %s", fileName, reason));
+		this.fileName = fileName;
+	}
+}
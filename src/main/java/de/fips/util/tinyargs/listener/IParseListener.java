@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs.listener;
+
+import de.fips.util.tinyargs.exception.OptionException;
+import de.fips.util.tinyargs.option.AbstractOption;
+import de.fips.util.tinyargs.validator.IValidator;
+
+/**
+ * Receives the events of a parse, see
+ * {@link de.fips.util.tinyargs.CommandLineParser#setParseListener(IParseListener)
+ * CommandLineParser.setParseListener} and
+ * {@link de.fips.util.tinyargs.CommandLineReader#setParseListener(IParseListener)
+ * CommandLineReader.setParseListener}. <br>
+ * <br>
+ * A listener may be called by several threads at once, if the parser is
+ * shared between them.
+ * 
+ * @author Philipp Eichhorn
+ */
+public interface IParseListener {
+
+	/**
+	 * Called for every command-line argument, before it is interpreted.
+	 * 
+	 * @param position
+	 *            The index of the argument.
+	 * @param token
+	 *            The argument itself.
+	 */
+	public void tokenScanned(int position, String token);
+
+	/**
+	 * Called when an argument, or a flag in a cluster of flags, was matched to
+	 * an option.
+	 */
+	public void optionMatched(AbstractOption<?> option, String token);
+
+	/**
+	 * Called after an option value was converted successfully.
+	 * 
+	 * @param arg
+	 *            The converted argument, <code>null</code> for flags.
+	 * @param nanos
+	 *            The time spent converting the argument, excluding the
+	 *            validators.
+	 */
+	public void valueConverted(AbstractOption<?> option, String arg, long nanos);
+
+	/**
+	 * Called after a validator of an option checked a converted value.
+	 */
+	public void validatorExecuted(AbstractOption<?> option, IValidator<?> validator, boolean valid);
+
+	/**
+	 * Called after a {@link de.fips.util.tinyargs.CommandLineReader
+	 * CommandLineReader} bound the values of an option to its field, or
+	 * passed them to the constructor.
+	 * 
+	 * @param nanos
+	 *            The time spent binding.
+	 */
+	public void fieldBound(AbstractOption<?> option, long nanos);
+
+	/**
+	 * Called when a parse is aborted, right before the exception is thrown.
+	 * 
+	 * @param args
+	 *            The parsed arguments, <code>null</code> if they were streamed.
+	 */
+	public void parseFailed(String[] args, OptionException exception);
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs.listener;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import de.fips.util.tinyargs.exception.OptionException;
+import de.fips.util.tinyargs.option.AbstractOption;
+import de.fips.util.tinyargs.validator.IValidator;
+
+/**
+ * {@link IParseListener} that counts all events and keeps a conversion latency
+ * histogram per option. Options are told apart by their long form.
+ * 
+ * <pre>
+ * usage:
+ * 
+ * ParseStatistics statistics = new ParseStatistics();
+ * statistics.registerMBean(&quot;myapp&quot;);
+ * CommandLineReader&lt;Application&gt; reader = CommandLineReader.of(Application.class);
+ * reader.setParseListener(statistics);
+ * </pre>
+ * 
+ * @author Philipp Eichhorn
+ */
+public class ParseStatistics implements IParseListener, ParseStatisticsMBean {
+	public static final int HISTOGRAM_BUCKETS = 32;
+
+	private final AtomicLong tokensScanned = new AtomicLong();
+	private final AtomicLong optionsMatched = new AtomicLong();
+	private final AtomicLong valuesConverted = new AtomicLong();
+	private final AtomicLong validatorsExecuted = new AtomicLong();
+	private final AtomicLong validationFailures = new AtomicLong();
+	private final AtomicLong fieldsBound = new AtomicLong();
+	private final AtomicLong parseFailures = new AtomicLong();
+	private final ConcurrentMap<String, OptionStatistics> optionStatistics = new ConcurrentHashMap<String, OptionStatistics>();
+
+	/**
+	 * Registers this instance at the platform MBean server as
+	 * <code>de.fips.util.tinyargs:type=ParseStatistics,name=&lt;name&gt;</code>.
+	 * 
+	 * @return The name this instance was registered with.
+	 */
+	public ObjectName registerMBean(final String name) throws JMException {
+		final ObjectName objectName = new ObjectName("de.fips.util.tinyargs:type=ParseStatistics,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		return objectName;
+	}
+
+	@Override
+	public void tokenScanned(final int position, final String token) {
+		tokensScanned.incrementAndGet();
+	}
+
+	@Override
+	public void optionMatched(final AbstractOption<?> option, final String token) {
+		optionsMatched.incrementAndGet();
+		statisticsOf(option.getLongForm()).matches.incrementAndGet();
+	}
+
+	@Override
+	public void valueConverted(final AbstractOption<?> option, final String arg, final long nanos) {
+		valuesConverted.incrementAndGet();
+		final OptionStatistics statistics = statisticsOf(option.getLongForm());
+		statistics.conversions.incrementAndGet();
+		statistics.conversionNanos.addAndGet(nanos);
+		statistics.histogram.incrementAndGet(bucketOf(nanos));
+	}
+
+	@Override
+	public void validatorExecuted(final AbstractOption<?> option, final IValidator<?> validator, final boolean valid) {
+		validatorsExecuted.incrementAndGet();
+		if (!valid) {
+			validationFailures.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void fieldBound(final AbstractOption<?> option, final long nanos) {
+		fieldsBound.incrementAndGet();
+	}
+
+	@Override
+	public void parseFailed(final String[] args, final OptionException exception) {
+		parseFailures.incrementAndGet();
+	}
+
+	@Override
+	public long getTokensScanned() {
+		return tokensScanned.get();
+	}
+
+	@Override
+	public long getOptionsMatched() {
+		return optionsMatched.get();
+	}
+
+	@Override
+	public long getValuesConverted() {
+		return valuesConverted.get();
+	}
+
+	@Override
+	public long getValidatorsExecuted() {
+		return validatorsExecuted.get();
+	}
+
+	@Override
+	public long getValidationFailures() {
+		return validationFailures.get();
+	}
+
+	@Override
+	public long getFieldsBound() {
+		return fieldsBound.get();
+	}
+
+	@Override
+	public long getParseFailures() {
+		return parseFailures.get();
+	}
+
+	@Override
+	public String[] getOptionNames() {
+		return optionStatistics.keySet().toArray(new String[0]);
+	}
+
+	@Override
+	public long getMatchCount(final String longForm) {
+		final OptionStatistics statistics = optionStatistics.get(longForm);
+		return (statistics == null) ? 0 : statistics.matches.get();
+	}
+
+	@Override
+	public double getMeanConversionNanos(final String longForm) {
+		final OptionStatistics statistics = optionStatistics.get(longForm);
+		if (statistics == null) {
+			return 0;
+		}
+		final long conversions = statistics.conversions.get();
+		return (conversions == 0) ? 0 : ((double) statistics.conversionNanos.get() / conversions);
+	}
+
+	@Override
+	public long[] getConversionHistogram(final String longForm) {
+		final long[] histogram = new long[HISTOGRAM_BUCKETS];
+		final OptionStatistics statistics = optionStatistics.get(longForm);
+		if (statistics != null) {
+			for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+				histogram[i] = statistics.histogram.get(i);
+			}
+		}
+		return histogram;
+	}
+
+	@Override
+	public void reset() {
+		tokensScanned.set(0);
+		optionsMatched.set(0);
+		valuesConverted.set(0);
+		validatorsExecuted.set(0);
+		validationFailures.set(0);
+		fieldsBound.set(0);
+		parseFailures.set(0);
+		optionStatistics.clear();
+	}
+
+	private OptionStatistics statisticsOf(final String longForm) {
+		OptionStatistics statistics = optionStatistics.get(longForm);
+		if (statistics == null) {
+			final OptionStatistics newStatistics = new OptionStatistics();
+			statistics = optionStatistics.putIfAbsent(longForm, newStatistics);
+			if (statistics == null) {
+				statistics = newStatistics;
+			}
+		}
+		return statistics;
+	}
+
+	static int bucketOf(final long nanos) {
+		if (nanos <= 0) {
+			return 0;
+		}
+		return Math.min(63 - Long.numberOfLeadingZeros(nanos), HISTOGRAM_BUCKETS - 1);
+	}
+
+	private static final class OptionStatistics {
+		private final AtomicLong matches = new AtomicLong();
+		private final AtomicLong conversions = new AtomicLong();
+		private final AtomicLong conversionNanos = new AtomicLong();
+		private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs.listener;
+
+/**
+ * JMX view of {@link ParseStatistics}.
+ * 
+ * @author Philipp Eichhorn
+ */
+public interface ParseStatisticsMBean {
+
+	public long getTokensScanned();
+
+	public long getOptionsMatched();
+
+	public long getValuesConverted();
+
+	public long getValidatorsExecuted();
+
+	public long getValidationFailures();
+
+	public long getFieldsBound();
+
+	public long getParseFailures();
+
+	/**
+	 * @return The long forms of all options that were matched so far.
+	 */
+	public String[] getOptionNames();
+
+	/**
+	 * @return How often the option with the specified long form was matched.
+	 */
+	public long getMatchCount(String longForm);
+
+	/**
+	 * @return The mean time in nanoseconds spent converting the values of the
+	 *         option with the specified long form.
+	 */
+	public double getMeanConversionNanos(String longForm);
+
+	/**
+	 * @return The conversion latency histogram of the option with the specified
+	 *         long form. Bucket <code>i</code> counts the conversions that took
+	 *         between <code>2^i</code> and <code>2^(i+1)-1</code> nanoseconds,
+	 *         the last bucket everything above.
+	 */
+	public long[] getConversionHistogram(String longForm);
+
+	/**
+	 * Sets all counters back to zero.
+	 */
+	public void reset();
+}
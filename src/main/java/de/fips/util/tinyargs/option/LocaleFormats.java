@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs.option;
+
+import java.text.DateFormat;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-locale cache of {@link NumberFormat NumberFormats} and
+ * {@link DateFormat DateFormats}. <br>
+ * <br>
+ * Neither format is thread-safe, so every thread gets its own instances. Plain
+ * ASCII decimals like <code>-12.5</code> are parsed without a
+ * {@link NumberFormat} at all, if the locale would interpret them the same way.
+ * 
+ * @author Philipp Eichhorn
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class LocaleFormats {
+	private static final char NO_FAST_PATH = '\0';
+
+	private static final ThreadLocal<Map<Locale, NumberFormat>> NUMBER_FORMATS = new ThreadLocal<Map<Locale, NumberFormat>>() {
+		@Override
+		protected Map<Locale, NumberFormat> initialValue() {
+			return new HashMap<Locale, NumberFormat>();
+		}
+	};
+	private static final ThreadLocal<Map<Locale, DateFormat>> DATE_FORMATS = new ThreadLocal<Map<Locale, DateFormat>>() {
+		@Override
+		protected Map<Locale, DateFormat> initialValue() {
+			return new HashMap<Locale, DateFormat>();
+		}
+	};
+	private static final ConcurrentMap<Locale, Character> DECIMAL_SEPARATORS = new ConcurrentHashMap<Locale, Character>();
+
+	/**
+	 * @return The {@link NumberFormat#getNumberInstance(Locale) number format}
+	 *         of the specified locale, owned by the current thread.
+	 */
+	public static NumberFormat numberFormat(final Locale locale) {
+		final Map<Locale, NumberFormat> formats = NUMBER_FORMATS.get();
+		NumberFormat format = formats.get(locale);
+		if (format == null) {
+			format = NumberFormat.getNumberInstance(locale);
+			formats.put(locale, format);
+		}
+		return format;
+	}
+
+	/**
+	 * @return The short {@link DateFormat#getDateInstance(int, Locale) date
+	 *         format} of the specified locale, owned by the current thread.
+	 */
+	public static DateFormat dateFormat(final Locale locale) {
+		final Map<Locale, DateFormat> formats = DATE_FORMATS.get();
+		DateFormat format = formats.get(locale);
+		if (format == null) {
+			format = DateFormat.getDateInstance(DateFormat.SHORT, locale);
+			formats.put(locale, format);
+		}
+		return format;
+	}
+
+	/**
+	 * Parses a double the way {@link NumberFormat#getNumberInstance(Locale)}
+	 * does.
+	 */
+	public static double parseDouble(final String arg, final Locale locale) throws ParseException {
+		if (isPlainDecimal(arg, locale)) {
+			return Double.parseDouble(arg);
+		}
+		return numberFormat(locale).parse(arg).doubleValue();
+	}
+
+	/**
+	 * <pre>
+	 * isPlainDecimal("42", *)              = true
+	 * isPlainDecimal("-0.5", Locale.US)      = true
+	 * isPlainDecimal("-0.5", Locale.GERMANY) = false, '.' is the grouping separator
+	 * isPlainDecimal("1,000", *)           = false
+	 * </pre>
+	 */
+	static boolean isPlainDecimal(final String arg, final Locale locale) {
+		final int length = arg.length();
+		int digits = 0;
+		int point = -1;
+		for (int i = ((length > 0) && (arg.charAt(0) == '-')) ? 1 : 0; i < length; i++) {
+			final char c = arg.charAt(i);
+			if ((c >= '0') && (c <= '9')) {
+				digits++;
+			} else if ((c == '.') && (point < 0) && (digits > 0) && (i < length - 1)) {
+				point = i;
+			} else {
+				return false;
+			}
+		}
+		if (digits == 0) {
+			return false;
+		}
+		final char decimalSeparator = decimalSeparator(locale);
+		return (decimalSeparator != NO_FAST_PATH) && ((point < 0) || (decimalSeparator == '.'));
+	}
+
+	/**
+	 * @return The decimal separator of the specified locale, or
+	 *         {@link #NO_FAST_PATH} if the locale does not use ASCII digits and
+	 *         '-' as minus sign.
+	 */
+	private static char decimalSeparator(final Locale locale) {
+		Character separator = DECIMAL_SEPARATORS.get(locale);
+		if (separator == null) {
+			separator = NO_FAST_PATH;
+			final NumberFormat format = NumberFormat.getNumberInstance(locale);
+			if (format instanceof DecimalFormat) {
+				final DecimalFormatSymbols symbols = ((DecimalFormat) format).getDecimalFormatSymbols();
+				if ((symbols.getZeroDigit() == '0') && (symbols.getMinusSign() == '-') && ((DecimalFormat) format).getNegativePrefix().equals("-")) {
+					separator = symbols.getDecimalSeparator();
+				}
+			}
+			DECIMAL_SEPARATORS.putIfAbsent(locale, separator);
+		}
+		return separator;
+	}
+}
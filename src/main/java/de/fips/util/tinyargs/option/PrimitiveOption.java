@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs.option;
+
+import java.util.Locale;
+
+import de.fips.util.tinyargs.exception.IllegalOptionValueException;
+import de.fips.util.tinyargs.listener.IParseListener;
+
+/**
+ * An option whose values are primitives. They are converted and stored as the
+ * raw bits of a <code>long</code>, so parsing and binding them does not need
+ * any boxing:
+ * <ul>
+ * <li><code>int</code> and <code>long</code> values as they are,</li>
+ * <li><code>float</code> values as {@link Float#floatToRawIntBits(float)},</li>
+ * <li><code>double</code> values as {@link Double#doubleToRawLongBits(double)},
+ * </li>
+ * <li><code>boolean</code> values as <code>1</code> or <code>0</code>.</li>
+ * </ul>
+ * Values are only boxed to run the validators of the option, if there are
+ * any.
+ * 
+ * @param <E>
+ *            The wrapper type of the primitive values, it determines the
+ *            encoding.
+ * 
+ * @author Philipp Eichhorn
+ */
+public abstract class PrimitiveOption<E> extends AbstractOption<E> {
+
+	protected PrimitiveOption(final String longForm, final String description, final boolean wantsValue) {
+		super(longForm, description, wantsValue);
+	}
+
+	protected PrimitiveOption(final char shortForm, final String longForm, final String description, final boolean wantsValue) {
+		super(shortForm, longForm, description, wantsValue);
+	}
+
+	/**
+	 * Like {@link #getValue(String, Locale, IParseListener)}, but returns the
+	 * raw bits of the value.
+	 * 
+	 * @throws IllegalOptionValueException
+	 */
+	public final long getBits(final String arg, final Locale locale, final IParseListener listener) throws IllegalOptionValueException {
+		if (isValueNeeded()) {
+			if (arg == null) {
+				throw new IllegalOptionValueException(this, "");
+			}
+		}
+		final long bits;
+		if (listener == null) {
+			bits = parseBits(arg, locale);
+		} else {
+			final long start = System.nanoTime();
+			bits = parseBits(arg, locale);
+			listener.valueConverted(this, arg, System.nanoTime() - start);
+		}
+		if (!getValidators().isEmpty()) {
+			validate(box(bits), arg, listener);
+		}
+		return bits;
+	}
+
+	public final long parseBits(final String arg, final Locale locale) throws IllegalOptionValueException {
+		try {
+			return guardedParseBits(arg, locale);
+		} catch (final Exception e) {
+			throw new IllegalOptionValueException(this, arg);
+		}
+	}
+
+	@Override
+	public final E guardedParseValue(final String arg, final Locale locale) throws Exception {
+		return box(guardedParseBits(arg, locale));
+	}
+
+	/**
+	 * Override to convert an option value passed on the command-line into the
+	 * raw bits of a primitive.
+	 * 
+	 * @throws Exception
+	 *             If <code>arg</code> is an illegal value. This should be a
+	 *             checked exception or an {@link IllegalArgumentException},
+	 *             {@link de.fips.util.tinyargs.CommandLineParser#tryParse(String[], Locale)
+	 *             tryParse} lets any other runtime exception propagate.
+	 */
+	public abstract long guardedParseBits(final String arg, final Locale locale) throws Exception;
+
+	/**
+	 * @return The boxed value of the specified raw bits.
+	 */
+	public abstract E box(final long bits);
+}
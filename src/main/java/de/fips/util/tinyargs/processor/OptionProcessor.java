@@ -0,0 +1,435 @@
+/*
+ * Copyright © 2009-2011 Philipp Eichhorn.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.fips.util.tinyargs.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+
+import de.fips.util.tinyargs.annotation.ApplicationName;
+import de.fips.util.tinyargs.annotation.EnableHelp;
+import de.fips.util.tinyargs.annotation.InInterval;
+import de.fips.util.tinyargs.annotation.OneOf;
+import de.fips.util.tinyargs.annotation.Option;
+
+/**
+ * Annotation processor that generates a reflection-free
+ * {@link de.fips.util.tinyargs.ISchemaFactory ISchemaFactory} for every class
+ * with {@link Option}-annotated fields. <br>
+ * <br>
+ * The generated factory creates the options and validators directly, binds the
+ * parsed values via plain field assignments and creates new instances via
+ * <code>new</code>. Like the reflection-based schema, it binds all values of a
+ * repeated option to array, {@link java.util.List List} and
+ * {@link java.util.Set Set} fields.
+ * {@link de.fips.util.tinyargs.OptionSchema#of(Class, java.util.Locale)
+ * OptionSchema.of(Class, Locale)} picks it up automatically, but it can also be
+ * instantiated directly, which avoids reflection altogether. <br>
+ * <br>
+ * Since the generated code lives in the package of the annotated class, the
+ * class, its default constructor and its annotated fields must not be private.
+ * Classes that do not meet these requirements are skipped with a note and keep
+ * using the reflection-based schema. So are classes with a constructor that has
+ * {@link Option}-annotated parameters, as that constructor binds the options
+ * rather than the fields. Only fields without a matching option type, which the
+ * reflection-based schema rejects as well, are reported with a warning.
+ * 
+ * @author Philipp Eichhorn
+ */
+@SupportedAnnotationTypes("de.fips.util.tinyargs.annotation.Option")
+public class OptionProcessor extends AbstractProcessor {
+	private static final String OPTION_PACKAGE = "de.fips.util.tinyargs.option";
+	private static final String SCHEMA_FACTORY_SUFFIX = "OptionSchema";
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+		final Map<TypeElement, List<VariableElement>> annotatedFields = new LinkedHashMap<TypeElement, List<VariableElement>>();
+		for (final VariableElement field : ElementFilter.fieldsIn(roundEnv.getElementsAnnotatedWith(Option.class))) {
+			final TypeElement type = (TypeElement) field.getEnclosingElement();
+			List<VariableElement> fields = annotatedFields.get(type);
+			if (fields == null) {
+				fields = new ArrayList<VariableElement>();
+				annotatedFields.put(type, fields);
+			}
+			fields.add(field);
+		}
+		for (final Map.Entry<TypeElement, List<VariableElement>> entry : annotatedFields.entrySet()) {
+			final TypeElement type = entry.getKey();
+			final List<VariableElement> fields = entry.getValue();
+			if (isSupported(type, fields)) {
+				try {
+					generateSchemaFactory(type, fields);
+				} catch (final IOException e) {
+					processingEnv.getMessager().printMessage(Kind.ERROR, "Could not generate schema: " + e.getMessage(), type);
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean isSupported(final TypeElement type, final List<VariableElement> fields) {
+		final Set<Modifier> modifiers = type.getModifiers();
+		if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.ABSTRACT) || !type.getTypeParameters().isEmpty()) {
+			return skip("non-private, non-abstract and non-generic class required", type);
+		}
+		if ((type.getNestingKind() != NestingKind.TOP_LEVEL) && ((type.getNestingKind() != NestingKind.MEMBER) || !modifiers.contains(Modifier.STATIC))) {
+			return skip("top-level or static member class required", type);
+		}
+		final ExecutableElement optionConstructor = getOptionConstructor(type);
+		if (optionConstructor != null) {
+			return skip(Kind.NOTE, "the constructor with Option-annotated parameters binds the options", optionConstructor);
+		}
+		if (!hasDefaultConstructor(type)) {
+			return skip("non-private default constructor required", type);
+		}
+		for (final VariableElement field : fields) {
+			final Set<Modifier> fieldModifiers = field.getModifiers();
+			if (fieldModifiers.contains(Modifier.PRIVATE) || fieldModifiers.contains(Modifier.FINAL) || fieldModifiers.contains(Modifier.STATIC)) {
+				return skip("non-private, non-final instance field required", field);
+			}
+			final String optionTypeName = getOptionTypeName(getValueType(field.asType()));
+			if ((optionTypeName == null) || (processingEnv.getElementUtils().getTypeElement(optionTypeName) == null)) {
+				return skip(Kind.WARNING, "no option type available for " + field.asType(), field);
+			}
+		}
+		return true;
+	}
+
+	private boolean hasDefaultConstructor(final TypeElement type) {
+		for (final ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+			if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Mirrors <code>ConstructorBinding.of(Class, Locale)</code>.
+	 */
+	private static ExecutableElement getOptionConstructor(final TypeElement type) {
+		for (final ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+			for (final VariableElement parameter : constructor.getParameters()) {
+				if (parameter.getAnnotation(Option.class) != null) {
+					return constructor;
+				}
+			}
+		}
+		return null;
+	}
+
+	private boolean skip(final String reason, final Element element) {
+		return skip(Kind.NOTE, reason, element);
+	}
+
+	private boolean skip(final Kind kind, final String reason, final Element element) {
+		processingEnv.getMessager().printMessage(kind, "tinyargs falls back to reflection, " + reason, element);
+		return false;
+	}
+
+	private void generateSchemaFactory(final TypeElement type, final List<VariableElement> fields) throws IOException {
+		final String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+		final String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+		final String schemaFactoryName = binaryName.replace('$', '_') + SCHEMA_FACTORY_SUFFIX;
+		final String simpleName = schemaFactoryName.substring(schemaFactoryName.lastIndexOf('.') + 1);
+		final String typeName = type.getQualifiedName().toString();
+
+		final PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(schemaFactoryName, type).openWriter());
+		try {
+			out.println("// generated by " + getClass().getName() + ", do not edit");
+			if (!packageName.isEmpty()) {
+				out.println("package " + packageName + ";");
+				out.println();
+			}
+			out.println("import java.util.ArrayList;");
+			out.println("import java.util.List;");
+			out.println("import java.util.Locale;");
+			out.println();
+			out.println("import de.fips.util.tinyargs.IInstanceFactory;");
+			out.println("import de.fips.util.tinyargs.ISchemaFactory;");
+			out.println("import de.fips.util.tinyargs.OptionBinding;");
+			out.println("import de.fips.util.tinyargs.OptionSchema;");
+			out.println("import de.fips.util.tinyargs.ParseResult;");
+			out.println();
+			out.println("public final class " + simpleName + " implements ISchemaFactory<" + typeName + "> {");
+			out.println();
+			out.println("\t@Override");
+			out.println("\tpublic OptionSchema<" + typeName + "> create(final Locale locale) throws IllegalArgumentException {");
+			out.println("\t\tfinal List<OptionBinding<" + typeName + ">> bindings = new ArrayList<OptionBinding<" + typeName + ">>();");
+			int index = 0;
+			for (final VariableElement field : fields) {
+				generateBinding(out, typeName, field, "option" + index++);
+			}
+			final EnableHelp enableHelp = type.getAnnotation(EnableHelp.class);
+			final ApplicationName applicationName = type.getAnnotation(ApplicationName.class);
+			out.println("\t\treturn OptionSchema.precompiled(" + typeName + ".class, locale, bindings, new IInstanceFactory<" + typeName + ">() {");
+			out.println("\t\t\t@Override");
+			out.println("\t\t\tpublic " + typeName + " newInstance() {");
+			out.println("\t\t\t\treturn new " + typeName + "();");
+			out.println("\t\t\t}");
+			out.println("\t\t}, " + (enableHelp != null) + ", " + ((enableHelp != null) && enableHelp.showOnExeption()) + ", " //
+					+ ((applicationName == null) ? "null" : literal(applicationName.value())) + ", " + ((applicationName != null) && applicationName.fromJar()) + ");");
+			out.println("\t}");
+			out.println("}");
+		} finally {
+			out.close();
+		}
+	}
+
+	private void generateBinding(final PrintWriter out, final String typeName, final VariableElement field, final String optionName) {
+		final Option option = field.getAnnotation(Option.class);
+		final String fieldName = field.getSimpleName().toString();
+		final String longForm = option.longForm().isEmpty() ? fieldName : option.longForm();
+		final TypeMirror fieldType = field.asType();
+		final TypeMirror valueType = getValueType(fieldType);
+		final String optionTypeName = getOptionTypeName(valueType);
+		final String arguments;
+		if (option.shortForm().isEmpty()) {
+			arguments = literal(longForm) + ", " + literal(option.description());
+		} else {
+			arguments = literal(option.shortForm().charAt(0)) + ", " + literal(longForm) + ", " + literal(option.description());
+		}
+		out.println("\t\tfinal " + optionTypeName + " " + optionName + " = new " + optionTypeName + "(" + arguments + ");");
+		final OneOf oneOf = field.getAnnotation(OneOf.class);
+		if (oneOf != null) {
+			final StringBuilder values = new StringBuilder();
+			for (final String value : oneOf.value()) {
+				values.append(values.length() == 0 ? "" : ", ").append(literal(value));
+			}
+			out.println("\t\tOptionSchema.addValueSetValidator(" + typeName + ".class, " + optionName + ", new String[] { " + values + " }, locale);");
+		}
+		final InInterval inInterval = field.getAnnotation(InInterval.class);
+		if (inInterval != null) {
+			out.println("\t\tOptionSchema.addIntervalValidator(" + typeName + ".class, " + optionName + ", " + literal(inInterval.min()) + ", " + literal(inInterval.max()) + ", locale);");
+		}
+		out.println("\t\tbindings.add(new OptionBinding<" + typeName + ">(" + optionName + ") {");
+		out.println("\t\t\t@Override");
+		out.println("\t\t\tpublic void bind(final " + typeName + " target, final ParseResult result) {");
+		final String primitiveGetter = getPrimitiveGetterName(fieldType);
+		if (primitiveGetter != null) {
+			out.println("\t\t\t\ttarget." + fieldName + " = result." + primitiveGetter + "(" + optionName + ", target." + fieldName + ");");
+		} else if (valueType != fieldType) {
+			out.println("\t\t\t\tif (result.hasValues(" + optionName + ")) {");
+			generateAllValues(out, fieldType, valueType, fieldName, optionName);
+			out.println("\t\t\t\t}");
+		} else {
+			out.println("\t\t\t\tif (result.hasValues(" + optionName + ")) {");
+			out.println("\t\t\t\t\ttarget." + fieldName + " = result.getOptionValue(" + optionName + ");");
+			out.println("\t\t\t\t}");
+		}
+		out.println("\t\t\t}");
+		out.println();
+		out.println("\t\t\t@Override");
+		out.println("\t\t\tpublic void copy(final " + typeName + " source, final " + typeName + " target) {");
+		if ("java.util.Date".equals(fieldType.toString())) {
+			// the only mutable option value, the prototype must not share it
+			out.println("\t\t\t\ttarget." + fieldName + " = (source." + fieldName + " == null) ? null : (java.util.Date) source." + fieldName + ".clone();");
+		} else if (fieldType.getKind() == TypeKind.ARRAY) {
+			out.println("\t\t\t\ttarget." + fieldName + " = (source." + fieldName + " == null) ? null : source." + fieldName + ".clone();");
+		} else if (valueType != fieldType) {
+			out.println("\t\t\t\ttarget." + fieldName + " = (source." + fieldName + " == null) ? null : new " + getCollectionName(fieldType) + "<" + valueType + ">(source."
+					+ fieldName + ");");
+		} else {
+			out.println("\t\t\t\ttarget." + fieldName + " = source." + fieldName + ";");
+		}
+		out.println("\t\t\t}");
+		out.println("\t\t});");
+	}
+
+	/**
+	 * Mirrors <code>FieldBinding.getAllValues(Class, AbstractOption, ParseResult)</code>.
+	 */
+	private void generateAllValues(final PrintWriter out, final TypeMirror fieldType, final TypeMirror valueType, final String fieldName, final String optionName) {
+		final String arrayGetter = getPrimitiveArrayGetterName(fieldType);
+		if (arrayGetter != null) {
+			out.println("\t\t\t\t\ttarget." + fieldName + " = result." + arrayGetter + "(" + optionName + ");");
+		} else if (fieldType.getKind() == TypeKind.ARRAY) {
+			final String boxedName = valueType.getKind().isPrimitive() ? processingEnv.getTypeUtils().boxedClass((PrimitiveType) valueType).getQualifiedName().toString()
+					: valueType.toString();
+			out.println("\t\t\t\t\tfinal List<" + boxedName + "> values = result.getOptionValues(" + optionName + ");");
+			out.println("\t\t\t\t\tfinal " + valueType + "[] array = new " + valueType + "[values.size()];");
+			out.println("\t\t\t\t\tfor (int i = 0; i < array.length; i++) {");
+			out.println("\t\t\t\t\t\tarray[i] = values.get(i);");
+			out.println("\t\t\t\t\t}");
+			out.println("\t\t\t\t\ttarget." + fieldName + " = array;");
+		} else {
+			out.println("\t\t\t\t\ttarget." + fieldName + " = new " + getCollectionName(fieldType) + "<" + valueType + ">(result.getOptionValues(" + optionName + "));");
+		}
+	}
+
+	/**
+	 * @return The implementation the values of a repeated option are bound
+	 *         in, for a {@link java.util.List List} or {@link java.util.Set Set}
+	 *         field.
+	 */
+	private static String getCollectionName(final TypeMirror fieldType) {
+		return isDeclared(fieldType, "java.util.List") ? "ArrayList" : "java.util.LinkedHashSet";
+	}
+
+	/**
+	 * @return The name of the boxing-free array getter of
+	 *         <code>ParseResult</code> for the specified field type, or
+	 *         <code>null</code> if there is none.
+	 */
+	private static String getPrimitiveArrayGetterName(final TypeMirror fieldType) {
+		if (fieldType.getKind() != TypeKind.ARRAY) {
+			return null;
+		}
+		switch (((ArrayType) fieldType).getComponentType().getKind()) {
+		case INT:
+			return "getInts";
+		case LONG:
+			return "getLongs";
+		case DOUBLE:
+			return "getDoubles";
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Mirrors <code>Util.getValueType(Field)</code>.
+	 * 
+	 * @return The type of the values bound to a field of the specified type,
+	 *         or <code>null</code> for a {@link java.util.List List} or
+	 *         {@link java.util.Set Set} without a class as type argument.
+	 */
+	private static TypeMirror getValueType(final TypeMirror fieldType) {
+		if (fieldType.getKind() == TypeKind.ARRAY) {
+			return ((ArrayType) fieldType).getComponentType();
+		}
+		if (isDeclared(fieldType, "java.util.List") || isDeclared(fieldType, "java.util.Set")) {
+			final List<? extends TypeMirror> arguments = ((DeclaredType) fieldType).getTypeArguments();
+			if ((arguments.size() != 1) || (arguments.get(0).getKind() != TypeKind.DECLARED) || !((DeclaredType) arguments.get(0)).getTypeArguments().isEmpty()) {
+				return null;
+			}
+			return arguments.get(0);
+		}
+		return fieldType;
+	}
+
+	private static boolean isDeclared(final TypeMirror type, final String qualifiedName) {
+		return (type.getKind() == TypeKind.DECLARED) && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(qualifiedName);
+	}
+
+	/**
+	 * @return The name of the boxing-free getter of <code>ParseResult</code>
+	 *         for the specified field type, or <code>null</code> if there is
+	 *         none.
+	 */
+	private static String getPrimitiveGetterName(final TypeMirror fieldType) {
+		switch (fieldType.getKind()) {
+		case INT:
+		case LONG:
+		case DOUBLE:
+		case FLOAT:
+		case BOOLEAN:
+			return "get" + capitalizeName(fieldType.getKind().name().toLowerCase());
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Mirrors <code>Util.getOptionTypeName(Class)</code>.
+	 */
+	private String getOptionTypeName(final TypeMirror fieldType) {
+		final String name;
+		if (fieldType == null) {
+			return null;
+		} else if (fieldType.getKind() == TypeKind.CHAR) {
+			name = "Character";
+		} else if (fieldType.getKind() == TypeKind.INT) {
+			name = "Integer";
+		} else if (fieldType.getKind().isPrimitive()) {
+			name = capitalizeName(fieldType.getKind().name().toLowerCase());
+		} else if (fieldType.getKind() == TypeKind.DECLARED) {
+			name = capitalizeName(((DeclaredType) fieldType).asElement().getSimpleName().toString());
+		} else {
+			return null;
+		}
+		return OPTION_PACKAGE + "." + name + "Option";
+	}
+
+	private static String capitalizeName(final String name) {
+		return name.substring(0, 1).toUpperCase() + name.substring(1);
+	}
+
+	private static String literal(final char c) {
+		return "'" + (c == '\'' ? "\\'" : escape(c)) + "'";
+	}
+
+	private static String literal(final String s) {
+		final StringBuilder builder = new StringBuilder("\"");
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			builder.append(c == '"' ? "\\\"" : escape(c));
+		}
+		return builder.append('"').toString();
+	}
+
+	private static String escape(final char c) {
+		switch (c) {
+		case '\\':
+			return "\\\\";
+		case '\n':
+			return "\\n";
+		case '\r':
+			return "\\r";
+		case '\t':
+			return "\\t";
+		default:
+			if ((c < 0x20) || (c > 0x7e)) {
+				return String.format("\\u%04x", (int) c);
+			}
+			return String.valueOf(c);
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package de.fips.util.tinyargs;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.fips.util.tinyargs.junit.ExpectedException;
+import de.fips.util.tinyargs.option.AbstractOption;
+
+public class ArgFileIteratorTest {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testWhitespaceAndComments() throws Exception {
+		// setup
+		final File file = write("args", "# comment\n-v\t--size 1\r\n  rest # comment\na#b\n#another comment");
+		// run + assert
+		assertThat(expand(UTF_8, "@" + file.getPath())).containsExactly("-v", "--size", "1", "rest", "a#b");
+	}
+
+	@Test
+	public void testQuotes() throws Exception {
+		// setup
+		final File file = write("args", "--name=\"foo bar\" 'it''s' \"a\\\"b\\nc\" C:\\temp \"\"");
+		// run + assert
+		assertThat(expand(UTF_8, "@" + file.getPath())).containsExactly("--name=foo bar", "its", "a\"b\nc", "C:\\temp", "");
+	}
+
+	@Test
+	public void testNestedFiles() throws Exception {
+		// setup
+		final File inner = write("inner", "b c");
+		final File outer = write("outer", "a @" + inner.getPath() + " d");
+		// run + assert
+		assertThat(expand(UTF_8, "0", "@" + outer.getPath(), "@@e", "@")).containsExactly("0", "a", "b", "c", "d", "@e", "@");
+	}
+
+	@Test
+	public void testCharsets() throws Exception {
+		// setup
+		final File utf8 = write("utf8", "gr\u00fc\u00dfe \u20ac", UTF_8);
+		final File utf16 = write("utf16", "gr\u00fc\u00dfe \u20ac", Charset.forName("UTF-16"));
+		// run + assert
+		assertThat(expand(UTF_8, "@" + utf8.getPath())).containsExactly("gr\u00fc\u00dfe", "\u20ac");
+		assertThat(expand(Charset.forName("UTF-16"), "@" + utf16.getPath())).containsExactly("gr\u00fc\u00dfe", "\u20ac");
+	}
+
+	@Test
+	public void testRecursiveFile() throws Exception {
+		// setup
+		final File file = folder.newFile("args");
+		write("args", "a @" + file.getPath());
+		thrown.expect(ArgFileIterator.ExpansionFailedException.class);
+		// run
+		expand(UTF_8, "@" + file.getPath());
+	}
+
+	@Test
+	public void testMissingFile() throws Exception {
+		// setup
+		thrown.expect(ArgFileIterator.ExpansionFailedException.class);
+		// run
+		expand(UTF_8, "@" + new File(folder.getRoot(), "missing").getPath());
+	}
+
+	@Test
+	public void testUnterminatedQuote() throws Exception {
+		// setup
+		final File file = write("args", "\"foo");
+		thrown.expect(ArgFileIterator.ExpansionFailedException.class);
+		// run
+		expand(UTF_8, "@" + file.getPath());
+	}
+
+	@Test
+	public void testFailuresAreCollected() throws Exception {
+		// setup
+		final File unterminated = write("unterminated", "b \"c");
+		final String missing = "@" + new File(folder.getRoot(), "missing").getPath();
+		final ParseResult errors = new ParseResult(new OptionTable(new ArrayList<AbstractOption<?>>()), 0);
+		final List<String> tokens = new ArrayList<String>();
+		// run
+		final ArgFileIterator iterator = new ArgFileIterator(Arrays.asList("a", missing, "@" + unterminated.getPath(), "d").iterator(), UTF_8, errors);
+		while (iterator.hasNext()) {
+			tokens.add(iterator.next());
+		}
+		// assert
+		assertThat(tokens).containsExactly("a", "b", "d");
+		assertThat(errors.getErrors()).hasSize(2);
+		assertThat(errors.getErrors().get(0).getToken()).isEqualTo(missing);
+		assertThat(errors.getErrors().get(0).getTokenIndex()).isEqualTo(1);
+		assertThat(errors.getErrors().get(1).getMessage()).isEqualTo("Cannot expand argument file '" + unterminated.getPath() + "': unterminated quote");
+		assertThat(errors.getErrors().get(1).getTokenIndex()).isEqualTo(2);
+	}
+
+	private File write(final String name, final String content) throws IOException {
+		return write(name, content, UTF_8);
+	}
+
+	private File write(final String name, final String content, final Charset charset) throws IOException {
+		final File file = new File(folder.getRoot(), name);
+		final FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content.getBytes(charset.name()));
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	private static List<String> expand(final Charset charset, final String... args) {
+		final List<String> tokens = new ArrayList<String>();
+		final ArgFileIterator iterator = new ArgFileIterator(Arrays.asList(args).iterator(), charset);
+		while (iterator.hasNext()) {
+			tokens.add(iterator.next());
+		}
+		return tokens;
+	}
+}
@@ -0,0 +1,120 @@
+package de.fips.util.tinyargs;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import de.fips.util.tinyargs.exception.OptionException;
+import de.fips.util.tinyargs.junit.ExpectedException;
+import de.fips.util.tinyargs.option.AbstractOption;
+import de.fips.util.tinyargs.option.IntegerOption;
+import de.fips.util.tinyargs.validator.IntervalValidator;
+
+public class BatchParserTest {
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private ExecutorService executor;
+	private CommandLineParser parser;
+	private AbstractOption<Integer> size;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+		parser = new CommandLineParser();
+		size = parser.addOption(new IntegerOption('s', "size", ""));
+		size.addValidator(new IntervalValidator<Integer>(0, 1000));
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testParseOrdered() throws Exception {
+		// setup
+		final BatchParser batch = new BatchParser(parser, executor, 7, 3);
+		final List<String> outcomes = new ArrayList<String>();
+		// run
+		final long count = batch.parseOrdered(commandLines(2000).iterator(), Locale.ENGLISH, new IBatchSink() {
+			@Override
+			public void parsed(final long index, final String[] args, final ParseResult result) {
+				outcomes.add(index + "=" + result.getInt(size, -1));
+			}
+
+			@Override
+			public void failed(final long index, final String[] args, final OptionException error) {
+				outcomes.add(index + "!" + args[1]);
+			}
+		});
+		// assert
+		assertThat(count).isEqualTo(2000);
+		assertThat(outcomes).hasSize(2000);
+		for (int i = 0; i < 2000; i++) {
+			assertThat(outcomes.get(i)).isEqualTo(i + ((i > 1000) ? "!" : "=") + i);
+		}
+	}
+
+	@Test
+	public void testParseUnordered() throws Exception {
+		// setup
+		final BatchParser batch = new BatchParser(parser, executor, 16, 8);
+		final ConcurrentMap<Long, Boolean> outcomes = new ConcurrentHashMap<Long, Boolean>();
+		// run
+		final long count = batch.parseUnordered(commandLines(2000).iterator(), Locale.ENGLISH, new IBatchSink() {
+			@Override
+			public void parsed(final long index, final String[] args, final ParseResult result) {
+				outcomes.put(index, result.getInt(size, -1) == index);
+			}
+
+			@Override
+			public void failed(final long index, final String[] args, final OptionException error) {
+				outcomes.put(index, index > 1000);
+			}
+		});
+		// assert
+		assertThat(count).isEqualTo(2000);
+		assertThat(outcomes).hasSize(2000);
+		assertThat(outcomes.values()).excludes(false);
+	}
+
+	@Test
+	public void testSinkExceptionIsPropagated() throws Exception {
+		// setup
+		final BatchParser batch = new BatchParser(parser, executor, 4, 2);
+		// assert
+		thrown.expect(IllegalStateException.class);
+		thrown.expectMessage("sink failed");
+		// run
+		batch.parseUnordered(commandLines(100).iterator(), Locale.ENGLISH, new IBatchSink() {
+			@Override
+			public void parsed(final long index, final String[] args, final ParseResult result) {
+				throw new IllegalStateException("sink failed");
+			}
+
+			@Override
+			public void failed(final long index, final String[] args, final OptionException error) {
+			}
+		});
+	}
+
+	private static List<String[]> commandLines(final int count) {
+		final List<String[]> commandLines = new ArrayList<String[]>(count);
+		for (int i = 0; i < count; i++) {
+			commandLines.add(new String[] { "-s", Integer.toString(i) });
+		}
+		return commandLines;
+	}
+}
@@ -1,329 +1,960 @@
-package de.fips.util.tinyargs;
-
-import static org.fest.assertions.Assertions.assertThat;
-import static org.mockito.Mockito.atLeastOnce;
-import static org.mockito.Mockito.spy;
-import static org.mockito.Mockito.verify;
-
-import java.util.List;
-import java.util.Locale;
-
-import org.junit.Rule;
-import org.junit.Test;
-
-import de.fips.util.tinyargs.CommandLineParser;
-import de.fips.util.tinyargs.junit.ExpectedException;
-import de.fips.util.tinyargs.junit.Std;
-import de.fips.util.tinyargs.option.AbstractOption;
-import de.fips.util.tinyargs.option.BooleanOption;
-import de.fips.util.tinyargs.option.DoubleOption;
-import de.fips.util.tinyargs.option.FloatOption;
-import de.fips.util.tinyargs.option.IntegerOption;
-import de.fips.util.tinyargs.option.LongOption;
-import de.fips.util.tinyargs.option.StringOption;
-import de.fips.util.tinyargs.validator.IntervalValidator;
-
-public class CommandLineParserTest {
-	@Rule
-	public final Std stdErr = Std.err();
-	@Rule
-	public ExpectedException thrown = ExpectedException.none();
-
-	@Test
-	public void testParseFillsOptions() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", "size"));
-		assertThat(parser.getOptionValue(size)).isNull();
-		// run
-		parser.parse(new String[] { "--size=100" }, Locale.US);
-		// assert
-		assertThat(parser.getOptionValue(size)).isEqualTo(100);
-	}
-
-	@Test
-	public void testStandardOptions() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", "forces verbose execution"));
-		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
-		final AbstractOption<String> name = parser.addOption(new StringOption('n', "name", ""));
-		final AbstractOption<Double> fraction = parser.addOption(new DoubleOption('f', "fraction", ""));
-		final AbstractOption<Boolean> missing = parser.addOption(new BooleanOption('m', "missing", ""));
-		final AbstractOption<Boolean> careful = parser.addOption(new BooleanOption("careful", ""));
-		final AbstractOption<Long> bignum = parser.addOption(new LongOption('b', "bignum", ""));
-		final Long longValue = Long.valueOf(Long.valueOf(Integer.MAX_VALUE) + 1);
-		// run
-		parser.parse(new String[] { "-v", "--size=100", "-b", longValue.toString(), "-n", "foo", "-f", "0.1", "rest" }, Locale.US);
-		// assert
-		assertThat(parser.getOptionValue(verbose)).isTrue();
-		assertThat(parser.getOptionValue(size)).isEqualTo(100);
-		assertThat(parser.getOptionValue(name)).isEqualTo("foo");
-		assertThat(parser.getOptionValue(fraction)).isEqualTo(0.1);
-		assertThat(parser.getOptionValue(missing)).isNull();
-		assertThat(parser.getOptionValue(careful)).isNull();
-		assertThat(parser.getOptionValue(bignum)).isEqualTo(longValue);
-		assertThat(parser.getRemainingArgs()).containsExactly("rest");
-	}
-
-	@Test
-	public void testDefaults() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		final Integer fortyTwo = Integer.valueOf(42);
-		final Integer thirtySix = Integer.valueOf(36);
-		final AbstractOption<Boolean> boolean1 = parser.addOption(new BooleanOption("boolean1", ""));
-		final AbstractOption<Boolean> boolean2 = parser.addOption(new BooleanOption("boolean2", ""));
-		final AbstractOption<Boolean> boolean3 = parser.addOption(new BooleanOption("boolean3", ""));
-		final AbstractOption<Boolean> boolean4 = parser.addOption(new BooleanOption("boolean4", ""));
-		final AbstractOption<Boolean> boolean5 = parser.addOption(new BooleanOption("boolean5", ""));
-		final AbstractOption<Integer> int1 = parser.addOption(new IntegerOption("int1", ""));
-		final AbstractOption<Integer> int2 = parser.addOption(new IntegerOption("int2", ""));
-		final AbstractOption<Integer> int3 = parser.addOption(new IntegerOption("int3", ""));
-		final AbstractOption<Integer> int4 = parser.addOption(new IntegerOption("int4", ""));
-		final AbstractOption<String> string1 = parser.addOption(new StringOption("string1", ""));
-		final AbstractOption<String> string2 = parser.addOption(new StringOption("string2", ""));
-		final AbstractOption<String> string3 = parser.addOption(new StringOption("string3", ""));
-		final AbstractOption<String> string4 = parser.addOption(new StringOption("string4", ""));
-		// run
-		parser.parse(new String[] { "--boolean1", "--boolean2", "--int1=42", "--int2=42", "--string1=Hello", "--string2=Hello", });
-		// assert
-		assertThat(parser.getOptionValue(boolean1)).isTrue();
-		assertThat(parser.getOptionValue(boolean2, Boolean.FALSE)).isTrue();
-		assertThat(parser.getOptionValue(boolean3)).isNull();
-		assertThat(parser.getOptionValue(boolean4, Boolean.FALSE)).isFalse();
-		assertThat(parser.getOptionValue(boolean5, Boolean.TRUE)).isTrue();
-		assertThat(parser.getOptionValue(int1)).isEqualTo(fortyTwo);
-		assertThat(parser.getOptionValue(int2, thirtySix)).isEqualTo(fortyTwo);
-		assertThat(parser.getOptionValue(int3)).isNull();
-		assertThat(parser.getOptionValue(int4, thirtySix)).isEqualTo(thirtySix);
-		assertThat(parser.getOptionValue(string1)).isEqualTo("Hello");
-		assertThat(parser.getOptionValue(string2, "Goodbye")).isEqualTo("Hello");
-		assertThat(parser.getOptionValue(string3)).isNull();
-		assertThat(parser.getOptionValue(string4, "Goodbye")).isEqualTo("Goodbye");
-	}
-
-	@Test
-	public void testMultipleUses() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", ""));
-		parser.addOption(new BooleanOption('f', "foo", ""));
-		parser.addOption(new BooleanOption('b', "bar", ""));
-		// run
-		parser.parse(new String[] { "--foo", "-v", "-v", "--verbose", "-v", "-b", "rest" });
-		// assert
-		assertThat(countBooleanOption(parser, verbose)).isEqualTo(4);
-	}
-
-	@Test
-	public void testCombinedFlags() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		final AbstractOption<Boolean> alt = parser.addOption(new BooleanOption('a', "alt", ""));
-		final AbstractOption<Boolean> debug = parser.addOption(new BooleanOption('d', "debug", ""));
-		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", ""));
-		// run
-		parser.parse(new String[] { "-dv" });
-		// assert
-		assertThat(parser.getOptionValue(alt)).isNull();
-		assertThat(parser.getOptionValue(debug)).isTrue();
-		assertThat(parser.getOptionValue(verbose)).isTrue();
-	}
-
-	@Test
-	public void testExplictlyTerminatedOptions() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		final AbstractOption<Boolean> alt = parser.addOption(new BooleanOption('a', "alt", ""));
-		final AbstractOption<Boolean> debug = parser.addOption(new BooleanOption('d', "debug", ""));
-		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", ""));
-		final AbstractOption<Double> fraction = parser.addOption(new DoubleOption('f', "fraction", ""));
-		final AbstractOption<Float> start = parser.addOption(new FloatOption('s', "start", ""));
-		// run
-		parser.parse(new String[] { "-a", "hello", "-d", "-f", "10", "-s", "3.14", "--", "goodbye", "-v", "welcome", "-f", "-10"}, Locale.US);
-		// assert
-		assertThat(parser.getOptionValue(alt)).isTrue();
-		assertThat(parser.getOptionValue(debug)).isTrue();
-		assertThat(parser.getOptionValue(verbose)).isNull();
-		assertThat(parser.getOptionValue(fraction)).isEqualTo(10.0);
-		assertThat(parser.getOptionValue(start)).isEqualTo(3.14f);
-		assertThat(parser.getRemainingArgs()).containsExactly("hello", "goodbye", "-v", "welcome", "-f", "-10");
-	}
-
-	@Test
-	public void testGetOptionValues() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", "forces verbose execution"));
-		parser.addOption(new BooleanOption('f', "foo", ""));
-		parser.addOption(new BooleanOption('b', "bar", ""));
-		// run
-		parser.parse(new String[] { "--foo", "-v", "-v", "--verbose", "-v", "-b", "rest" });
-		// assert
-		assertThat(countBooleanOption(parser, verbose)).isEqualTo(4);
-	}
-
-	@Test
-	public void testBadFormat() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		parser.addOption(new IntegerOption('s', "size", ""));
-		// run + assert
-		thrown.expectIllegalOptionValueException("Illegal value 'blah' for option -s/--size");
-		parser.parse(new String[] { "--size=blah" });
-	}
-
-	@Test
-	public void testResetBetweenParse() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", "forces verbose execution"));
-		// run 1
-		parser.parse(new String[] { "-v" });
-		// assert 1
-		assertThat(parser.getOptionValue(verbose)).isTrue();
-		// run 2
-		parser.parse(new String[] {});
-		// assert 2
-		assertThat(parser.getOptionValue(verbose)).isNull();
-	}
-
-	@Test
-	public void testLocale_US() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		final AbstractOption<Double> fraction = parser.addOption(new DoubleOption('f', "fraction", ""));
-		// run
-		parser.parse(new String[] { "--fraction=0.2" }, Locale.US);
-		// assert
-		assertThat(parser.getOptionValue(fraction)).isEqualTo(0.2);
-	}
-
-	@Test
-	public void testLocale_GERMANY() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		final AbstractOption<Double> fraction = parser.addOption(new DoubleOption('f', "fraction", ""));
-		// run
-		parser.parse(new String[] { "--fraction=0,2" }, Locale.GERMANY);
-		// assert
-		assertThat(parser.getOptionValue(fraction)).isEqualTo(0.2);
-	}
-
-	@Test
-	public void testDetachedOption() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		// run + assert
-		thrown.expectUnknownOptionException("Unknown option '-v'");
-		parser.parse(new String[] { "-v" });
-	}
-
-	@Test
-	public void testMissingValueForStringOption() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		parser.addOption(new BooleanOption('v', "verbose", "forces verbose execution"));
-		parser.addOption(new StringOption('c', "config", "configuration"));
-		// run + assert
-		thrown.expectIllegalOptionValueException("Illegal value '' for option -c/--config");
-		parser.parse(new String[] { "-v", "-c" });
-	}
-
-	@Test
-	public void testWhitespaceValueForStringOption() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		final AbstractOption<String> opt = parser.addOption(new StringOption('o', "option", "option"));
-		// run
-		parser.parse(new String[] { "-o", " " });
-		// assert
-		assertThat(parser.getOptionValue(opt)).isEqualTo(" ");
-	}
-
-	@Test
-	public void testPrintUsage() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		parser.addOption(new StringOption('i', "input", "inputfile"));
-		parser.addOption(new StringOption('o', "output", "outputfile"));
-		parser.addOption(new IntegerOption('u', "u", "(optional) texture width"));
-		parser.addOption(new IntegerOption('v', "v", "(optional) texture height"));
-		parser.addHelpOption();
-		final String ls = System.getProperty("line.separator");
-		final String expected = //
-			"usage: appname [options]" + ls + //
-			"options:" + ls + //
-			"\t -h,--help: display help" + ls + //
-			"\t -i,--input: inputfile" + ls + //
-			"\t -o,--output: outputfile" + ls + //
-			"\t -u,--u: (optional) texture width" + ls + //
-			"\t -v,--v: (optional) texture height" + ls;
-		// run
-		parser.printUsage();
-		// assert
-		assertThat(stdErr.getContent()).contains(expected);
-	}
-
-	@Test
-	public void testAddHelpOptionShort() throws Exception {
-		// setup
-		final CommandLineParser parser = spy(new CommandLineParser());
-		parser.addHelpOption();
-		// run
-		parser.parse(new String[] { "-h" });
-		// assert
-		verify(parser, atLeastOnce()).printUsage();
-	}
-
-	@Test
-	public void testAddHelpOptionLong() throws Exception {
-		// setup
-		final CommandLineParser parser = spy(new CommandLineParser());
-		parser.addHelpOption();
-		// run
-		parser.parse(new String[] { "--help" });
-		// assert
-		verify(parser, atLeastOnce()).printUsage();
-	}
-
-	@Test
-	public void testAddValidator_match() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", "size of something"));
-		size.addValidator(new IntervalValidator<Integer>(0, 100));
-		assertThat(size.toString()).isEqualTo(" -s,--size: size of something; interval [0, 100]");
-		// run
-		parser.parse(new String[] { "--size=50" });
-		// assert
-		assertThat(parser.getOptionValue(size)).isEqualTo(50);
-	}
-
-	@Test
-	public void testAddValidator_noMatch() throws Exception {
-		// setup
-		final CommandLineParser parser = new CommandLineParser();
-		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", "size of something"));
-		size.addValidator(new IntervalValidator<Integer>(0, 100));
-		assertThat(size.toString()).isEqualTo(" -s,--size: size of something; interval [0, 100]");
-		// run + assert
-		thrown.expectIllegalOptionValueException("Illegal value '1000' for option -s/--size");
-		parser.parse(new String[] { "--size=1000" });
-	}
-
-	private int countBooleanOption(final CommandLineParser parser, final AbstractOption<Boolean> opt) {
-		int count = 0;
-		final List<Boolean> v = parser.getOptionValues(opt);
-		for (final Boolean b : v) {
-			assertThat(b).isNotNull();
-			if (b) {
-				count++;
-			} else {
-				count--;
-			}
-		}
-		return count;
-	}
+package de.fips.util.tinyargs;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.RandomAccess;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import de.fips.util.tinyargs.CommandLineParser;
+import de.fips.util.tinyargs.exception.ArgFileException;
+import de.fips.util.tinyargs.exception.IllegalOptionValueException;
+import de.fips.util.tinyargs.junit.ExpectedException;
+import de.fips.util.tinyargs.junit.Std;
+import de.fips.util.tinyargs.listener.IParseListener;
+import de.fips.util.tinyargs.option.AbstractOption;
+import de.fips.util.tinyargs.option.BooleanOption;
+import de.fips.util.tinyargs.option.DateOption;
+import de.fips.util.tinyargs.option.DoubleOption;
+import de.fips.util.tinyargs.option.FloatOption;
+import de.fips.util.tinyargs.option.IntegerOption;
+import de.fips.util.tinyargs.option.LongOption;
+import de.fips.util.tinyargs.option.StringOption;
+import de.fips.util.tinyargs.validator.IntervalValidator;
+
+public class CommandLineParserTest {
+	@Rule
+	public final Std stdErr = Std.err();
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Test
+	public void testParseFillsOptions() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", "size"));
+		assertThat(parser.getOptionValue(size)).isNull();
+		// run
+		parser.parse(new String[] { "--size=100" }, Locale.US);
+		// assert
+		assertThat(parser.getOptionValue(size)).isEqualTo(100);
+	}
+
+	@Test
+	public void testStandardOptions() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", "forces verbose execution"));
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		final AbstractOption<String> name = parser.addOption(new StringOption('n', "name", ""));
+		final AbstractOption<Double> fraction = parser.addOption(new DoubleOption('f', "fraction", ""));
+		final AbstractOption<Boolean> missing = parser.addOption(new BooleanOption('m', "missing", ""));
+		final AbstractOption<Boolean> careful = parser.addOption(new BooleanOption("careful", ""));
+		final AbstractOption<Long> bignum = parser.addOption(new LongOption('b', "bignum", ""));
+		final Long longValue = Long.valueOf(Long.valueOf(Integer.MAX_VALUE) + 1);
+		// run
+		parser.parse(new String[] { "-v", "--size=100", "-b", longValue.toString(), "-n", "foo", "-f", "0.1", "rest" }, Locale.US);
+		// assert
+		assertThat(parser.getOptionValue(verbose)).isTrue();
+		assertThat(parser.getOptionValue(size)).isEqualTo(100);
+		assertThat(parser.getOptionValue(name)).isEqualTo("foo");
+		assertThat(parser.getOptionValue(fraction)).isEqualTo(0.1);
+		assertThat(parser.getOptionValue(missing)).isNull();
+		assertThat(parser.getOptionValue(careful)).isNull();
+		assertThat(parser.getOptionValue(bignum)).isEqualTo(longValue);
+		assertThat(parser.getRemainingArgs()).containsExactly("rest");
+	}
+
+	@Test
+	public void testDefaults() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final Integer fortyTwo = Integer.valueOf(42);
+		final Integer thirtySix = Integer.valueOf(36);
+		final AbstractOption<Boolean> boolean1 = parser.addOption(new BooleanOption("boolean1", ""));
+		final AbstractOption<Boolean> boolean2 = parser.addOption(new BooleanOption("boolean2", ""));
+		final AbstractOption<Boolean> boolean3 = parser.addOption(new BooleanOption("boolean3", ""));
+		final AbstractOption<Boolean> boolean4 = parser.addOption(new BooleanOption("boolean4", ""));
+		final AbstractOption<Boolean> boolean5 = parser.addOption(new BooleanOption("boolean5", ""));
+		final AbstractOption<Integer> int1 = parser.addOption(new IntegerOption("int1", ""));
+		final AbstractOption<Integer> int2 = parser.addOption(new IntegerOption("int2", ""));
+		final AbstractOption<Integer> int3 = parser.addOption(new IntegerOption("int3", ""));
+		final AbstractOption<Integer> int4 = parser.addOption(new IntegerOption("int4", ""));
+		final AbstractOption<String> string1 = parser.addOption(new StringOption("string1", ""));
+		final AbstractOption<String> string2 = parser.addOption(new StringOption("string2", ""));
+		final AbstractOption<String> string3 = parser.addOption(new StringOption("string3", ""));
+		final AbstractOption<String> string4 = parser.addOption(new StringOption("string4", ""));
+		// run
+		parser.parse(new String[] { "--boolean1", "--boolean2", "--int1=42", "--int2=42", "--string1=Hello", "--string2=Hello", });
+		// assert
+		assertThat(parser.getOptionValue(boolean1)).isTrue();
+		assertThat(parser.getOptionValue(boolean2, Boolean.FALSE)).isTrue();
+		assertThat(parser.getOptionValue(boolean3)).isNull();
+		assertThat(parser.getOptionValue(boolean4, Boolean.FALSE)).isFalse();
+		assertThat(parser.getOptionValue(boolean5, Boolean.TRUE)).isTrue();
+		assertThat(parser.getOptionValue(int1)).isEqualTo(fortyTwo);
+		assertThat(parser.getOptionValue(int2, thirtySix)).isEqualTo(fortyTwo);
+		assertThat(parser.getOptionValue(int3)).isNull();
+		assertThat(parser.getOptionValue(int4, thirtySix)).isEqualTo(thirtySix);
+		assertThat(parser.getOptionValue(string1)).isEqualTo("Hello");
+		assertThat(parser.getOptionValue(string2, "Goodbye")).isEqualTo("Hello");
+		assertThat(parser.getOptionValue(string3)).isNull();
+		assertThat(parser.getOptionValue(string4, "Goodbye")).isEqualTo("Goodbye");
+	}
+
+	@Test
+	public void testMultipleUses() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", ""));
+		parser.addOption(new BooleanOption('f', "foo", ""));
+		parser.addOption(new BooleanOption('b', "bar", ""));
+		// run
+		parser.parse(new String[] { "--foo", "-v", "-v", "--verbose", "-v", "-b", "rest" });
+		// assert
+		assertThat(countBooleanOption(parser, verbose)).isEqualTo(4);
+	}
+
+	@Test
+	public void testCombinedFlags() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Boolean> alt = parser.addOption(new BooleanOption('a', "alt", ""));
+		final AbstractOption<Boolean> debug = parser.addOption(new BooleanOption('d', "debug", ""));
+		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", ""));
+		// run
+		parser.parse(new String[] { "-dv" });
+		// assert
+		assertThat(parser.getOptionValue(alt)).isNull();
+		assertThat(parser.getOptionValue(debug)).isTrue();
+		assertThat(parser.getOptionValue(verbose)).isTrue();
+	}
+
+	@Test
+	public void testExplictlyTerminatedOptions() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Boolean> alt = parser.addOption(new BooleanOption('a', "alt", ""));
+		final AbstractOption<Boolean> debug = parser.addOption(new BooleanOption('d', "debug", ""));
+		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", ""));
+		final AbstractOption<Double> fraction = parser.addOption(new DoubleOption('f', "fraction", ""));
+		final AbstractOption<Float> start = parser.addOption(new FloatOption('s', "start", ""));
+		// run
+		parser.parse(new String[] { "-a", "hello", "-d", "-f", "10", "-s", "3.14", "--", "goodbye", "-v", "welcome", "-f", "-10"}, Locale.US);
+		// assert
+		assertThat(parser.getOptionValue(alt)).isTrue();
+		assertThat(parser.getOptionValue(debug)).isTrue();
+		assertThat(parser.getOptionValue(verbose)).isNull();
+		assertThat(parser.getOptionValue(fraction)).isEqualTo(10.0);
+		assertThat(parser.getOptionValue(start)).isEqualTo(3.14f);
+		assertThat(parser.getRemainingArgs()).containsExactly("hello", "goodbye", "-v", "welcome", "-f", "-10");
+	}
+
+	@Test
+	public void testGetOptionValues() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", "forces verbose execution"));
+		parser.addOption(new BooleanOption('f', "foo", ""));
+		parser.addOption(new BooleanOption('b', "bar", ""));
+		// run
+		parser.parse(new String[] { "--foo", "-v", "-v", "--verbose", "-v", "-b", "rest" });
+		// assert
+		assertThat(countBooleanOption(parser, verbose)).isEqualTo(4);
+	}
+
+	@Test
+	public void testBadFormat() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		parser.addOption(new IntegerOption('s', "size", ""));
+		// run + assert
+		thrown.expectIllegalOptionValueException("Illegal value 'blah' for option -s/--size");
+		parser.parse(new String[] { "--size=blah" });
+	}
+
+	@Test
+	public void testResetBetweenParse() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", "forces verbose execution"));
+		// run 1
+		parser.parse(new String[] { "-v" });
+		// assert 1
+		assertThat(parser.getOptionValue(verbose)).isTrue();
+		// run 2
+		parser.parse(new String[] {});
+		// assert 2
+		assertThat(parser.getOptionValue(verbose)).isNull();
+	}
+
+	@Test
+	public void testLocale_US() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Double> fraction = parser.addOption(new DoubleOption('f', "fraction", ""));
+		// run
+		parser.parse(new String[] { "--fraction=0.2" }, Locale.US);
+		// assert
+		assertThat(parser.getOptionValue(fraction)).isEqualTo(0.2);
+	}
+
+	@Test
+	public void testLocale_GERMANY() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Double> fraction = parser.addOption(new DoubleOption('f', "fraction", ""));
+		// run
+		parser.parse(new String[] { "--fraction=0,2" }, Locale.GERMANY);
+		// assert
+		assertThat(parser.getOptionValue(fraction)).isEqualTo(0.2);
+	}
+
+	@Test
+	public void testLocale_groupingSeparators() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Double> fraction = parser.addOption(new DoubleOption('f', "fraction", ""));
+		// run + assert
+		assertThat(parser.parse(new String[] { "--fraction=1,000.5" }, Locale.US).getOptionValue(fraction)).isEqualTo(1000.5);
+		assertThat(parser.parse(new String[] { "--fraction=1.000,5" }, Locale.GERMANY).getOptionValue(fraction)).isEqualTo(1000.5);
+		assertThat(parser.parse(new String[] { "--fraction=-0.5" }, Locale.US).getOptionValue(fraction)).isEqualTo(-0.5);
+		assertThat(parser.parse(new String[] { "--fraction=-0.5" }, Locale.GERMANY).getOptionValue(fraction)).isEqualTo(-5.0);
+	}
+
+	@Test
+	public void testDateOptionFollowsLocale() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Date> date = parser.addOption(new DateOption('d', "date", ""));
+		final Calendar expected = Calendar.getInstance();
+		expected.clear();
+		expected.set(2011, Calendar.MARCH, 4);
+		// run + assert
+		assertThat(parser.parse(new String[] { "--date=3/4/11" }, Locale.US).getOptionValue(date)).isEqualTo(expected.getTime());
+		assertThat(parser.parse(new String[] { "--date=04.03.11" }, Locale.GERMANY).getOptionValue(date)).isEqualTo(expected.getTime());
+	}
+
+	@Test
+	public void testConcurrentDateParse() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Date> date = parser.addOption(new DateOption('d', "date", "", new SimpleDateFormat("yyyy-MM-dd")));
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+		// run
+		for (int i = 0; i < 1000; i++) {
+			final int day = 1 + (i % 28);
+			futures.add(executor.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					final Calendar expected = Calendar.getInstance();
+					expected.clear();
+					expected.set(2011, Calendar.FEBRUARY, day);
+					final ParseResult result = parser.parse(new String[] { "-d", String.format("2011-02-%02d", day) });
+					return result.getOptionValue(date).equals(expected.getTime());
+				}
+			}));
+		}
+		executor.shutdown();
+		// assert
+		for (final Future<Boolean> future : futures) {
+			assertThat(future.get()).isTrue();
+		}
+	}
+
+	@Test
+	public void testDetachedOption() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		// run + assert
+		thrown.expectUnknownOptionException("Unknown option '-v'");
+		parser.parse(new String[] { "-v" });
+	}
+
+	@Test
+	public void testMissingValueForStringOption() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		parser.addOption(new BooleanOption('v', "verbose", "forces verbose execution"));
+		parser.addOption(new StringOption('c', "config", "configuration"));
+		// run + assert
+		thrown.expectIllegalOptionValueException("Illegal value '' for option -c/--config");
+		parser.parse(new String[] { "-v", "-c" });
+	}
+
+	@Test
+	public void testWhitespaceValueForStringOption() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<String> opt = parser.addOption(new StringOption('o', "option", "option"));
+		// run
+		parser.parse(new String[] { "-o", " " });
+		// assert
+		assertThat(parser.getOptionValue(opt)).isEqualTo(" ");
+	}
+
+	@Test
+	public void testPrintUsage() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		parser.addOption(new StringOption('i', "input", "inputfile"));
+		parser.addOption(new StringOption('o', "output", "outputfile"));
+		parser.addOption(new IntegerOption('u', "u", "(optional) texture width"));
+		parser.addOption(new IntegerOption('v', "v", "(optional) texture height"));
+		parser.addHelpOption();
+		final String ls = System.getProperty("line.separator");
+		final String expected = //
+			"usage: appname [options]" + ls + //
+			"options:" + ls + //
+			"\t -h,--help: display help" + ls + //
+			"\t -i,--input: inputfile" + ls + //
+			"\t -o,--output: outputfile" + ls + //
+			"\t -u,--u: (optional) texture width" + ls + //
+			"\t -v,--v: (optional) texture height" + ls;
+		// run
+		parser.printUsage();
+		// assert
+		assertThat(stdErr.getContent()).contains(expected);
+	}
+
+	@Test
+	public void testPrintUsageWrapsToWidth() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		parser.addOption(new StringOption('i', "input", "the file to read the texture from"));
+		parser.addOption(new IntegerOption("width", "(optional) texture width")).addValidator(new IntervalValidator<Integer>(1, 4096));
+		parser.addOption(new BooleanOption("verbose", ""));
+		parser.setUsageWidth(40);
+		final String ls = System.getProperty("line.separator");
+		final String expected = //
+			"usage: appname [options]" + ls + //
+			"options:" + ls + //
+			"  -i, --input    the file to read the" + ls + //
+			"                 texture from" + ls + //
+			"      --verbose" + ls + //
+			"      --width    (optional) texture" + ls + //
+			"                 width; interval [1," + ls + //
+			"                 4096]" + ls;
+		// run
+		parser.printUsage();
+		// assert
+		assertThat(stdErr.getContent()).isEqualTo(expected);
+	}
+
+	@Test
+	public void testPrintUsageAfterAddOption() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		parser.addOption(new StringOption('o', "output", ""));
+		parser.printUsage();
+		// run
+		parser.addOption(new StringOption('a', "all", ""));
+		parser.printUsage();
+		// assert
+		final String ls = System.getProperty("line.separator");
+		assertThat(stdErr.getContent()).endsWith("options:" + ls + "\t -a,--all" + ls + "\t -o,--output" + ls);
+	}
+
+	@Test
+	public void testTryParseCollectsAllErrors() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		size.addValidator(new IntervalValidator<Integer>(0, 10));
+		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", ""));
+		final AbstractOption<String> name = parser.addOption(new StringOption('n', "name", ""));
+		final String[] args = { "--bogus", "-s", "x", "-vqn", "--size=11", "-n", "foo", "rest", "-s" };
+		// run
+		final ParseResult result = parser.tryParse(args, Locale.ENGLISH);
+		// assert
+		assertThat(result.getOptionValue(verbose)).isTrue();
+		assertThat(result.getOptionValue(name)).isEqualTo("foo");
+		assertThat(result.hasValues(size)).isFalse();
+		assertThat(result.getRemainingArgs()).containsExactly("rest");
+		final List<String> errors = new ArrayList<String>();
+		for (final ParseError error : result.getErrors()) {
+			errors.add(error.getCode() + "@" + error.getTokenIndex());
+			assertThat(error.getMessage()).isEqualTo(error.toException().getMessage());
+		}
+		assertThat(errors).containsExactly("UNKNOWN_OPTION@0", "ILLEGAL_VALUE@2", "UNKNOWN_SUBOPTION@3", "NOT_FLAG@3", "ILLEGAL_VALUE@4", "ILLEGAL_VALUE@8");
+		assertThat(result.getErrors().get(1).getMessage()).isEqualTo("Illegal value 'x' for option -s/--size");
+		assertThat(result.getErrors().get(3).getMessage()).isEqualTo("Illegal option: '-vqn', 'n' requires a value");
+	}
+
+	@Test
+	public void testTryParsePropagatesConverterBugs() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		parser.addOption(new IntegerOption('s', "size", ""));
+		final NullPointerException bug = new NullPointerException();
+		parser.addOption(new AbstractOption<String>('b', "bug", "", true) {
+			@Override
+			public String guardedParseValue(final String arg, final Locale locale) {
+				throw bug;
+			}
+		});
+		// run
+		try {
+			parser.tryParse(new String[] { "-s", "x", "-b", "x" }, Locale.ENGLISH);
+			fail("NullPointerException expected");
+		} catch (final NullPointerException e) {
+			// assert
+			assertThat(e).isSameAs(bug);
+		}
+	}
+
+	@Test
+	public void testTryParseMatchesParse() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Double> d = parser.addOption(new DoubleOption('d', "double", ""));
+		parser.setLazyConversion(true);
+		// run
+		final ParseResult result = parser.tryParse(new String[] { "-d", "1.5", "x" }, Locale.ENGLISH);
+		// assert
+		assertThat(result.hasErrors()).isFalse();
+		assertThat(result.getErrors()).isEmpty();
+		assertThat(result.getDouble(d, 0)).isEqualTo(1.5);
+		assertThat(parser.getOptionValue(d)).isEqualTo(1.5);
+	}
+
+	@Test
+	public void testAddHelpOptionShort() throws Exception {
+		// setup
+		final CommandLineParser parser = spy(new CommandLineParser());
+		parser.addHelpOption();
+		// run
+		parser.parse(new String[] { "-h" });
+		// assert
+		verify(parser, atLeastOnce()).printUsage();
+	}
+
+	@Test
+	public void testAddHelpOptionLong() throws Exception {
+		// setup
+		final CommandLineParser parser = spy(new CommandLineParser());
+		parser.addHelpOption();
+		// run
+		parser.parse(new String[] { "--help" });
+		// assert
+		verify(parser, atLeastOnce()).printUsage();
+	}
+
+	@Test
+	public void testAddValidator_match() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", "size of something"));
+		size.addValidator(new IntervalValidator<Integer>(0, 100));
+		assertThat(size.toString()).isEqualTo(" -s,--size: size of something; interval [0, 100]");
+		// run
+		parser.parse(new String[] { "--size=50" });
+		// assert
+		assertThat(parser.getOptionValue(size)).isEqualTo(50);
+	}
+
+	@Test
+	public void testAddValidator_noMatch() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", "size of something"));
+		size.addValidator(new IntervalValidator<Integer>(0, 100));
+		assertThat(size.toString()).isEqualTo(" -s,--size: size of something; interval [0, 100]");
+		// run + assert
+		thrown.expectIllegalOptionValueException("Illegal value '1000' for option -s/--size");
+		parser.parse(new String[] { "--size=1000" });
+	}
+
+	@Test
+	public void testParseReturnsIndependentResults() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		// run
+		final ParseResult result1 = parser.parse(new String[] { "-s", "1", "rest1" });
+		final ParseResult result2 = parser.parse(new String[] { "-s", "2" });
+		// assert
+		assertThat(result1.getOptionValue(size)).isEqualTo(1);
+		assertThat(result1.getRemainingArgs()).containsExactly("rest1");
+		assertThat(result2.getOptionValue(size)).isEqualTo(2);
+		assertThat(result2.getRemainingArgs()).isEmpty();
+		assertThat(parser.getOptionValue(size)).isEqualTo(2);
+	}
+
+	@Test
+	public void testConcurrentParse() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		final AbstractOption<String> name = parser.addOption(new StringOption('n', "name", ""));
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+		// run
+		for (int i = 0; i < 1000; i++) {
+			final int value = i;
+			futures.add(executor.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					final ParseResult result = parser.parse(new String[] { "--size=" + value, "-n", "name" + value, "rest" + value });
+					return result.getOptionValue(size).equals(value) && result.getOptionValue(name).equals("name" + value) && result.getRemainingArgs().equals(Arrays.asList("rest" + value));
+				}
+			}));
+		}
+		executor.shutdown();
+		// assert
+		for (final Future<Boolean> future : futures) {
+			assertThat(future.get()).isTrue();
+		}
+	}
+
+	@Test
+	public void testParseListener() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		final IntervalValidator<Integer> validator = new IntervalValidator<Integer>(0, 100);
+		size.addValidator(validator);
+		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", ""));
+		final IParseListener listener = mock(IParseListener.class);
+		parser.setParseListener(listener);
+		// run
+		parser.parse(new String[] { "-v", "--size=42", "rest" });
+		// assert
+		verify(listener).tokenScanned(0, "-v");
+		verify(listener).tokenScanned(1, "--size=42");
+		verify(listener).tokenScanned(2, "rest");
+		verify(listener).optionMatched(verbose, "-v");
+		verify(listener).optionMatched(size, "--size=42");
+		verify(listener).valueConverted(eq(verbose), (String) isNull(), anyLong());
+		verify(listener).valueConverted(eq(size), eq("42"), anyLong());
+		verify(listener).validatorExecuted(size, validator, true);
+		verifyNoMoreInteractions(listener);
+	}
+
+	@Test
+	public void testParseListenerParseFailed() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		final IParseListener listener = mock(IParseListener.class);
+		parser.setParseListener(listener);
+		final String[] args = new String[] { "--size=big" };
+		// run
+		try {
+			parser.parse(args);
+			fail("IllegalOptionValueException expected");
+		} catch (final IllegalOptionValueException expected) {
+			// assert
+			verify(listener).optionMatched(size, "--size=big");
+			verify(listener).parseFailed(args, expected);
+		}
+	}
+
+	@Test
+	public void testParseIterator() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", ""));
+		final List<String> remainingArgs = new ArrayList<String>();
+		// run
+		final ParseResult result = parser.parse(Arrays.asList("a", "-s", "1", "b", "-v", "--", "-s").iterator(), Locale.US, new IRemainingArgHandler() {
+			@Override
+			public void handleRemainingArg(final int position, final String arg) {
+				remainingArgs.add(position + ":" + arg);
+			}
+		});
+		// assert
+		assertThat(result.getOptionValue(size)).isEqualTo(1);
+		assertThat(result.getOptionValue(verbose)).isTrue();
+		assertThat(result.getRemainingArgs()).isEmpty();
+		assertThat(remainingArgs).containsExactly("0:a", "3:b", "6:-s");
+	}
+
+	@Test
+	public void testParseReader() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<String> name = parser.addOption(new StringOption('n', "name", ""));
+		// run
+		final ParseResult result = parser.parse(new StringReader("--name\r\nfoo bar\n\nfile1\u0000file2\n"), Locale.US, null);
+		// assert
+		assertThat(result.getOptionValue(name)).isEqualTo("foo bar");
+		assertThat(result.getRemainingArgs()).containsExactly("file1", "file2");
+	}
+
+	@Test
+	public void testParseChannel() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<String> name = parser.addOption(new StringOption('n', "name", ""));
+		final ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream("-n\u0000gr\u00fc\u00dfe".getBytes("UTF-8")));
+		// run
+		final ParseResult result = parser.parse(channel, Charset.forName("UTF-8"), Locale.US, null);
+		// assert
+		assertThat(result.getOptionValue(name)).isEqualTo("gr\u00fc\u00dfe");
+	}
+
+	@Test
+	public void testArgFileExpansion() throws Exception {
+		// setup
+		final File file = File.createTempFile("args", ".txt");
+		file.deleteOnExit();
+		final FileOutputStream out = new FileOutputStream(file);
+		out.write("--size 42\nrest".getBytes("UTF-8"));
+		out.close();
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		parser.setArgFileExpansion(true);
+		parser.setArgFileCharset(Charset.forName("UTF-8"));
+		// run
+		final ParseResult result = parser.parse(new String[] { "@" + file.getPath(), "more" });
+		// assert
+		assertThat(result.getOptionValue(size)).isEqualTo(42);
+		assertThat(result.getRemainingArgs()).containsExactly("rest", "more");
+	}
+
+	@Test
+	public void testArgFileExpansionIsDisabledByDefault() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		// run
+		final ParseResult result = parser.parse(new String[] { "@missing" });
+		// assert
+		assertThat(result.getRemainingArgs()).containsExactly("@missing");
+	}
+
+	@Test
+	public void testArgFileMissing() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		parser.setArgFileExpansion(true);
+		// run
+		try {
+			parser.parse(new String[] { "@missing" });
+			fail("ArgFileException expected");
+		} catch (final ArgFileException expected) {
+			// assert
+			assertThat(expected.getFileName()).isEqualTo("missing");
+		}
+	}
+
+	@Test
+	public void testTryParseGoesOnAfterArgFile() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		parser.setArgFileExpansion(true);
+		// run
+		final ParseResult result = parser.tryParse(new String[] { "rest", "@missing", "-s", "42", "more" }, Locale.ENGLISH);
+		// assert
+		assertThat(result.getOptionValue(size)).isEqualTo(42);
+		assertThat(result.getRemainingArgs()).containsExactly("rest", "more");
+		assertThat(result.getErrors()).hasSize(1);
+		final ParseError error = result.getErrors().get(0);
+		assertThat(error.getCode()).isEqualTo(ParseError.Code.ARG_FILE);
+		assertThat(error.getTokenIndex()).isEqualTo(1);
+		assertThat(error.getToken()).isEqualTo("@missing");
+		assertThat(error.toException()).isInstanceOf(ArgFileException.class);
+	}
+
+	@Test
+	public void testPrimitiveGetters() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		final AbstractOption<Long> count = parser.addOption(new LongOption('c', "count", ""));
+		final AbstractOption<Double> ratio = parser.addOption(new DoubleOption('r', "ratio", ""));
+		final AbstractOption<Float> scale = parser.addOption(new FloatOption('f', "scale", ""));
+		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", ""));
+		// run
+		final ParseResult result = parser.parse(new String[] { "-s", "-7", "--count=9999999999", "-r", "0.25", "-f", "-1.5", "-v", "-s", "8" }, Locale.US);
+		// assert
+		assertThat(result.getInt(size, 0)).isEqualTo(-7);
+		assertThat(result.getLong(count, 0)).isEqualTo(9999999999L);
+		assertThat(result.getDouble(ratio, 0)).isEqualTo(0.25);
+		assertThat(result.getFloat(scale, 0)).isEqualTo(-1.5f);
+		assertThat(result.getBoolean(verbose, false)).isTrue();
+		assertThat(result.getOptionValue(size)).isEqualTo(-7);
+		assertThat(result.getOptionValues(size)).containsExactly(-7, 8);
+		assertThat(result.getOptionValue(ratio)).isEqualTo(0.25);
+		assertThat(result.getOptionValue(verbose)).isTrue();
+	}
+
+	@Test
+	public void testPrimitiveGettersDefaults() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", ""));
+		final AbstractOption<Integer> boxed = parser.addOption(new AbstractOption<Integer>("boxed", "", true) {
+			@Override
+			public Integer guardedParseValue(final String arg, final Locale locale) {
+				return Integer.valueOf(arg);
+			}
+		});
+		// run
+		final ParseResult result = parser.parse(new String[] { "--boxed", "3" }, Locale.US);
+		// assert
+		assertThat(result.getInt(size, 42)).isEqualTo(42);
+		assertThat(result.getBoolean(verbose, false)).isFalse();
+		assertThat(result.getInt(boxed, 0)).isEqualTo(3);
+	}
+
+	@Test
+	public void testLazyConversion() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AtomicInteger conversions = new AtomicInteger();
+		final AbstractOption<String> name = parser.addOption(new AbstractOption<String>('n', "name", "", true) {
+			@Override
+			public String guardedParseValue(final String arg, final Locale locale) {
+				conversions.incrementAndGet();
+				return arg;
+			}
+		});
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		parser.setLazyConversion(true);
+		// run
+		final ParseResult result = parser.parse(new String[] { "-n", "foo", "-s", "1", "-s", "2" }, Locale.US);
+		// assert
+		assertThat(conversions.get()).isEqualTo(0);
+		assertThat(result.getOptionValue(name)).isEqualTo("foo");
+		assertThat(result.getOptionValue(name)).isEqualTo("foo");
+		assertThat(conversions.get()).isEqualTo(1);
+		assertThat(result.getInt(size, 0)).isEqualTo(1);
+		assertThat(result.getOptionValues(size)).containsExactly(1, 2);
+	}
+
+	@Test
+	public void testLazyConversionFailsOnAccess() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		size.addValidator(new IntervalValidator<Integer>(0, 100));
+		final AbstractOption<Integer> count = parser.addOption(new IntegerOption('c', "count", ""));
+		parser.setLazyConversion(true);
+		final ParseResult result = parser.parse(new String[] { "-s", "1000", "-c", "x" }, Locale.US);
+		thrown.expectIllegalArgumentException("Illegal value 'x' for option -c/--count");
+		// run
+		result.getOptionValue(count);
+	}
+
+	@Test
+	public void testLazyConversionValidateAll() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		size.addValidator(new IntervalValidator<Integer>(0, 100));
+		parser.setLazyConversion(true);
+		final ParseResult result = parser.parse(new String[] { "-s", "50", "-s", "1000" }, Locale.US);
+		assertThat(result.getInt(size, 0)).isEqualTo(50);
+		thrown.expectIllegalOptionValueException("Illegal value '1000' for option -s/--size");
+		// run
+		result.validateAll();
+	}
+
+	@Test
+	public void testGetOptionValuesOfRepeatedOptions() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<String> include = parser.addOption(new StringOption('i', "include", ""));
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		final List<String> args = new ArrayList<String>();
+		for (int i = 0; i < 20000; i++) {
+			args.add("--include=dir" + i);
+			if ((i % 1000) == 0) {
+				args.add("-s");
+				args.add(Integer.toString(i));
+			}
+		}
+		// run
+		final ParseResult result = parser.parse(args.toArray(new String[args.size()]), Locale.US);
+		final List<String> includes = result.getOptionValues(include);
+		// assert
+		assertThat(includes).hasSize(20000);
+		assertThat(includes.get(0)).isEqualTo("dir0");
+		assertThat(includes.get(19999)).isEqualTo("dir19999");
+		int i = 0;
+		for (final String value : includes) {
+			assertThat(value).isEqualTo("dir" + i++);
+		}
+		assertThat(result.getOptionValues(size)).hasSize(20).contains(0, 1000, 19000);
+	}
+
+	@Test
+	public void testGetOptionValuesSupportsRandomAccess() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<String> include = parser.addOption(new StringOption('i', "include", ""));
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		final String[] args = new String[200000];
+		for (int i = 0; i < args.length; i += 2) {
+			args[i] = "--include=dir" + i;
+			args[i + 1] = "--size=" + i;
+		}
+		final ParseResult result = parser.parse(args, Locale.US);
+		// run
+		final List<String> includes = result.getOptionValues(include);
+		final List<Integer> sizes = result.getOptionValues(size);
+		// assert
+		assertThat(includes instanceof RandomAccess).isTrue();
+		assertThat(includes).hasSize(100000);
+		assertThat(sizes).hasSize(100000);
+		for (int i = 0; i < includes.size(); i++) {
+			assertThat(includes.get(i)).isEqualTo("dir" + (2 * i));
+			assertThat(sizes.get(i)).isEqualTo(2 * i);
+		}
+	}
+
+	@Test
+	public void testGetInts() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		final AbstractOption<Integer> count = parser.addOption(new IntegerOption('c', "count", ""));
+		parser.setLazyConversion(true);
+		// run
+		final ParseResult result = parser.parse(new String[] { "-s", "3", "--size=1", "--size=-2", "rest" }, Locale.US);
+		// assert
+		assertThat(result.getInts(size)).isEqualTo(new int[] { 3, 1, -2 });
+		assertThat(result.getInts(count)).isEmpty();
+	}
+
+	@Test
+	public void testGetOptionValuesIsReadOnly() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<String> include = parser.addOption(new StringOption('i', "include", ""));
+		final List<String> includes = parser.parse(new String[] { "-i", "a" }, Locale.US).getOptionValues(include);
+		thrown.expect(UnsupportedOperationException.class);
+		// run
+		includes.add("b");
+	}
+
+	@Test
+	public void testPrefixMatching() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		final AbstractOption<Boolean> verbose = parser.addOption(new BooleanOption('v', "verbose", ""));
+		final AbstractOption<Integer> size = parser.addOption(new IntegerOption('s', "size", ""));
+		parser.setPrefixMatching(true);
+		// run
+		parser.parse(new String[] { "--verb", "--si=42" });
+		// assert
+		assertThat(parser.getOptionValue(verbose)).isTrue();
+		assertThat(parser.getOptionValue(size)).isEqualTo(42);
+	}
+
+	@Test
+	public void testPrefixMatchingIsDisabledByDefault() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		parser.addOption(new BooleanOption('v', "verbose", ""));
+		// run + assert
+		thrown.expectUnknownOptionException("Unknown option '--verb'");
+		parser.parse(new String[] { "--verb" });
+	}
+
+	@Test
+	public void testPrefixMatchingAmbiguous() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		parser.addOption(new BooleanOption("verbose", ""));
+		parser.addOption(new BooleanOption("version", ""));
+		parser.setPrefixMatching(true);
+		// run + assert
+		thrown.expectUnknownOptionException("Ambiguous option '--ver'");
+		parser.parse(new String[] { "--ver" });
+	}
+
+	@Test
+	public void testPrefixMatchingNeedsPrefix() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		parser.addOption(new StringOption("name", ""));
+		parser.setPrefixMatching(true);
+		// run + assert
+		thrown.expectUnknownOptionException("Unknown option '--'");
+		parser.parse(new String[] { "--=x" });
+	}
+
+	@Test
+	public void testFlagOnlyParseCreatesLittleGarbage() throws Exception {
+		// setup
+		final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+		assumeTrue(allocationMXBean.isThreadAllocatedMemorySupported());
+		allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+		assumeTrue(allocationMXBean.isThreadAllocatedMemoryEnabled());
+		final CommandLineParser parser = new CommandLineParser();
+		parser.addOption(new BooleanOption('a', "alt", ""));
+		parser.addOption(new BooleanOption('b', "bar", ""));
+		parser.addOption(new BooleanOption('c', "careful", ""));
+		parser.addOption(new BooleanOption('v', "verbose", ""));
+		final String[] args = new String[] { "-abc", "--verbose", "-a", "-cb" };
+		final int iterations = 50000;
+		for (int i = 0; i < iterations; i++) {
+			parser.parse(args, Locale.US);
+		}
+		final long threadId = Thread.currentThread().getId();
+		// run
+		final long before = allocationMXBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < iterations; i++) {
+			parser.parse(args, Locale.US);
+		}
+		final long after = allocationMXBean.getThreadAllocatedBytes(threadId);
+		// assert
+		// a parse takes about 240 bytes on HotSpot 8 to 21, with or without
+		// escape analysis, so the budget leaves room for other JVMs
+		assertThat((after - before) / iterations).isLessThan(1024);
+	}
+
+	private int countBooleanOption(final CommandLineParser parser, final AbstractOption<Boolean> opt) {
+		int count = 0;
+		final List<Boolean> v = parser.getOptionValues(opt);
+		for (final Boolean b : v) {
+			assertThat(b).isNotNull();
+			if (b) {
+				count++;
+			} else {
+				count--;
+			}
+		}
+		return count;
+	}
 }
\ No newline at end of file
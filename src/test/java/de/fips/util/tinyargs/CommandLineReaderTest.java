@@ -1,104 +1,545 @@
-package de.fips.util.tinyargs;
-
-import static org.fest.assertions.Assertions.assertThat;
-import static org.junit.Assert.fail;
-
-import org.junit.Rule;
-import org.junit.Test;
-
-import de.fips.util.tinyargs.CommandLineReader;
-import de.fips.util.tinyargs.exception.UnknownOptionException;
-import de.fips.util.tinyargs.junit.ExpectedException;
-import de.fips.util.tinyargs.junit.Std;
-
-public class CommandLineReaderTest {
-	@Rule
-	public final Std stdErr = Std.err();
-	@Rule
-	public ExpectedException thrown = ExpectedException.none();
-
-	@Test
-	public void testParseFillsObject() throws Exception {
-		// setup
-		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
-		// run
-		final TestApp object = reader.read(new String[] { "-s", "100", "--text", "Hello World" });
-		// assert
-		assertThat(object.getSize()).isEqualTo(100);
-		assertThat(object.text).isEqualTo("Hello World");
-		assertThat(object.f).isEqualTo(1.13f);
-	}
-
-	@Test
-	public void testHelpString() throws Exception {
-		// setup
-		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
-		final String ls = System.getProperty("line.separator");
-		final String expected = //
-			"usage: TestApp [options]" + ls + //
-			"options:" + ls + //
-			"\t--d" + ls + //
-			"\t -h,--help: display help" + ls + //
-			"\t -s,--size: a fancy size value; interval [0, 100]" + ls + //
-			"\t--text; allowed values [Hello World, foo]" + ls;
-		// run
-		reader.read(new String[] { "-h" });
-		// assert
-		assertThat(reader.helpRequested()).isTrue();
-		assertThat(stdErr.getContent()).contains(expected);
-	}
-
-	@Test
-	public void testHelpStringOnException() throws Exception {
-		// setup
-		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
-		final String invalidOption = "-invalidOption";
-		final String ls = System.getProperty("line.separator");
-		final String expected = //
-			"Illegal option 'i' in '-invalidOption'" + ls + ls + //
-			"usage: TestApp [options]" + ls + //
-			"options:" + ls + //
-			"\t--d" + ls + //
-			"\t -h,--help: display help" + ls + //
-			"\t -s,--size: a fancy size value; interval [0, 100]" + ls + //
-			"\t--text; allowed values [Hello World, foo]" + ls;
-
-		try {
-			// run
-			reader.read(new String[] { invalidOption });
-			fail();
-		} catch (final UnknownOptionException e) {
-			// assert
-			assertThat(e.getOptionName()).isEqualTo(invalidOption);
-			assertThat(reader.helpRequested()).isFalse();
-			assertThat(stdErr.getContent()).contains(expected);
-		}
-	}
-
-	@Test
-	public void testParseValidatorWrongType() throws Exception {
-		// setup
-		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
-		// run + assert
-		thrown.expectIllegalOptionValueException("Illegal value 'string' for option -s/--size");
-		reader.read(new String[] { "--size", "string" });
-	}
-
-	@Test
-	public void testParseValidatorInterval() throws Exception {
-		// setup
-		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
-		// run + assert
-		thrown.expectIllegalOptionValueException("Illegal value '1000' for option -s/--size");
-		reader.read(new String[] { "-s", "1000" });
-	}
-
-	@Test
-	public void testParseValidatorValueSet() throws Exception {
-		// setup
-		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
-		// run + assert
-		thrown.expectIllegalOptionValueException("Illegal value 'invalidValue' for option --text");
-		reader.read(new String[] { "--text", "invalidValue" });
-	}
-}
+package de.fips.util.tinyargs;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import de.fips.util.tinyargs.CommandLineReader;
+import de.fips.util.tinyargs.annotation.InInterval;
+import de.fips.util.tinyargs.annotation.OneOf;
+import de.fips.util.tinyargs.annotation.Option;
+import de.fips.util.tinyargs.exception.UnknownOptionException;
+import de.fips.util.tinyargs.junit.ExpectedException;
+import de.fips.util.tinyargs.junit.Std;
+import de.fips.util.tinyargs.listener.ParseStatistics;
+
+public class CommandLineReaderTest {
+	@Rule
+	public final Std stdErr = Std.err();
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Test
+	public void testParseFillsObject() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		// run
+		final TestApp object = reader.read(new String[] { "-s", "100", "--text", "Hello World" });
+		// assert
+		assertThat(object.getSize()).isEqualTo(100);
+		assertThat(object.text).isEqualTo("Hello World");
+		assertThat(object.f).isEqualTo(1.13f);
+	}
+
+	@Test
+	public void testHelpString() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		final String ls = System.getProperty("line.separator");
+		final String expected = //
+			"usage: TestApp [options]" + ls + //
+			"options:" + ls + //
+			"\t--d" + ls + //
+			"\t -h,--help: display help" + ls + //
+			"\t -s,--size: a fancy size value; interval [0, 100]" + ls + //
+			"\t--text; allowed values [Hello World, foo]" + ls;
+		// run
+		reader.read(new String[] { "-h" });
+		// assert
+		assertThat(reader.helpRequested()).isTrue();
+		assertThat(stdErr.getContent()).contains(expected);
+	}
+
+	@Test
+	public void testHelpStringOnException() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		final String invalidOption = "-invalidOption";
+		final String ls = System.getProperty("line.separator");
+		final String expected = //
+			"Illegal option 'i' in '-invalidOption'" + ls + ls + //
+			"usage: TestApp [options]" + ls + //
+			"options:" + ls + //
+			"\t--d" + ls + //
+			"\t -h,--help: display help" + ls + //
+			"\t -s,--size: a fancy size value; interval [0, 100]" + ls + //
+			"\t--text; allowed values [Hello World, foo]" + ls;
+
+		try {
+			// run
+			reader.read(new String[] { invalidOption });
+			fail();
+		} catch (final UnknownOptionException e) {
+			// assert
+			assertThat(e.getOptionName()).isEqualTo(invalidOption);
+			assertThat(reader.helpRequested()).isFalse();
+			assertThat(stdErr.getContent()).contains(expected);
+		}
+	}
+
+	@Test
+	public void testParseValidatorWrongType() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		// run + assert
+		thrown.expectIllegalOptionValueException("Illegal value 'string' for option -s/--size");
+		reader.read(new String[] { "--size", "string" });
+	}
+
+	@Test
+	public void testParseValidatorInterval() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		// run + assert
+		thrown.expectIllegalOptionValueException("Illegal value '1000' for option -s/--size");
+		reader.read(new String[] { "-s", "1000" });
+	}
+
+	@Test
+	public void testParseValidatorValueSet() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		// run + assert
+		thrown.expectIllegalOptionValueException("Illegal value 'invalidValue' for option --text");
+		reader.read(new String[] { "--text", "invalidValue" });
+	}
+
+	@Test
+	public void testSchemaIsCompiledOnce() throws Exception {
+		// run
+		final OptionSchema<TestApp> schema = OptionSchema.of(TestApp.class, Locale.US);
+		// assert
+		assertThat(OptionSchema.of(TestApp.class, Locale.US)).isSameAs(schema);
+		assertThat(OptionSchema.of(TestApp.class, Locale.GERMANY)).isNotSameAs(schema);
+	}
+
+	@Test
+	public void testReadersShareSchema() throws Exception {
+		// setup
+		final OptionSchema<TestApp> schema = OptionSchema.of(TestApp.class, Locale.US);
+		final CommandLineReader<TestApp> reader1 = CommandLineReader.of(schema);
+		final CommandLineReader<TestApp> reader2 = CommandLineReader.of(schema);
+		// run
+		final TestApp object1 = reader1.read(new String[] { "-s", "10" });
+		final TestApp object2 = reader2.read(new String[] { "-s", "20", "rest" });
+		// assert
+		assertThat(object1).isNotSameAs(object2);
+		assertThat(object1.getSize()).isEqualTo(10);
+		assertThat(object2.getSize()).isEqualTo(20);
+		assertThat(reader1.getRemainingArgs()).isEmpty();
+		assertThat(reader2.getRemainingArgs()).containsExactly("rest");
+	}
+
+	@Test
+	public void testParseListenerIsNotifiedAboutBoundFields() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		final ParseStatistics statistics = new ParseStatistics();
+		reader.setParseListener(statistics);
+		// run
+		reader.read(new String[] { "-s", "100", "--text", "foo" });
+		// assert
+		assertThat(statistics.getTokensScanned()).isEqualTo(4);
+		assertThat(statistics.getOptionsMatched()).isEqualTo(2);
+		assertThat(statistics.getValidatorsExecuted()).isEqualTo(2);
+		assertThat(statistics.getFieldsBound()).isEqualTo(2);
+		assertThat(statistics.getMatchCount("size")).isEqualTo(1);
+	}
+
+	@Test
+	public void testCompleteOptionNames() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		// run + assert
+		assertThat(reader.complete(new String[] { "--" }, 0)).containsExactly("--d", "--help", "--size", "--text");
+		assertThat(reader.complete(new String[] { "-s", "10", "--s" }, 2)).containsExactly("--size");
+		assertThat(reader.complete(new String[] { "-" }, 0)).containsExactly("--d", "--help", "--size", "--text", "-h", "-s");
+		assertThat(reader.complete(new String[] { "foo" }, 0)).isEmpty();
+		assertThat(reader.complete(new String[] { "--", "--" }, 1)).isEmpty();
+	}
+
+	@Test
+	public void testCompleteOneOfValues() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		// run + assert
+		assertThat(reader.complete(new String[] { "--text" }, 1)).containsExactly("Hello World", "foo");
+		assertThat(reader.complete(new String[] { "--text", "f" }, 1)).containsExactly("foo");
+		assertThat(reader.complete(new String[] { "--text=H" }, 0)).containsExactly("--text=Hello World");
+		assertThat(reader.complete(new String[] { "-s", "" }, 1)).isEmpty();
+	}
+
+	@Test
+	public void testCompleteRejectsCursorOutOfRange() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		// assert
+		thrown.expectIllegalArgumentException("cursor 2 out of range [0, 1]");
+		// run
+		reader.complete(new String[] { "--" }, 2);
+	}
+
+	@Test
+	public void testCompletionScripts() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		// run
+		final String bash = reader.bashCompletionScript("test-app");
+		final String zsh = reader.zshCompletionScript("test-app");
+		// assert
+		assertThat(bash).contains("_test_app_complete() {") //
+			.contains("\t\t--text)\n\t\t\tCOMPREPLY=($(compgen -W $'Hello World\\nfoo' -- \"$cur\"))") //
+			.contains("\t\t-s|--size)\n\t\t\tCOMPREPLY=()") //
+			.contains("complete -o default -F _test_app_complete test-app");
+		assertThat(zsh).startsWith("#compdef test-app\n") //
+			.contains("'(-s --size)-s[a fancy size value]:size:'") //
+			.contains("'--text:text:(Hello\\ World foo)'") //
+			.contains("'(-h --help)--help[display help]'");
+	}
+
+	@Test
+	public void testValueSourcesFillMissingOptions() throws Exception {
+		// setup
+		final Map<String, String> environment = new HashMap<String, String>();
+		environment.put("SIZE", "50");
+		environment.put("TEXT", "foo");
+		final Map<String, String> defaults = new HashMap<String, String>();
+		defaults.put("d", "2.5");
+		defaults.put("text", "Hello World");
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class, Locale.ENGLISH);
+		reader.setValueSources(ValueSources.of(environment), ValueSources.of(defaults));
+		// run
+		final TestApp object = reader.read(new String[] { "-s", "10" });
+		// assert
+		assertThat(object.getSize()).isEqualTo(10);
+		assertThat(object.text).isEqualTo("foo");
+		assertThat(object.d).isEqualTo(2.5);
+	}
+
+	@Test
+	public void testValueSourcesAreValidated() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		reader.setValueSources(ValueSources.of(Collections.singletonMap("size", "500")));
+		// assert
+		thrown.expectIllegalOptionValueException("Illegal value '500' for option -s/--size");
+		// run
+		reader.read(new String[0]);
+	}
+
+	@Test
+	public void testSystemPropertiesValueSource() throws Exception {
+		// setup
+		System.setProperty("testapp.size", "42");
+		try {
+			final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+			reader.setValueSources(ValueSources.systemProperties("testapp."));
+			// run
+			final TestApp object = reader.read(new String[0]);
+			// assert
+			assertThat(object.getSize()).isEqualTo(42);
+		} finally {
+			System.clearProperty("testapp.size");
+		}
+	}
+
+	@Test
+	public void testFileValueSource() throws Exception {
+		// setup
+		final File file = File.createTempFile("testapp", ".ini");
+		file.deleteOnExit();
+		final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		writer.write("; comment\r\n# comment\nsize = 7\n[ignored]\ntext=foo\n");
+		writer.close();
+		final IValueSource source = ValueSources.file(file, Charset.forName("UTF-8"));
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		reader.setValueSources(source);
+		// run
+		final TestApp object = reader.read(new String[0]);
+		// assert
+		assertThat(object.getSize()).isEqualTo(7);
+		assertThat(object.text).isNull();
+		assertThat(source.getValue("ignoredtext")).isEqualTo("foo");
+	}
+
+	@Test
+	public void testInstancePerRead() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		reader.setInstancePerRead(true);
+		// run
+		final TestApp first = reader.read(new String[] { "-s", "10", "rest" });
+		final TestApp second = reader.read(new String[] { "--text", "foo" });
+		// assert
+		assertThat(second).isNotSameAs(first);
+		assertThat(first.getSize()).isEqualTo(10);
+		assertThat(first.text).isNull();
+		assertThat(second.getSize()).isEqualTo(0);
+		assertThat(second.text).isEqualTo("foo");
+		assertThat(reader.getRemainingArgs()).isEmpty();
+	}
+
+	@Test
+	public void testInstancePerReadFromManyThreads() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		reader.setInstancePerRead(true);
+		reader.setInstancePoolCapacity(4);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+		// run
+		try {
+			for (int i = 0; i < 200; i++) {
+				final int size = i % 101;
+				futures.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						final TestApp object = reader.read(new String[] { "-s", Integer.toString(size), "arg" + size });
+						final boolean ok = (object.getSize() == size) && (object.d == -123.23) && reader.getRemainingArgs().equals(Arrays.asList("arg" + size));
+						object.d = 0;
+						reader.release(object);
+						return ok;
+					}
+				}));
+			}
+			// assert
+			for (final Future<Boolean> future : futures) {
+				assertThat(future.get()).isTrue();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testReleasedInstanceIsResetToDefaults() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		reader.setInstancePerRead(true);
+		reader.setInstancePoolCapacity(1);
+		final TestApp first = reader.read(new String[] { "-s", "10", "--text", "foo", "--d", "2.5" });
+		// run
+		reader.release(first);
+		final TestApp second = reader.read(new String[] { "rest" });
+		// assert
+		assertThat(second).isSameAs(first);
+		assertThat(second.getSize()).isEqualTo(0);
+		assertThat(second.text).isNull();
+		assertThat(second.d).isEqualTo(-123.23);
+	}
+
+	@Test
+	public void testRecycledInstanceDoesNotShareMutableDefaults() throws Exception {
+		// setup
+		final CommandLineReader<MutableDefaultsApp> reader = CommandLineReader.of(MutableDefaultsApp.class);
+		reader.setInstancePerRead(true);
+		reader.setInstancePoolCapacity(2);
+		final MutableDefaultsApp first = reader.read(new String[0]);
+		reader.release(first);
+		final MutableDefaultsApp second = reader.read(new String[0]);
+		// run
+		second.include.add("b");
+		second.id[0] = 7;
+		reader.release(second);
+		final MutableDefaultsApp third = reader.read(new String[0]);
+		// assert
+		assertThat(third).isSameAs(second);
+		assertThat(third.include).containsExactly("a");
+		assertThat(third.id).isEqualTo(new int[] { 1 });
+	}
+
+	@Test
+	public void testNegativeInstancePoolCapacity() throws Exception {
+		// setup
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(TestApp.class);
+		// assert
+		thrown.expectIllegalArgumentException("Illegal pool capacity: -1");
+		// run
+		reader.setInstancePoolCapacity(-1);
+	}
+
+	@Test
+	public void testConstructorBinding() throws Exception {
+		// setup
+		final CommandLineReader<ImmutableApp> reader = CommandLineReader.of(ImmutableApp.class);
+		// run
+		final ImmutableApp first = reader.read(new String[] { "-s", "42", "--text", "foo", "rest" });
+		final ImmutableApp second = reader.read(new String[0]);
+		// assert
+		assertThat(second).isNotSameAs(first);
+		assertThat(first.size).isEqualTo(42);
+		assertThat(first.text).isEqualTo("foo");
+		assertThat(first.verbose).isFalse();
+		assertThat(second.size).isEqualTo(0);
+		assertThat(second.text).isNull();
+		assertThat(reader.getRemainingArgs()).isEmpty();
+	}
+
+	@Test
+	public void testConstructorBindingTakesRepeatedOptions() throws Exception {
+		// setup
+		final CommandLineReader<ImmutableRepeatedApp> reader = CommandLineReader.of(ImmutableRepeatedApp.class);
+		final ParseStatistics statistics = new ParseStatistics();
+		reader.setParseListener(statistics);
+		// run
+		final ImmutableRepeatedApp first = reader.read(new String[] { "--id", "3", "--include", "b", "--id", "1", "--include", "a", "--tag", "x", "--tag", "x" });
+		final ImmutableRepeatedApp second = reader.read(new String[] { "--tag", "y" });
+		// assert
+		assertThat(first.id).isEqualTo(new int[] { 3, 1 });
+		assertThat(first.include).containsExactly("b", "a");
+		assertThat(first.tag).containsOnly("x");
+		assertThat(second.id).isNull();
+		assertThat(second.include).isNull();
+		assertThat(second.tag).containsOnly("y");
+		assertThat(statistics.getFieldsBound()).isEqualTo(4);
+	}
+
+	@Test
+	public void testConstructorBindingIsValidated() throws Exception {
+		// setup
+		final CommandLineReader<ImmutableApp> reader = CommandLineReader.of(ImmutableApp.class);
+		// assert
+		thrown.expectIllegalOptionValueException("Illegal value 'bar' for option --text");
+		// run
+		reader.read(new String[] { "--text", "bar" });
+	}
+
+	@Test
+	public void testConstructorBindingNeedsLongForm() throws Exception {
+		// assert
+		thrown.expectIllegalArgumentException("The Option-annotated parameter 0 of the constructor of '" + UnnamedParameterApp.class.getName() + "' needs a longForm!");
+		// run
+		CommandLineReader.of(UnnamedParameterApp.class);
+	}
+
+	@Test
+	public void testConstructorBoundInstancesCanNotBePooled() throws Exception {
+		// setup
+		final CommandLineReader<ImmutableApp> reader = CommandLineReader.of(ImmutableApp.class);
+		// assert
+		thrown.expectIllegalArgumentException("The class '" + ImmutableApp.class.getName() + "' is bound via its constructor, its instances can not be recycled!");
+		// run
+		reader.setInstancePoolCapacity(1);
+	}
+
+	@Test
+	public void testRepeatedOptionsFillArraysAndCollections() throws Exception {
+		// setup
+		final CommandLineReader<RepeatedApp> reader = CommandLineReader.of(RepeatedApp.class);
+		final String[] args = { "--id", "3", "--include", "b", "--id", "1", "--include", "a", "--include", "b", "--tag", "x", "--tag", "x", "--name", "n", //
+				"--millis", "5", "--ratio", "0.5", "--ratio", "1.5", "--size", "7", "--enabled", "--id", "2" };
+		// run
+		final RepeatedApp object = reader.read(args);
+		// assert
+		assertThat(object.id).isEqualTo(new int[] { 3, 1, 2 });
+		assertThat(object.millis).isEqualTo(new long[] { 5 });
+		assertThat(object.ratio).isEqualTo(new double[] { 0.5, 1.5 });
+		assertThat(object.size).isEqualTo(new Integer[] { 7 });
+		assertThat(object.enabled).isEqualTo(new boolean[] { true });
+		assertThat(object.name).isEqualTo(new String[] { "n" });
+		assertThat(object.include).containsExactly("b", "a", "b");
+		assertThat(object.tag).containsOnly("x");
+	}
+
+	@Test
+	public void testUnsetRepeatedOptionsKeepDefaults() throws Exception {
+		// setup
+		final CommandLineReader<RepeatedApp> reader = CommandLineReader.of(RepeatedApp.class);
+		// run
+		final RepeatedApp object = reader.read(new String[0]);
+		// assert
+		assertThat(object.id).isEmpty();
+		assertThat(object.include).isNull();
+	}
+
+	@Test
+	public void testCollectionFieldNeedsTypeArgument() throws Exception {
+		// assert
+		thrown.expectIllegalArgumentException("The field 'values' needs a class as type argument!");
+		// run
+		CommandLineReader.of(RawListApp.class);
+	}
+
+	public static class RepeatedApp {
+		@Option
+		int[] id = new int[0];
+		@Option
+		long[] millis;
+		@Option
+		double[] ratio;
+		@Option
+		Integer[] size;
+		@Option
+		boolean[] enabled;
+		@Option
+		String[] name;
+		@Option
+		List<String> include;
+		@Option
+		Set<String> tag;
+	}
+
+	public static class MutableDefaultsApp {
+		@Option
+		List<String> include = new ArrayList<String>(Arrays.asList("a"));
+		@Option
+		int[] id = { 1 };
+	}
+
+	public static class RawListApp {
+		@Option
+		@SuppressWarnings("rawtypes")
+		List values;
+	}
+
+	public static class ImmutableApp {
+		private final int size;
+		private final String text;
+		private final boolean verbose;
+
+		private ImmutableApp(@Option(shortForm = "s", longForm = "size") @InInterval(min = "0", max = "100") final int size,
+				@Option(longForm = "text") @OneOf({ "foo", "Hello World" }) final String text, @Option(longForm = "verbose") final boolean verbose) {
+			this.size = size;
+			this.text = text;
+			this.verbose = verbose;
+		}
+	}
+
+	public static class ImmutableRepeatedApp {
+		private final int[] id;
+		private final List<String> include;
+		private final Set<String> tag;
+
+		public ImmutableRepeatedApp(@Option(longForm = "id") final int[] id, @Option(longForm = "include") final List<String> include,
+				@Option(longForm = "tag") final Set<String> tag) {
+			this.id = id;
+			this.include = include;
+			this.tag = tag;
+		}
+	}
+
+	public static class UnnamedParameterApp {
+		public UnnamedParameterApp(@Option final String text) {
+		}
+	}
+}
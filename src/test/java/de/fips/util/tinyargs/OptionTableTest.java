@@ -0,0 +1,103 @@
+package de.fips.util.tinyargs;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.fips.util.tinyargs.option.AbstractOption;
+import de.fips.util.tinyargs.option.BooleanOption;
+import de.fips.util.tinyargs.option.StringOption;
+
+public class OptionTableTest {
+
+	@Test
+	public void testLongFormIdForManyOptions() throws Exception {
+		// setup
+		final List<AbstractOption<?>> options = new ArrayList<AbstractOption<?>>();
+		for (int i = 0; i < 500; i++) {
+			options.add(new StringOption("option-" + i, ""));
+		}
+		// run
+		final OptionTable table = new OptionTable(options);
+		// assert
+		for (int i = 0; i < 500; i++) {
+			assertThat(table.longFormId("--option-" + i + "=value", 2, 9 + String.valueOf(i).length())).isEqualTo(i);
+		}
+		assertThat(table.longFormId("--option-500", 2, 12)).isEqualTo(OptionTable.NONE);
+		assertThat(table.longFormId("--option", 2, 8)).isEqualTo(OptionTable.NONE);
+	}
+
+	@Test
+	public void testLongFormIdCollidingHashCodes() throws Exception {
+		// setup
+		final List<AbstractOption<?>> options = new ArrayList<AbstractOption<?>>();
+		options.add(new BooleanOption("Aa", ""));
+		options.add(new BooleanOption("BB", ""));
+		// run
+		final OptionTable table = new OptionTable(options);
+		// assert
+		assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+		assertThat(table.longFormId("--Aa", 2, 4)).isEqualTo(0);
+		assertThat(table.longFormId("--BB", 2, 4)).isEqualTo(1);
+	}
+
+	@Test
+	public void testLongFormIdWithoutOptions() throws Exception {
+		// run
+		final OptionTable table = new OptionTable(new ArrayList<AbstractOption<?>>());
+		// assert
+		assertThat(table.longFormId("--verbose", 2, 9)).isEqualTo(OptionTable.NONE);
+		assertThat(table.longFormPrefixId("--verbose", 2, 9)).isEqualTo(OptionTable.NONE);
+	}
+
+	@Test
+	public void testLongFormPrefixId() throws Exception {
+		// setup
+		final List<AbstractOption<?>> options = new ArrayList<AbstractOption<?>>();
+		options.add(new BooleanOption("verbose", ""));
+		options.add(new BooleanOption("version", ""));
+		options.add(new BooleanOption("debug", ""));
+		options.add(new BooleanOption("debug-level", ""));
+		// run
+		final OptionTable table = new OptionTable(options);
+		// assert
+		assertThat(table.longFormPrefixId("--verb", 2, 6)).isEqualTo(0);
+		assertThat(table.longFormPrefixId("--vers", 2, 6)).isEqualTo(1);
+		assertThat(table.longFormPrefixId("--ver", 2, 5)).isEqualTo(OptionTable.AMBIGUOUS);
+		assertThat(table.longFormPrefixId("--debug", 2, 7)).isEqualTo(2);
+		assertThat(table.longFormPrefixId("--debug-", 2, 8)).isEqualTo(3);
+		assertThat(table.longFormPrefixId("--quiet", 2, 7)).isEqualTo(OptionTable.NONE);
+	}
+
+	@Test
+	public void testLongFormPrefixIdRejectsEmptyPrefix() throws Exception {
+		// setup
+		final List<AbstractOption<?>> options = new ArrayList<AbstractOption<?>>();
+		options.add(new StringOption("name", ""));
+		// run
+		final OptionTable table = new OptionTable(options);
+		// assert
+		assertThat(table.longFormPrefixId("--=x", 2, 2)).isEqualTo(OptionTable.NONE);
+		assertThat(table.longFormPrefixId("--n", 2, 3)).isEqualTo(0);
+	}
+
+	@Test
+	public void testShortFormId() throws Exception {
+		// setup
+		final List<AbstractOption<?>> options = new ArrayList<AbstractOption<?>>();
+		options.add(new BooleanOption('v', "verbose", ""));
+		options.add(new BooleanOption('\u00e4', "umlaut", ""));
+		options.add(new BooleanOption("debug", ""));
+		// run
+		final OptionTable table = new OptionTable(options);
+		// assert
+		assertThat(table.shortFormId('v')).isEqualTo(0);
+		assertThat(table.shortFormId('\u00e4')).isEqualTo(1);
+		assertThat(table.shortFormId('d')).isEqualTo(OptionTable.NONE);
+		assertThat(table.idOf(options.get(2))).isEqualTo(2);
+		assertThat(table.idOf(new BooleanOption("debug", ""))).isEqualTo(OptionTable.NONE);
+	}
+}
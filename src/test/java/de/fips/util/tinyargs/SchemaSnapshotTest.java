@@ -0,0 +1,115 @@
+package de.fips.util.tinyargs;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import de.fips.util.tinyargs.annotation.Option;
+import de.fips.util.tinyargs.junit.ExpectedException;
+import de.fips.util.tinyargs.junit.Std;
+
+public class SchemaSnapshotTest {
+	@Rule
+	public final Std stdErr = Std.err();
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Test
+	public void testReadWrittenSnapshot() throws Exception {
+		// setup
+		final OptionSchema<TestApp> schema = SchemaSnapshot.read(TestApp.class, Locale.ENGLISH, new ByteArrayInputStream(snapshotOf(TestApp.class)));
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(schema);
+		// run
+		final TestApp object = reader.read(new String[] { "-s", "100", "--text", "Hello World", "--d", "1.5" });
+		// assert
+		assertThat(object.getSize()).isEqualTo(100);
+		assertThat(object.text).isEqualTo("Hello World");
+		assertThat(object.d).isEqualTo(1.5);
+		assertThat(schema.getApplicationName()).isEqualTo("TestApp");
+		assertThat(schema.isShowUsageOnExeption()).isTrue();
+	}
+
+	@Test
+	public void testSnapshotKeepsValidators() throws Exception {
+		// setup
+		final OptionSchema<TestApp> schema = SchemaSnapshot.read(TestApp.class, Locale.ENGLISH, new ByteArrayInputStream(snapshotOf(TestApp.class)));
+		final CommandLineReader<TestApp> reader = CommandLineReader.of(schema);
+		// assert
+		thrown.expectIllegalOptionValueException("Illegal value 'bar' for option --text");
+		// run
+		reader.read(new String[] { "--text", "bar" });
+	}
+
+	@Test
+	public void testSnapshotUsageMatchesReflection() throws Exception {
+		// setup
+		final OptionSchema<TestApp> schema = SchemaSnapshot.read(TestApp.class, Locale.ENGLISH, new ByteArrayInputStream(snapshotOf(TestApp.class)));
+		CommandLineReader.of(TestApp.class, Locale.ENGLISH).read(new String[] { "-h" });
+		final String expected = stdErr.getContent();
+		// run
+		CommandLineReader.of(schema).read(new String[] { "-h" });
+		// assert
+		assertThat(stdErr.getContent()).isEqualTo(expected + expected);
+	}
+
+	@Test
+	public void testOutdatedSnapshotIsIgnored() throws Exception {
+		// setup
+		final byte[] snapshot = snapshotOf(TestApp.class);
+		final int checksumOffset = 4 + 4 + 2 + Version.getVersion().length() + 2 + TestApp.class.getName().length();
+		snapshot[checksumOffset + 7] ^= 1;
+		// run
+		final OptionSchema<TestApp> schema = SchemaSnapshot.read(TestApp.class, Locale.ENGLISH, new ByteArrayInputStream(snapshot));
+		// assert
+		assertThat(schema).isNull();
+	}
+
+	@Test
+	public void testSnapshotOfOtherClass() throws Exception {
+		// run
+		final OptionSchema<SnapshotApp> schema = SchemaSnapshot.read(SnapshotApp.class, Locale.ENGLISH, new ByteArrayInputStream(snapshotOf(TestApp.class)));
+		// assert
+		assertThat(schema).isNull();
+	}
+
+	@Test
+	public void testLoadSnapshotResource() throws Exception {
+		// setup
+		final File classesDir = new File(SnapshotApp.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		final File file = new File(classesDir, SnapshotApp.class.getName().replace('.', '/') + SchemaSnapshot.EXTENSION);
+		final OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(snapshotOf(SnapshotApp.class));
+		} finally {
+			out.close();
+		}
+		try {
+			// run
+			final OptionSchema<SnapshotApp> schema = SchemaSnapshot.load(SnapshotApp.class, Locale.ENGLISH);
+			// assert
+			assertThat(schema).isNotNull();
+			assertThat(CommandLineReader.of(schema).read(new String[] { "--count", "3" }).count).isEqualTo(3);
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static byte[] snapshotOf(final Class<?> type) throws Exception {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		SchemaSnapshot.write(type, out);
+		return out.toByteArray();
+	}
+
+	public static class SnapshotApp {
+		@Option()
+		public int count;
+	}
+}
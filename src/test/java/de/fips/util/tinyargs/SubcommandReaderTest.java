@@ -0,0 +1,122 @@
+package de.fips.util.tinyargs;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import de.fips.util.tinyargs.annotation.Option;
+import de.fips.util.tinyargs.junit.ExpectedException;
+
+public class SubcommandReaderTest {
+	private static final Set<String> LOADED_SUBCOMMANDS = new HashSet<String>();
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Test
+	public void testReadSelectsSubcommand() throws Exception {
+		// setup
+		final SubcommandReader<Global> reader = SubcommandReader.of(Global.class) //
+			.addSubcommand("deploy", Deploy.class) //
+			.addSubcommand("gc", Gc.class);
+		// run
+		final SubcommandResult<Global> result = reader.read(new String[] { "-v", "deploy", "--target", "prod", "-v", "extra" });
+		// assert
+		assertThat(result.getGlobalOptions().verbose).isTrue();
+		assertThat(result.getName()).isEqualTo("deploy");
+		assertThat(result.getCommand(Deploy.class).target).isEqualTo("prod");
+		assertThat(result.getCommand(Deploy.class).verbose).isTrue();
+		assertThat(result.getCommand(Gc.class)).isNull();
+		assertThat(result.getRemainingArgs()).containsOnly("extra");
+	}
+
+	@Test
+	public void testReadWithoutSubcommand() throws Exception {
+		// setup
+		final SubcommandReader<Global> reader = SubcommandReader.of(Global.class).addSubcommand("gc", Gc.class);
+		// run
+		final SubcommandResult<Global> result = reader.read(new String[] { "-v" });
+		// assert
+		assertThat(result.getGlobalOptions().verbose).isTrue();
+		assertThat(result.getName()).isNull();
+		assertThat(result.getCommand()).isNull();
+		assertThat(result.getRemainingArgs()).isEmpty();
+	}
+
+	@Test
+	public void testOnlySelectedSubcommandIsLoaded() throws Exception {
+		// setup
+		final String lazyName = SubcommandReaderTest.class.getName() + "$Lazy";
+		final String unusedName = SubcommandReaderTest.class.getName() + "$Unused";
+		final SubcommandReader<Global> reader = SubcommandReader.of(Global.class) //
+			.addSubcommand("lazy", lazyName) //
+			.addSubcommand("unused", unusedName);
+		// run
+		final boolean loadedBeforeRead = LOADED_SUBCOMMANDS.contains("lazy");
+		final SubcommandResult<Global> result = reader.read(new String[] { "lazy", "--count", "3" });
+		// assert
+		assertThat(loadedBeforeRead).isFalse();
+		assertThat(LOADED_SUBCOMMANDS).containsOnly("lazy");
+		assertThat(((Lazy) result.getCommand()).count).isEqualTo(3);
+		assertThat(reader.getSubcommandNames()).containsOnly("lazy", "unused");
+	}
+
+	@Test
+	public void testUnknownSubcommand() throws Exception {
+		// setup
+		final SubcommandReader<Global> reader = SubcommandReader.of(Global.class).addSubcommand("gc", Gc.class);
+		// assert
+		thrown.expectUnknownOptionException("Unknown subcommand 'push'");
+		// run
+		reader.read(new String[] { "push" });
+	}
+
+	@Test
+	public void testUnknownSubcommandClass() throws Exception {
+		// setup
+		final SubcommandReader<Global> reader = SubcommandReader.of(Global.class).addSubcommand("gc", "does.not.Exist");
+		// assert
+		thrown.expectIllegalArgumentException("Could not find subcommand class 'does.not.Exist'");
+		// run
+		reader.read(new String[] { "gc" });
+	}
+
+	public static class Global {
+		@Option(shortForm = "v")
+		public boolean verbose;
+	}
+
+	public static class Deploy {
+		@Option()
+		public String target;
+		@Option(shortForm = "v")
+		public boolean verbose;
+	}
+
+	public static class Gc {
+		@Option()
+		public boolean aggressive;
+	}
+
+	public static class Lazy {
+		static {
+			LOADED_SUBCOMMANDS.add("lazy");
+		}
+
+		@Option()
+		public int count;
+	}
+
+	public static class Unused {
+		static {
+			LOADED_SUBCOMMANDS.add("unused");
+		}
+
+		@Option()
+		public int count;
+	}
+}
@@ -0,0 +1,68 @@
+package de.fips.util.tinyargs;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import de.fips.util.tinyargs.junit.ExpectedException;
+
+public class TokenIteratorTest {
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Test
+	public void testSeparators() throws Exception {
+		assertThat(tokensOf("a\nb\u0000c\r\nd")).containsExactly("a", "b", "c", "d");
+	}
+
+	@Test
+	public void testEmptyTokensAreSkipped() throws Exception {
+		assertThat(tokensOf("\n\na\u0000\u0000\r\n")).containsExactly("a");
+		assertThat(tokensOf("")).isEmpty();
+	}
+
+	@Test
+	public void testTokensLongerThanBuffer() throws Exception {
+		// setup
+		final StringBuilder longToken = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			longToken.append((char) ('a' + (i % 26)));
+		}
+		// run + assert
+		assertThat(tokensOf(longToken + "\nb")).containsExactly(longToken.toString(), "b");
+	}
+
+	@Test
+	public void testReadFailure() throws Exception {
+		// setup
+		final TokenIterator iterator = new TokenIterator(new Reader() {
+			@Override
+			public int read(final char[] cbuf, final int off, final int len) throws IOException {
+				throw new IOException("broken pipe");
+			}
+
+			@Override
+			public void close() {
+			}
+		});
+		thrown.expect(TokenIterator.ReadFailedException.class);
+		// run
+		iterator.hasNext();
+	}
+
+	private static List<String> tokensOf(final String input) {
+		final List<String> tokens = new ArrayList<String>();
+		final TokenIterator iterator = new TokenIterator(new StringReader(input));
+		while (iterator.hasNext()) {
+			tokens.add(iterator.next());
+		}
+		return tokens;
+	}
+}
@@ -0,0 +1,201 @@
+package de.fips.util.tinyargs.daemon;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.fips.util.tinyargs.annotation.Option;
+
+public class CommandServerTest {
+	private ExecutorService executor;
+	private CommandServer server;
+	private File tokenFile;
+	private int port;
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+	private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+	@Before
+	public void setUp() throws Exception {
+		executor = Executors.newCachedThreadPool();
+		server = new CommandServer(executor).register("greet", Greet.class, new ICommandHandler<Greet>() {
+			@Override
+			public int run(final Greet options, final List<String> remainingArgs, final PrintStream stdout, final PrintStream stderr) throws Exception {
+				for (int i = 0; i < options.times; i++) {
+					stdout.println("Hello " + options.name + remainingArgs);
+				}
+				stderr.println("done");
+				if (options.fail) {
+					throw new IllegalStateException("failed on purpose");
+				}
+				return 3;
+			}
+		});
+		tokenFile = File.createTempFile("tinyargs", ".token");
+		tokenFile.delete();
+		port = server.start(0, tokenFile);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		server.close();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testTokenFileIsDeletedOnClose() throws Exception {
+		// assert
+		assertThat(tokenFile.length()).isEqualTo(Protocol.TOKEN_LENGTH);
+		assertThat(tokenFile.canRead()).isTrue();
+		// run
+		server.close();
+		// assert
+		assertThat(tokenFile.exists()).isFalse();
+	}
+
+	@Test
+	public void testStaleTokenFileIsReplaced() throws Exception {
+		// setup
+		final File dir = File.createTempFile("tinyargs", ".dir");
+		dir.delete();
+		dir.mkdir();
+		final File file = new File(dir, "token");
+		final FileOutputStream staleOut = new FileOutputStream(file);
+		try {
+			staleOut.write(new byte[Protocol.TOKEN_LENGTH]);
+		} finally {
+			staleOut.close();
+		}
+		final byte[] token = Protocol.newToken();
+		try {
+			// run
+			Protocol.writeToken(file, token);
+			// assert
+			assertThat(Protocol.readToken(file)).isEqualTo(token);
+			assertThat(dir.list()).containsOnly("token");
+		} finally {
+			file.delete();
+			dir.delete();
+		}
+	}
+
+	@Test
+	public void testWrongTokenIsRejected() throws Exception {
+		// setup
+		final File wrongTokenFile = File.createTempFile("tinyargs", ".token");
+		final FileOutputStream tokenOut = new FileOutputStream(wrongTokenFile);
+		try {
+			tokenOut.write(new byte[Protocol.TOKEN_LENGTH]);
+		} finally {
+			tokenOut.close();
+		}
+		// run
+		try {
+			CommandClient.run(port, wrongTokenFile, new String[] { "greet" }, out, err);
+			fail("IOException expected");
+		} catch (final IOException expected) {
+			// assert
+			assertThat(out.size()).isEqualTo(0);
+		} finally {
+			wrongTokenFile.delete();
+		}
+	}
+
+	@Test
+	public void testClientDoesNotTrustFrameLength() throws Exception {
+		// setup
+		final ServerSocket fakeServer = new ServerSocket(0, 1, Protocol.loopback());
+		final Future<?> answer = executor.submit(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				final Socket client = fakeServer.accept();
+				try {
+					Protocol.readArgs(new DataInputStream(client.getInputStream()), Protocol.readToken(tokenFile));
+					final DataOutputStream clientOut = new DataOutputStream(client.getOutputStream());
+					clientOut.writeByte(Protocol.STDOUT);
+					clientOut.writeInt(Integer.MAX_VALUE);
+					clientOut.write("partial".getBytes("UTF-8"));
+					clientOut.flush();
+				} finally {
+					client.close();
+				}
+				return null;
+			}
+		});
+		// run
+		try {
+			CommandClient.run(fakeServer.getLocalPort(), tokenFile, new String[] { "greet" }, out, err);
+			fail("IOException expected");
+		} catch (final IOException expected) {
+			// assert
+			assertThat(out.toString("UTF-8")).isEqualTo("partial");
+		} finally {
+			answer.get();
+			fakeServer.close();
+		}
+	}
+
+	@Test
+	public void testRunCommand() throws Exception {
+		// run
+		final int exitCode = CommandClient.run(port, tokenFile, new String[] { "greet", "--name", "Wörld", "--times", "2", "x" }, out, err);
+		// assert
+		assertThat(exitCode).isEqualTo(3);
+		assertThat(out.toString("UTF-8")).isEqualTo(String.format("Hello Wörld[x]%nHello Wörld[x]%n"));
+		assertThat(err.toString("UTF-8")).isEqualTo(String.format("done%n"));
+	}
+
+	@Test
+	public void testUnknownCommand() throws Exception {
+		// run
+		final int exitCode = CommandClient.run(port, tokenFile, new String[] { "push" }, out, err);
+		// assert
+		assertThat(exitCode).isEqualTo(CommandServer.USAGE_ERROR);
+		assertThat(err.toString("UTF-8")).isEqualTo(String.format("Unknown command 'push'%n"));
+	}
+
+	@Test
+	public void testIllegalOption() throws Exception {
+		// run
+		final int exitCode = CommandClient.run(port, tokenFile, new String[] { "greet", "--times", "many" }, out, err);
+		// assert
+		assertThat(exitCode).isEqualTo(CommandServer.USAGE_ERROR);
+		assertThat(err.toString("UTF-8")).contains("Illegal value 'many' for option --times");
+		assertThat(out.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void testHandlerException() throws Exception {
+		// run
+		final int exitCode = CommandClient.run(port, tokenFile, new String[] { "greet", "--fail" }, out, err);
+		// assert
+		assertThat(exitCode).isEqualTo(1);
+		assertThat(err.toString("UTF-8")).contains("IllegalStateException: failed on purpose");
+	}
+
+	public static class Greet {
+		@Option()
+		public String name = "World";
+		@Option()
+		public int times = 1;
+		@Option()
+		public boolean fail;
+	}
+}
@@ -0,0 +1,91 @@
+package de.fips.util.tinyargs.listener;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import de.fips.util.tinyargs.CommandLineParser;
+import de.fips.util.tinyargs.exception.UnknownOptionException;
+import de.fips.util.tinyargs.option.AbstractOption;
+import de.fips.util.tinyargs.option.BooleanOption;
+import de.fips.util.tinyargs.option.IntegerOption;
+
+public class ParseStatisticsTest {
+
+	@Test
+	public void testCountsEvents() throws Exception {
+		// setup
+		final CommandLineParser parser = new CommandLineParser();
+		parser.addOption(new IntegerOption('s', "size", ""));
+		parser.addOption(new BooleanOption('v', "verbose", ""));
+		parser.addOption(new BooleanOption('q', "quiet", ""));
+		final ParseStatistics statistics = new ParseStatistics();
+		parser.setParseListener(statistics);
+		// run
+		parser.parse(new String[] { "-vq", "--size", "1", "-s", "2" });
+		try {
+			parser.parse(new String[] { "--unknown" });
+		} catch (final UnknownOptionException ignore) {
+		}
+		// assert
+		assertThat(statistics.getTokensScanned()).isEqualTo(6);
+		assertThat(statistics.getOptionsMatched()).isEqualTo(4);
+		assertThat(statistics.getValuesConverted()).isEqualTo(4);
+		assertThat(statistics.getParseFailures()).isEqualTo(1);
+		assertThat(statistics.getOptionNames()).containsOnly("size", "verbose", "quiet");
+		assertThat(statistics.getMatchCount("size")).isEqualTo(2);
+		assertThat(statistics.getMatchCount("unknown")).isEqualTo(0);
+		long conversions = 0;
+		for (final long count : statistics.getConversionHistogram("size")) {
+			conversions += count;
+		}
+		assertThat(conversions).isEqualTo(2);
+	}
+
+	@Test
+	public void testReset() throws Exception {
+		// setup
+		final ParseStatistics statistics = new ParseStatistics();
+		final AbstractOption<Boolean> verbose = new BooleanOption('v', "verbose", "");
+		statistics.optionMatched(verbose, "-v");
+		statistics.valueConverted(verbose, null, 100);
+		// run
+		statistics.reset();
+		// assert
+		assertThat(statistics.getOptionsMatched()).isEqualTo(0);
+		assertThat(statistics.getValuesConverted()).isEqualTo(0);
+		assertThat(statistics.getOptionNames()).isEmpty();
+	}
+
+	@Test
+	public void testBucketOf() throws Exception {
+		assertThat(ParseStatistics.bucketOf(0)).isEqualTo(0);
+		assertThat(ParseStatistics.bucketOf(1)).isEqualTo(0);
+		assertThat(ParseStatistics.bucketOf(2)).isEqualTo(1);
+		assertThat(ParseStatistics.bucketOf(1023)).isEqualTo(9);
+		assertThat(ParseStatistics.bucketOf(1024)).isEqualTo(10);
+		assertThat(ParseStatistics.bucketOf(Long.MAX_VALUE)).isEqualTo(ParseStatistics.HISTOGRAM_BUCKETS - 1);
+	}
+
+	@Test
+	public void testRegisterMBean() throws Exception {
+		// setup
+		final ParseStatistics statistics = new ParseStatistics();
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		statistics.optionMatched(new BooleanOption('v', "verbose", ""), "-v");
+		// run
+		final ObjectName name = statistics.registerMBean("test");
+		try {
+			// assert
+			assertThat(server.getAttribute(name, "OptionsMatched")).isEqualTo(1L);
+			assertThat(server.invoke(name, "getMatchCount", new Object[] { "verbose" }, new String[] { String.class.getName() })).isEqualTo(1L);
+		} finally {
+			server.unregisterMBean(name);
+		}
+	}
+}
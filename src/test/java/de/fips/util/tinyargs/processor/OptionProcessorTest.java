@@ -0,0 +1,218 @@
+package de.fips.util.tinyargs.processor;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assume.assumeNotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.fips.util.tinyargs.CommandLineReader;
+import de.fips.util.tinyargs.ISchemaFactory;
+import de.fips.util.tinyargs.OptionSchema;
+
+public class OptionProcessorTest {
+	private File dir;
+
+	@Before
+	public void createDirectory() throws Exception {
+		dir = File.createTempFile("tinyargs", "");
+		dir.delete();
+		dir.mkdirs();
+	}
+
+	@After
+	public void deleteDirectory() throws Exception {
+		delete(dir);
+	}
+
+	@Test
+	public void testGeneratesSchemaFactory() throws Exception {
+		// setup
+		final String source = //
+			"package app;\n" + //
+			"@de.fips.util.tinyargs.annotation.EnableHelp\n" + //
+			"@de.fips.util.tinyargs.annotation.ApplicationName(\"Generated\")\n" + //
+			"public class GeneratedApp {\n" + //
+			"  @de.fips.util.tinyargs.annotation.Option(shortForm = \"s\", description = \"a \\\"size\\\"\")\n" + //
+			"  @de.fips.util.tinyargs.annotation.InInterval(min = \"0\", max = \"100\")\n" + //
+			"  public int size;\n" + //
+			"  @de.fips.util.tinyargs.annotation.Option(longForm = \"text\")\n" + //
+			"  @de.fips.util.tinyargs.annotation.OneOf({ \"foo\", \"bar\" })\n" + //
+			"  String name = \"foo\";\n" + //
+			"}\n";
+		// run
+		compile("app/GeneratedApp.java", source);
+		// assert
+		final String generated = read("app/GeneratedAppOptionSchema.java");
+		assertThat(generated).contains("new de.fips.util.tinyargs.option.IntegerOption('s', \"size\", \"a \\\"size\\\"\")");
+		assertThat(generated).contains("target.size = result.getInt(option0, target.size);");
+		assertThat(generated).contains("new de.fips.util.tinyargs.option.StringOption(\"text\", \"\")");
+		assertThat(generated).contains("target.name = result.getOptionValue(option1);");
+	}
+
+	@Test
+	public void testGeneratedSchemaFactoryBindsFields() throws Exception {
+		// setup
+		final String source = //
+			"package app;\n" + //
+			"public class UsedApp {\n" + //
+			"  @de.fips.util.tinyargs.annotation.Option(shortForm = \"s\")\n" + //
+			"  @de.fips.util.tinyargs.annotation.InInterval(min = \"0\", max = \"100\")\n" + //
+			"  public int size;\n" + //
+			"}\n";
+		compile("app/UsedApp.java", source);
+		final ClassLoader classLoader = new URLClassLoader(new URL[] { dir.toURI().toURL() }, getClass().getClassLoader());
+		final Class<Object> type = uncheckedCast(classLoader.loadClass("app.UsedApp"));
+		final ISchemaFactory<?> schemaFactory = (ISchemaFactory<?>) classLoader.loadClass("app.UsedAppOptionSchema").newInstance();
+		// run
+		final OptionSchema<Object> schema = OptionSchema.of(type, Locale.US);
+		final Object app = CommandLineReader.of(schema).read(new String[] { "-s", "42" });
+		// assert
+		assertThat(schemaFactory.create(Locale.US).getType()).isEqualTo(type);
+		assertThat(type.getField("size").getInt(app)).isEqualTo(42);
+	}
+
+	@Test
+	public void testGeneratedSchemaFactoryBindsRepeatedOptions() throws Exception {
+		// setup
+		final String source = //
+			"package app;\n" + //
+			"public class RepeatedApp {\n" + //
+			"  @de.fips.util.tinyargs.annotation.Option\n" + //
+			"  public int[] id;\n" + //
+			"  @de.fips.util.tinyargs.annotation.Option\n" + //
+			"  public boolean[] enabled;\n" + //
+			"  @de.fips.util.tinyargs.annotation.Option\n" + //
+			"  public String[] name;\n" + //
+			"  @de.fips.util.tinyargs.annotation.Option\n" + //
+			"  public java.util.List<String> include;\n" + //
+			"  @de.fips.util.tinyargs.annotation.Option\n" + //
+			"  public java.util.Set<String> tag = new java.util.HashSet<String>();\n" + //
+			"}\n";
+		final String diagnostics = compile("app/RepeatedApp.java", source);
+		final ClassLoader classLoader = new URLClassLoader(new URL[] { dir.toURI().toURL() }, getClass().getClassLoader());
+		final Class<Object> type = uncheckedCast(classLoader.loadClass("app.RepeatedApp"));
+		final String[] args = { "--id", "3", "--id", "1", "--enabled", "--name", "a", "--include", "b", "--include", "a", "--tag", "x", "--tag", "x" };
+		// run
+		final Object app = CommandLineReader.of(OptionSchema.of(type, Locale.US)).read(args);
+		// assert
+		assertThat(diagnostics).doesNotContain("falls back to reflection");
+		assertThat(new File(dir, "app/RepeatedAppOptionSchema.java").exists()).isTrue();
+		assertThat((int[]) type.getField("id").get(app)).isEqualTo(new int[] { 3, 1 });
+		assertThat((boolean[]) type.getField("enabled").get(app)).isEqualTo(new boolean[] { true });
+		assertThat((Object[]) type.getField("name").get(app)).isEqualTo(new String[] { "a" });
+		assertThat((List<?>) type.getField("include").get(app)).isEqualTo(Arrays.asList("b", "a"));
+		assertThat((Set<?>) type.getField("tag").get(app)).containsOnly("x");
+	}
+
+	@Test
+	public void testSkipsPrivateFields() throws Exception {
+		// setup
+		final String source = //
+			"package app;\n" + //
+			"public class PrivateApp {\n" + //
+			"  @de.fips.util.tinyargs.annotation.Option\n" + //
+			"  private int size;\n" + //
+			"}\n";
+		// run
+		final String diagnostics = compile("app/PrivateApp.java", source);
+		// assert
+		assertThat(diagnostics).contains("falls back to reflection").doesNotContain("warning");
+		assertThat(new File(dir, "app/PrivateAppOptionSchema.java").exists()).isFalse();
+		assertThat(new File(dir, "app/PrivateApp.class").exists()).isTrue();
+	}
+
+	@Test
+	public void testSkipsClassesWithOptionConstructor() throws Exception {
+		// setup
+		final String source = //
+			"package app;\n" + //
+			"public class ConstructorApp {\n" + //
+			"  @de.fips.util.tinyargs.annotation.Option\n" + //
+			"  public int size;\n" + //
+			"  ConstructorApp() {\n" + //
+			"  }\n" + //
+			"  ConstructorApp(@de.fips.util.tinyargs.annotation.Option(longForm = \"size\") final int size) {\n" + //
+			"    this.size = size + 1;\n" + //
+			"  }\n" + //
+			"}\n";
+		compile("app/ConstructorApp.java", source);
+		final ClassLoader classLoader = new URLClassLoader(new URL[] { dir.toURI().toURL() }, getClass().getClassLoader());
+		final Class<Object> type = uncheckedCast(classLoader.loadClass("app.ConstructorApp"));
+		// run
+		final Object app = CommandLineReader.of(OptionSchema.of(type, Locale.US)).read(new String[] { "--size", "42" });
+		// assert
+		assertThat(new File(dir, "app/ConstructorAppOptionSchema.java").exists()).isFalse();
+		assertThat(type.getField("size").getInt(app)).isEqualTo(43);
+	}
+
+	/**
+	 * @return The diagnostics of the compiler.
+	 */
+	private String compile(final String fileName, final String source) throws IOException {
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assumeNotNull(compiler);
+		final File file = new File(dir, fileName);
+		file.getParentFile().mkdirs();
+		final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			writer.write(source);
+		} finally {
+			writer.close();
+		}
+		final ByteArrayOutputStream diagnostics = new ByteArrayOutputStream();
+		final int result = compiler.run(null, null, diagnostics, "-classpath", System.getProperty("java.class.path"), //
+				"-processor", OptionProcessor.class.getName(), "-d", dir.getPath(), "-s", dir.getPath(), file.getPath());
+		assertThat(result).as(diagnostics.toString()).isEqualTo(0);
+		return diagnostics.toString();
+	}
+
+	private String read(final String fileName) throws IOException {
+		final StringBuilder builder = new StringBuilder();
+		final Reader reader = new InputStreamReader(new FileInputStream(new File(dir, fileName)), "UTF-8");
+		try {
+			final char[] buffer = new char[1024];
+			for (int n = reader.read(buffer); n != -1; n = reader.read(buffer)) {
+				builder.append(buffer, 0, n);
+			}
+		} finally {
+			reader.close();
+		}
+		return builder.toString();
+	}
+
+	private static void delete(final File file) {
+		final File[] children = file.listFiles();
+		if (children != null) {
+			for (final File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T uncheckedCast(final Object value) {
+		return (T) value;
+	}
+}